@@ -0,0 +1,87 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.model.RentalPriceBatch;
+import cn.xuanyuanli.rentradar.model.Subway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 基准测试数据生成<br>
+ * 使用固定随机种子，同一参数在不同提交之间生成完全相同的数据，结果可以直接对比
+ *
+ * @author xuanyuanli
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 20240601L;
+
+    private BenchmarkData() {
+        // 工具类不应被实例化
+    }
+
+    static Random random() {
+        return new Random(SEED);
+    }
+
+    /**
+     * 房源价格样本：面积 8-40㎡，每平米价格按对数正态分布集中在 100 元附近，约 2% 为录入错误造成的异常值
+     */
+    static RentalPriceBatch listingPrices(int size) {
+        Random random = random();
+        RentalPriceBatch batch = new RentalPriceBatch(size);
+        for (int i = 0; i < size; i++) {
+            double area = 8 + random.nextDouble() * 32;
+            double pricePerMeter = Math.exp(Math.log(100) + random.nextGaussian() * 0.25);
+            if (random.nextInt(50) == 0) {
+                pricePerMeter *= random.nextBoolean() ? 5 : 0.2;
+            }
+            batch.add(Math.round(pricePerMeter * area), area);
+        }
+        return batch;
+    }
+
+    /**
+     * 地铁站数据：坐标均匀分布在北京城区范围内，带位置和价格
+     */
+    static List<Subway> stations(int size) {
+        Random random = random();
+        List<Subway> stations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String line = (1 + random.nextInt(27)) + "号线";
+            Subway subway = new Subway("站点" + i, line, "https://www.ziroom.com/z/s" + i + "/");
+            subway.setLongitude(String.format(Locale.ROOT, "%.6f", 116.1 + random.nextDouble() * 0.6));
+            subway.setLatitude(String.format(Locale.ROOT, "%.6f", 39.7 + random.nextDouble() * 0.4));
+            subway.setSquareMeterOfPrice(Math.round((40 + random.nextDouble() * 120) * 100) / 100.0);
+            stations.add(subway);
+        }
+        return stations;
+    }
+
+    /**
+     * 价格span的样式列表，每个房源 4-5 位数字，坐标按精灵图的数字顺序和像素间隔生成
+     *
+     * @param spriteId      精灵图标识（URL中的文件名）
+     * @param pixelInterval 数字间隔像素
+     * @param digitOrder    精灵图中从左到右的数字顺序
+     */
+    static List<List<String>> priceStyles(String spriteId, double pixelInterval, String digitOrder, int listings) {
+        Random random = random();
+        List<List<String>> result = new ArrayList<>(listings);
+        for (int i = 0; i < listings; i++) {
+            int price = 1000 + random.nextInt(14000);
+            String digits = String.valueOf(price);
+            List<String> styles = new ArrayList<>(digits.length());
+            for (char digit : digits.toCharArray()) {
+                double offset = digitOrder.indexOf(digit) * pixelInterval;
+                styles.add(String.format(Locale.ROOT,
+                        "background-image: url('//static8.ziroom.com/phoenix/pc/images/price/new-list/%s.png'); "
+                                + "background-position: -%.1fpx center;", spriteId, offset));
+            }
+            result.add(styles);
+        }
+        return result;
+    }
+}
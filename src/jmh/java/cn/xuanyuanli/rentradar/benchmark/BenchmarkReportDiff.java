@@ -0,0 +1,111 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.utils.JsonUtils;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两次JMH运行的JSON结果<br>
+ * 按 基准方法 + 参数 对齐两份结果，输出得分变化；变化超过阈值且超出两次误差之和时标记为变快或变慢<br>
+ * 用法：BenchmarkReportDiff &lt;基线结果.json&gt; &lt;当前结果.json&gt; [阈值百分比，默认5]
+ *
+ * @author xuanyuanli
+ */
+public final class BenchmarkReportDiff {
+
+    private BenchmarkReportDiff() {
+        // 工具类不应被实例化
+    }
+
+    /**
+     * 单个基准结果
+     */
+    private static final class Result {
+        private final String mode;
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private Result(String mode, double score, double error, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BenchmarkReportDiff <基线结果.json> <当前结果.json> [阈值百分比]");
+            System.exit(1);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+        Map<String, Result> baseline = load(args[0]);
+        Map<String, Result> current = load(args[1]);
+
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "基准", "基线", "当前", "变化", "单位");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s  %s%n", entry.getKey(), "-", format(now.score), "新增", now.unit);
+                continue;
+            }
+            double change = (now.score - before.score) / before.score * 100;
+            boolean significant = Math.abs(change) > threshold
+                    && Math.abs(now.score - before.score) > finite(now.error) + finite(before.error);
+            // 吞吐量越大越好，其余模式（平均时间、采样、单次）越小越好
+            boolean better = "thrpt".equals(now.mode) ? change > 0 : change < 0;
+            System.out.printf(Locale.ROOT, "%-70s %14s %14s %+8.1f%%  %s%s%n", entry.getKey(), format(before.score),
+                    format(now.score), change, now.unit, significant ? (better ? "  变快" : "  变慢") : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14s %14s %9s%n", key, format(baseline.get(key).score), "-", "已移除");
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, Result> load(String file) throws IOException {
+        List<Map> runs = JsonUtils.readArray(file, Map.class);
+        if (runs == null) {
+            throw new IOException("无法读取JMH结果: " + file);
+        }
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Map<String, Object> run : runs) {
+            StringBuilder key = new StringBuilder((String) run.get("benchmark"));
+            Map<String, Object> params = (Map<String, Object>) run.get("params");
+            if (params != null) {
+                new TreeMap<>(params).forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            }
+            Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+            results.put(shorten(key.toString()), new Result((String) run.get("mode"),
+                    toDouble(metric.get("score")), toDouble(metric.get("scoreError")), (String) metric.get("scoreUnit")));
+        }
+        return results;
+    }
+
+    private static String shorten(String benchmark) {
+        String prefix = BenchmarkReportDiff.class.getPackageName() + ".";
+        return benchmark.startsWith(prefix) ? benchmark.substring(prefix.length()) : benchmark;
+    }
+
+    private static double toDouble(Object value) {
+        // 单次运行没有误差时JMH输出 "NaN"
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+
+    private static String format(double score) {
+        return String.format(Locale.ROOT, score >= 100 ? "%.1f" : "%.3f", score);
+    }
+}
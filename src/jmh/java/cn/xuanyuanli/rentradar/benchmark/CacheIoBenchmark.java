@@ -0,0 +1,78 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import cn.xuanyuanli.rentradar.utils.SubwaySnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 缓存文件读写基准<br>
+ * 分别测量 CacheManager 使用的两种缓存格式（JSON数组、二进制快照）的完整写入和读取；
+ * CacheManager 对未修改的文件会直接返回内存中的数据，这里直接调用底层读写，测量的是实际的文件I/O和序列化耗时<br>
+ * 文件写在临时目录，结束后删除
+ *
+ * @author xuanyuanli
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheIoBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private Path dir;
+    private List<Subway> stations;
+    private String readFile;
+    private String writeFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("rent-radar-bench");
+        stations = BenchmarkData.stations(size);
+        readFile = dir.resolve("read." + format).toString();
+        writeFile = dir.resolve("write." + format).toString();
+        write(readFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void write(String file) throws IOException {
+        if ("binary".equals(format)) {
+            SubwaySnapshot.write(file, stations);
+        } else {
+            JsonUtils.writeArray(file, stations);
+        }
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        write(writeFile);
+    }
+
+    @Benchmark
+    public List<Subway> read() throws IOException {
+        return "binary".equals(format) ? SubwaySnapshot.read(readFile) : JsonUtils.readArray(readFile, Subway.class);
+    }
+}
@@ -0,0 +1,65 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.model.RentalPriceBatch;
+import cn.xuanyuanli.rentradar.utils.QuantileSketch;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异常价格过滤基准<br>
+ * {@link #removeOutliers()} 与 ZiroomCrawler.removeOutliers 的计算过程一致（分位数草图估计IQR边界后按单价过滤），
+ * 不包含异常数据的日志输出；{@link #exactQuartiles()} 为排序后插值计算四分位数的对照
+ *
+ * @author xuanyuanli
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutlierFilterBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private RentalPriceBatch prices;
+
+    @Setup
+    public void setUp() {
+        prices = BenchmarkData.listingPrices(size);
+    }
+
+    @Benchmark
+    public RentalPriceBatch removeOutliers() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0, n = prices.size(); i < n; i++) {
+            sketch.add(prices.getPricePerSquareMeter(i));
+        }
+        double[] bounds = sketch.iqrBounds(1.5);
+        return prices.filterPricePerSquareMeter(bounds[0], bounds[1]);
+    }
+
+    @Benchmark
+    public RentalPriceBatch exactQuartiles() {
+        int n = prices.size();
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = prices.getPricePerSquareMeter(i);
+        }
+        Arrays.sort(values);
+        double q1 = interpolate(values, 0.25);
+        double q3 = interpolate(values, 0.75);
+        double iqr = q3 - q1;
+        return prices.filterPricePerSquareMeter(q1 - 1.5 * iqr, q3 + 1.5 * iqr);
+    }
+
+    private static double interpolate(double[] sorted, double q) {
+        double position = q * (sorted.length - 1);
+        int lower = (int) position;
+        int upper = Math.min(lower + 1, sorted.length - 1);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+}
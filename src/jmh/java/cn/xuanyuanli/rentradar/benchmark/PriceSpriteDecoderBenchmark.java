@@ -0,0 +1,89 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import cn.xuanyuanli.rentradar.utils.PriceSpriteDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 精灵图价格解码基准<br>
+ * 精灵图取测试资源 sprites/ 下已有的几种，数字顺序和间隔读取自 META-INF/sprite 中的映射；
+ * 每次调用解码 {@value #LISTINGS} 个房源，结果为单个房源的平均耗时
+ *
+ * @author xuanyuanli
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceSpriteDecoderBenchmark {
+
+    private static final int LISTINGS = 1000;
+
+    @Param({"a9da4f199beb8d74bffa9500762fd7b7", "f4c1f82540f8d287aa53492a44f5819b",
+            "img_pricenumber_list_red", "c4b718a0002eb143ea3484b373071495"})
+    public String sprite;
+
+    private List<List<String>> styles;
+    private List<List<Map<String, Object>>> spanData;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<?, ?> mapping;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("META-INF/sprite/" + sprite + ".json")) {
+            if (input == null) {
+                throw new IOException("精灵图映射不存在: " + sprite);
+            }
+            mapping = JsonUtils.parseObject(new String(input.readAllBytes(), StandardCharsets.UTF_8), Map.class);
+        }
+        double pixelInterval = ((Number) mapping.get("pixelInterval")).doubleValue();
+        String digitOrder = (String) mapping.get("digitOrder");
+
+        styles = BenchmarkData.priceStyles(sprite, pixelInterval, digitOrder, LISTINGS);
+        if (PriceSpriteDecoder.decodePriceValue(styles.get(0)) < 0) {
+            throw new IllegalStateException("生成的样式无法解码: " + styles.get(0));
+        }
+        spanData = new ArrayList<>(LISTINGS);
+        for (List<String> listing : styles) {
+            List<Map<String, Object>> spans = new ArrayList<>(listing.size());
+            for (String style : listing) {
+                spans.add(Map.of("style", style));
+            }
+            spanData.add(spans);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTINGS)
+    public void decodePrice(Blackhole blackhole) {
+        for (List<Map<String, Object>> spans : spanData) {
+            blackhole.consume(PriceSpriteDecoder.decodePrice(spans));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTINGS)
+    public void decodePriceFromStyles(Blackhole blackhole) {
+        for (List<String> listing : styles) {
+            blackhole.consume(PriceSpriteDecoder.decodePriceFromStyles(listing));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LISTINGS)
+    public void decodePriceValue(Blackhole blackhole) {
+        for (List<String> listing : styles) {
+            blackhole.consume(PriceSpriteDecoder.decodePriceValue(listing));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.utils.SpriteDigitRecognizer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 未知精灵图数字识别基准，使用测试资源 sprites/ 下的真实精灵图
+ *
+ * @author xuanyuanli
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteRecognitionBenchmark {
+
+    @Param({"sprite_v1_a9da4f199beb8d74bffa9500762fd7b7.png", "sprite_v2_f4c1f82540f8d287aa53492a44f5819b.png",
+            "sprite_red_img_pricenumber_list_red.png", "sprite_new_c4b718a0002eb143ea3484b373071495.png"})
+    public String fixture;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("sprites/" + fixture)) {
+            if (input == null) {
+                throw new IOException("测试精灵图不存在: " + fixture);
+            }
+            image = ImageIO.read(input);
+        }
+    }
+
+    @Benchmark
+    public String recognize() {
+        return SpriteDigitRecognizer.recognize(image);
+    }
+}
@@ -0,0 +1,55 @@
+package cn.xuanyuanli.rentradar.benchmark;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.service.MarkerClusterer;
+import cn.xuanyuanli.rentradar.service.VisualizationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 地图页面生成基准<br>
+ * 分别测量分级聚合、地图数据编码和完整页面渲染（输出到空输出流，不含磁盘写入），使用 application.properties 中的地图配置
+ *
+ * @author xuanyuanli
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisualizationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<Subway> stations;
+    private VisualizationService visualizationService;
+    private MarkerClusterer clusterer;
+
+    @Setup
+    public void setUp() {
+        stations = BenchmarkData.stations(size);
+        visualizationService = new VisualizationService();
+        clusterer = new MarkerClusterer(13, 60);
+    }
+
+    @Benchmark
+    public List<List<MarkerClusterer.Cluster>> cluster() {
+        return clusterer.cluster(stations);
+    }
+
+    @Benchmark
+    public void writeMapData() throws IOException {
+        visualizationService.writeMapData(stations, "2024-06-01 00:00:00", Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void renderHtml() throws IOException {
+        visualizationService.renderHtml(stations, Writer.nullWriter());
+    }
+}
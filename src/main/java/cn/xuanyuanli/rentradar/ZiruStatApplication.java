@@ -2,6 +2,9 @@ package cn.xuanyuanli.rentradar;
 
 import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.service.CrawlDaemon;
+import cn.xuanyuanli.rentradar.service.StationIndex;
+import cn.xuanyuanli.rentradar.service.StationQueryServer;
 import cn.xuanyuanli.rentradar.service.SubwayDataService;
 import cn.xuanyuanli.rentradar.service.VisualizationService;
 import cn.xuanyuanli.rentradar.utils.DirectoryUtils;
@@ -9,6 +12,7 @@ import cn.xuanyuanli.rentradar.service.ServiceContainer;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -21,7 +25,20 @@ import java.util.List;
  */
 public class ZiruStatApplication {
 
+    /**
+     * 退出时等待当前周期结束的最长时间
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private static final String NEARBY_OPTION = "--nearby=";
+
+    /**
+     * 未指定半径时附近站点查询返回的站点数
+     */
+    private static final int NEARBY_COUNT = 10;
+
     private final ServiceContainer serviceContainer;
+    private StationQueryServer queryServer;
 
     public ZiruStatApplication() {
         this.serviceContainer = new ServiceContainer();
@@ -30,11 +47,24 @@ public class ZiruStatApplication {
     /**
      * 应用程序入口点
      * 
-     * @param args 命令行参数：--clear-progress 清除价格获取进度缓存
+     * @param args 命令行参数：--clear-progress 清除价格获取进度缓存；--daemon 以常驻模式运行；
+     *             --serve 以常驻模式运行并启动查询服务；--nearby=经度,纬度[,半径公里] 查询附近站点价格
      */
     public static void main(String[] args) {
         ZiruStatApplication app = new ZiruStatApplication();
-        app.run();
+        AppConfig config = AppConfig.getInstance();
+        List<String> arguments = Arrays.asList(args);
+        String nearby = arguments.stream().filter(arg -> arg.startsWith(NEARBY_OPTION)).findFirst().orElse(null);
+        if (nearby != null) {
+            app.runNearby(nearby.substring(NEARBY_OPTION.length()));
+            return;
+        }
+        boolean serve = arguments.contains("--serve") || config.isServerEnabled();
+        if (serve || arguments.contains("--daemon") || config.isDaemonEnabled()) {
+            app.runDaemon(serve);
+        } else {
+            app.run();
+        }
     }
 
     /**
@@ -49,20 +79,7 @@ public class ZiruStatApplication {
             System.out.println("=== 初始化项目结构 ===");
             DirectoryUtils.initializeDirectories();
 
-            // 获取服务实例
-            SubwayDataService dataService = serviceContainer.getSubwayDataService();
-            VisualizationService visualizationService = serviceContainer.getVisualizationService();
-
-            // 执行核心业务流程
-            System.out.println("=== 开始执行数据收集任务 ===");
-            List<Subway> subwayData = dataService.collectAllSubwayData();
-
-            System.out.println("=== 开始生成可视化 ===");
-            visualizationService.generateHtmlVisualization(subwayData);
-
-            // 显示结果统计
-            printResultSummary(subwayData);
-
+            runCycle();
         } catch (Exception e) {
             System.err.println("程序执行失败: " + e.getMessage());
             //noinspection CallToPrintStackTrace
@@ -74,6 +91,135 @@ public class ZiruStatApplication {
         }
     }
 
+    /**
+     * 常驻模式<br>
+     * 服务容器、浏览器页面池和各级内存缓存在整个进程内保持存活，按配置的间隔或cron表达式周期性执行抓取<br>
+     * 开启查询服务时先用上次的价格数据启动服务，之后每个周期结束后更新服务数据<br>
+     * 收到退出信号后停止调度，等待当前周期结束后释放资源
+     *
+     * @param serve 是否启动查询服务
+     */
+    private void runDaemon(boolean serve) {
+        printWelcomeMessage();
+        AppConfig config = AppConfig.getInstance();
+        CrawlDaemon daemon;
+        try {
+            System.out.println("=== 初始化项目结构 ===");
+            DirectoryUtils.initializeDirectories();
+            daemon = new CrawlDaemon(CrawlDaemon.scheduleFromConfig(config), this::runCycle, config.isDaemonRunOnStart());
+            if (serve) {
+                startQueryServer();
+            }
+        } catch (Exception e) {
+            System.err.println("常驻模式启动失败: " + e.getMessage());
+            stopQueryServer();
+            serviceContainer.shutdown();
+            System.exit(1);
+            return;
+        }
+
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("收到退出信号，等待当前周期结束...");
+            daemon.stop();
+            try {
+                mainThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "daemon-shutdown"));
+
+        String cron = config.getDaemonCron();
+        System.out.println("=== 常驻模式启动，" + (cron == null || cron.isBlank()
+                ? "每 " + config.getDaemonIntervalMinutes() + " 分钟抓取一次" : "cron: " + cron) + " ===");
+        try {
+            daemon.run();
+        } finally {
+            stopQueryServer();
+            serviceContainer.shutdown();
+        }
+    }
+
+    private void startQueryServer() throws Exception {
+        queryServer = new StationQueryServer(serviceContainer.getVisualizationService());
+        List<Subway> cached = serviceContainer.getSubwayDataService().getCachedPriceData();
+        if (!cached.isEmpty()) {
+            queryServer.update(cached);
+        }
+        queryServer.start();
+    }
+
+    private void stopQueryServer() {
+        if (queryServer != null) {
+            queryServer.stop();
+        }
+    }
+
+    /**
+     * 附近站点查询<br>
+     * 基于上次生成的价格数据建立空间索引，不触发抓取；指定半径时列出半径内全部站点，否则列出最近的站点
+     *
+     * @param spec 经度,纬度[,半径公里]
+     */
+    private void runNearby(String spec) {
+        try {
+            String[] parts = spec.split(",");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("参数格式应为 --nearby=经度,纬度[,半径公里]");
+            }
+            double longitude = Double.parseDouble(parts[0].trim());
+            double latitude = Double.parseDouble(parts[1].trim());
+
+            List<Subway> subways = serviceContainer.getSubwayDataService().getCachedPriceData();
+            if (subways.isEmpty()) {
+                System.out.println("没有价格数据，请先运行一次完整抓取");
+                return;
+            }
+            StationIndex index = StationIndex.build(subways);
+            StationIndex.Query query = new StationIndex.Query().priceRange(0.01, Double.POSITIVE_INFINITY);
+            List<StationIndex.Neighbor> neighbors = parts.length == 3
+                    ? index.withinRadius(longitude, latitude, Double.parseDouble(parts[2].trim()), query)
+                    : index.nearest(longitude, latitude, NEARBY_COUNT, query);
+
+            System.out.println("=== 附近站点（" + longitude + ", " + latitude + "） ===");
+            for (StationIndex.Neighbor neighbor : neighbors) {
+                System.out.printf("%6.2f km  %-20s %.1f 元/㎡%n", neighbor.getDistanceKm(),
+                        neighbor.getStation().getDisplayName(), neighbor.getStation().getSquareMeterOfPrice());
+            }
+            neighbors.stream()
+                    .min((a, b) -> Double.compare(a.getStation().getSquareMeterOfPrice(), b.getStation().getSquareMeterOfPrice()))
+                    .ifPresent(cheapest -> System.out.printf("最便宜: %s %.1f 元/㎡（%.2f km）%n",
+                            cheapest.getStation().getDisplayName(), cheapest.getStation().getSquareMeterOfPrice(),
+                            cheapest.getDistanceKm()));
+        } catch (Exception e) {
+            System.err.println("附近站点查询失败: " + e.getMessage());
+        } finally {
+            serviceContainer.shutdown();
+        }
+    }
+
+    /**
+     * 执行一个完整的抓取周期：数据收集、可视化生成和结果统计
+     */
+    private void runCycle() throws Exception {
+        // 获取服务实例
+        SubwayDataService dataService = serviceContainer.getSubwayDataService();
+        VisualizationService visualizationService = serviceContainer.getVisualizationService();
+
+        // 执行核心业务流程
+        System.out.println("=== 开始执行数据收集任务 ===");
+        List<Subway> subwayData = dataService.collectAllSubwayData();
+
+        System.out.println("=== 开始生成可视化 ===");
+        visualizationService.generateHtmlVisualization(subwayData);
+        if (queryServer != null) {
+            queryServer.update(subwayData);
+        }
+
+        // 显示结果统计
+        printResultSummary(subwayData);
+    }
+
     private void printWelcomeMessage() {
         System.out.println("================================");
         System.out.println("    自如租房数据统计系统");
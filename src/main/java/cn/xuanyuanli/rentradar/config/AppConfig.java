@@ -3,22 +3,35 @@ package cn.xuanyuanli.rentradar.config;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 应用程序配置管理类<br>
  * 采用单例模式提供全局配置访问，支持从properties文件和环境变量加载配置<br>
  * 支持配置项占位符解析，提供各种类型的配置获取方法<br>
+ * 加载时一次性解析全部配置项（环境变量覆盖、占位符替换、类型转换），得到不可变的配置快照，
+ * 各获取方法只是读取快照字段，可以放心在热点路径中调用；修改配置文件或环境变量后调用 {@link #reload()} 重新加载<br>
  * 主要管理高德地图API、爬虫参数、缓存设置、文件路径等配置项
  *
  * @author xuanyuanli
  */
 public class AppConfig {
     private static final String CONFIG_FILE = "application.properties";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
     private static volatile AppConfig instance;
-    private Properties properties;
+    private volatile Snapshot snapshot;
 
     private AppConfig() {
-        loadProperties();
+        this.snapshot = new Snapshot(new Source(loadProperties(), System::getenv));
+    }
+
+    /**
+     * 使用指定的配置和环境变量构造，用于测试
+     */
+    AppConfig(Properties properties, UnaryOperator<String> env) {
+        this.snapshot = new Snapshot(new Source(properties, env));
     }
 
     /**
@@ -38,192 +51,586 @@ public class AppConfig {
         return instance;
     }
 
-    private void loadProperties() {
-        properties = new Properties();
+    /**
+     * 重新加载配置文件和环境变量<br>
+     * 新快照构建完成后整体替换，读取方不会看到新旧混合的配置；已经按旧配置创建的对象（线程池、服务端口等）不受影响
+     */
+    public void reload() {
+        snapshot = new Snapshot(new Source(loadProperties(), System::getenv));
+        System.out.println("配置已重新加载: " + CONFIG_FILE);
+    }
+
+    private Properties loadProperties() {
+        Properties properties = new Properties();
         try (InputStream input = getClass().getClassLoader().getResourceAsStream(CONFIG_FILE)) {
             if (input != null) {
-                if (properties != null) {
-                    properties.load(input);
-                }
+                properties.load(input);
             }
         } catch (IOException e) {
             System.err.println("加载配置文件失败: " + e.getMessage());
         }
+        return properties;
     }
 
     // 高德地图配置
     public String getGaodeApiKey() {
-        return getProperty("gaode.api.key", "");
+        return snapshot.gaodeApiKey;
     }
 
     public String getGaodeApiPrivateKey() {
-        return getProperty("gaode.api.privateKey", "");
+        return snapshot.gaodeApiPrivateKey;
     }
 
     public String getGaodeCity() {
-        return getProperty("gaode.api.city", "010");
+        return snapshot.gaodeCity;
+    }
+
+    public double getGaodeApiQps() {
+        return snapshot.gaodeApiQps;
     }
 
     // 爬虫配置
     public int getCrawlerMaxRetry() {
-        return getIntProperty("crawler.retry.maxAttempts", 1);
+        return snapshot.crawlerMaxRetry;
+    }
+
+    public int getCrawlerPoolSize() {
+        return snapshot.crawlerPoolSize;
+    }
+
+    public int getCrawlerWorkerCount() {
+        return snapshot.crawlerWorkerCount;
+    }
+
+    public int getCrawlerQueueCapacity() {
+        return snapshot.crawlerQueueCapacity;
+    }
+
+    public boolean isBatchExtractionEnabled() {
+        return snapshot.batchExtractionEnabled;
+    }
+
+    public int getSamplingTargetSamples() {
+        return snapshot.samplingTargetSamples;
+    }
+
+    public int getSamplingMinSamples() {
+        return snapshot.samplingMinSamples;
+    }
+
+    public int getSamplingMaxPages() {
+        return snapshot.samplingMaxPages;
+    }
+
+    public double getSamplingTolerance() {
+        return snapshot.samplingTolerance;
     }
 
     // 数据配置
     public int getDefaultSquareMeter() {
-        return getIntProperty("data.defaultSquareMeter", 10);
+        return snapshot.defaultSquareMeter;
     }
 
     public boolean isCacheEnabled() {
-        return getBooleanProperty();
+        return snapshot.cacheEnabled;
     }
 
     public int getCacheExpireDays() {
-        return getIntProperty("data.cache.expireDays", 30);
+        return snapshot.cacheExpireDays;
+    }
+
+    /**
+     * 缓存文件格式：json 或 binary
+     */
+    public String getCacheFormat() {
+        return snapshot.cacheFormat;
+    }
+
+    public boolean isCacheJsonExportEnabled() {
+        return snapshot.cacheJsonExportEnabled;
     }
 
     // 分级缓存配置
     public int getStationsCacheExpireDays() {
-        return getIntProperty("data.cache.stations.expireDays", 90);
+        return snapshot.stationsCacheExpireDays;
     }
 
     public int getLocationsCacheExpireDays() {
-        return getIntProperty("data.cache.locations.expireDays", -1);
+        return snapshot.locationsCacheExpireDays;
     }
 
     public int getPricesCacheExpireDays() {
-        return getIntProperty("data.cache.prices.expireDays", 7);
+        return snapshot.pricesCacheExpireDays;
+    }
+
+    // 价格进度日志配置
+    public int getProgressFsyncInterval() {
+        return snapshot.progressFsyncInterval;
+    }
+
+    public int getProgressCompactInterval() {
+        return snapshot.progressCompactInterval;
+    }
+
+    // 增量刷新配置
+    public boolean isPriceRefreshEnabled() {
+        return snapshot.priceRefreshEnabled;
+    }
+
+    public int getRefreshTimeBudgetMinutes() {
+        return snapshot.refreshTimeBudgetMinutes;
+    }
+
+    public int getRefreshMinAgeHours() {
+        return snapshot.refreshMinAgeHours;
+    }
+
+    public double getRefreshVolatilityWeight() {
+        return snapshot.refreshVolatilityWeight;
+    }
+
+    // 常驻模式配置
+    public boolean isDaemonEnabled() {
+        return snapshot.daemonEnabled;
+    }
+
+    public String getDaemonCron() {
+        return snapshot.daemonCron;
+    }
+
+    public int getDaemonIntervalMinutes() {
+        return snapshot.daemonIntervalMinutes;
+    }
+
+    public boolean isDaemonRunOnStart() {
+        return snapshot.daemonRunOnStart;
+    }
+
+    // 查询服务配置
+    public boolean isServerEnabled() {
+        return snapshot.serverEnabled;
+    }
+
+    public String getServerHost() {
+        return snapshot.serverHost;
+    }
+
+    public int getServerPort() {
+        return snapshot.serverPort;
     }
 
+    // 输出目录配置
     public String getBaseDir() {
-        return getProperty("data.output.baseDir", "build");
+        return snapshot.baseDir;
     }
 
     public String getDataDir() {
-        return getProperty("data.output.dataDir", "build/data");
+        return snapshot.dataDir;
     }
 
     public String getOutputDir() {
-        return getProperty("data.output.outputDir", "build/output");
+        return snapshot.outputDir;
     }
 
     // 分级缓存文件路径
     public String getStationsJsonFile() {
-        return getProperty("data.output.stationsJsonFile", "build/data/subway-stations.json");
+        return snapshot.stationsJsonFile;
     }
 
     public String getLocationsJsonFile() {
-        return getProperty("data.output.locationsJsonFile", "build/data/subway-locations.json");
+        return snapshot.locationsJsonFile;
     }
 
     public String getPricesJsonFile() {
-        return getProperty("data.output.pricesJsonFile", "build/data/subway-prices.json");
+        return snapshot.pricesJsonFile;
+    }
+
+    public String getGeocodeCacheFile() {
+        return snapshot.geocodeCacheFile;
+    }
+
+    /**
+     * 房源价格样本目录
+     */
+    public String getSamplesDir() {
+        return snapshot.samplesDir;
+    }
+
+    public boolean isListingSamplesEnabled() {
+        return snapshot.listingSamplesEnabled;
     }
 
     // 兼容旧配置
     public String getPriceJsonFile() {
-        return getProperty("data.output.priceJsonFile", "build/data/subway-prices.json");
+        return snapshot.priceJsonFile;
     }
 
     public String getLocationJsonFile() {
-        return getProperty("data.output.locationJsonFile", "build/data/subway-locations.json");
+        return snapshot.locationJsonFile;
     }
 
+    // 地图页面配置
     public String getHtmlOutputFile() {
-        return getProperty("data.output.htmlFile", "build/output/show.html");
+        return snapshot.htmlOutputFile;
     }
 
     public String getMapTemplate() {
-        return getProperty("data.template.mapTemplate", "templates/map-template.html");
+        return snapshot.mapTemplate;
+    }
+
+    public String getMapMarkerMode() {
+        return snapshot.mapMarkerMode;
+    }
+
+    public int getMapClusterMaxZoom() {
+        return snapshot.mapClusterMaxZoom;
+    }
+
+    public double getMapClusterRadius() {
+        return snapshot.mapClusterRadius;
+    }
+
+    public boolean isMapExternalData() {
+        return snapshot.mapExternalData;
+    }
+
+    public String getMapDataFile() {
+        return snapshot.mapDataFile;
+    }
+
+    // 热力图配置
+    public boolean isHeatmapEnabled() {
+        return snapshot.heatmapEnabled;
+    }
+
+    public String getHeatmapTileDir() {
+        return snapshot.heatmapTileDir;
+    }
+
+    public int getHeatmapMinZoom() {
+        return snapshot.heatmapMinZoom;
+    }
+
+    public int getHeatmapMaxZoom() {
+        return snapshot.heatmapMaxZoom;
+    }
+
+    public double getHeatmapFadeRadiusKm() {
+        return snapshot.heatmapFadeRadiusKm;
+    }
+
+    public int getHeatmapNeighbors() {
+        return snapshot.heatmapNeighbors;
+    }
+
+    public int getHeatmapParallelism() {
+        return snapshot.heatmapParallelism;
+    }
+
+    // 精灵图识别配置
+    public double getSpritePixelInterval() {
+        return snapshot.spritePixelInterval;
+    }
+
+    public String getSpriteImageDir() {
+        return snapshot.spriteImageDir;
+    }
+
+    public String getSpriteTessdataPath() {
+        return snapshot.spriteTessdataPath;
+    }
+
+    public String getSpriteDataDir() {
+        return snapshot.spriteDataDir;
+    }
+
+    public boolean isSpriteHotReloadEnabled() {
+        return snapshot.spriteHotReloadEnabled;
     }
 
     // 价格分析配置
     public double getMinReasonablePrice() {
-        return getDoubleProperty("price.analysis.minReasonablePrice", 10.0);
+        return snapshot.minReasonablePrice;
     }
 
     public double getMaxReasonablePrice() {
-        return getDoubleProperty("price.analysis.maxReasonablePrice", 1000.0);
+        return snapshot.maxReasonablePrice;
     }
 
     public double getMaxAreaLimit() {
-        return getDoubleProperty("price.analysis.maxAreaLimit", 200.0);
-    }
-
-    // 工具方法
-    private String getProperty(String key, String defaultValue) {
-        // 先从环境变量中获取，将点号转换为下划线并转为大写
-        String envKey = key.replace(".", "_").toUpperCase();
-        String envValue = System.getenv(envKey);
-        
-        // 如果环境变量存在，直接返回（不需要解析占位符，因为环境变量通常是最终值）
-        if (envValue != null && !envValue.trim().isEmpty()) {
-            return envValue;
-        }
-        
-        // 否则从属性文件中获取并解析占位符
-        String value = properties.getProperty(key, defaultValue);
-        return resolvePlaceholders(value);
+        return snapshot.maxAreaLimit;
     }
 
     /**
-     * 解析配置中的占位符 ${key}
+     * 解析后的不可变配置快照
      */
-    private String resolvePlaceholders(String value) {
-        if (value == null || !value.contains("${")) {
-            return value;
+    private static final class Snapshot {
+        // 高德地图配置
+        private final String gaodeApiKey;
+        private final String gaodeApiPrivateKey;
+        private final String gaodeCity;
+        private final double gaodeApiQps;
+
+        // 爬虫配置
+        private final int crawlerMaxRetry;
+        private final int crawlerPoolSize;
+        private final int crawlerWorkerCount;
+        private final int crawlerQueueCapacity;
+        private final boolean batchExtractionEnabled;
+        private final int samplingTargetSamples;
+        private final int samplingMinSamples;
+        private final int samplingMaxPages;
+        private final double samplingTolerance;
+
+        // 数据配置
+        private final int defaultSquareMeter;
+        private final boolean cacheEnabled;
+        private final int cacheExpireDays;
+        private final String cacheFormat;
+        private final boolean cacheJsonExportEnabled;
+
+        // 分级缓存配置
+        private final int stationsCacheExpireDays;
+        private final int locationsCacheExpireDays;
+        private final int pricesCacheExpireDays;
+
+        // 价格进度日志配置
+        private final int progressFsyncInterval;
+        private final int progressCompactInterval;
+
+        // 增量刷新配置
+        private final boolean priceRefreshEnabled;
+        private final int refreshTimeBudgetMinutes;
+        private final int refreshMinAgeHours;
+        private final double refreshVolatilityWeight;
+
+        // 常驻模式配置
+        private final boolean daemonEnabled;
+        private final String daemonCron;
+        private final int daemonIntervalMinutes;
+        private final boolean daemonRunOnStart;
+
+        // 查询服务配置
+        private final boolean serverEnabled;
+        private final String serverHost;
+        private final int serverPort;
+
+        // 输出目录配置
+        private final String baseDir;
+        private final String dataDir;
+        private final String outputDir;
+
+        // 分级缓存文件路径
+        private final String stationsJsonFile;
+        private final String locationsJsonFile;
+        private final String pricesJsonFile;
+        private final String geocodeCacheFile;
+        private final String samplesDir;
+        private final boolean listingSamplesEnabled;
+
+        // 兼容旧配置
+        private final String priceJsonFile;
+        private final String locationJsonFile;
+
+        // 地图页面配置
+        private final String htmlOutputFile;
+        private final String mapTemplate;
+        private final String mapMarkerMode;
+        private final int mapClusterMaxZoom;
+        private final double mapClusterRadius;
+        private final boolean mapExternalData;
+        private final String mapDataFile;
+
+        // 热力图配置
+        private final boolean heatmapEnabled;
+        private final String heatmapTileDir;
+        private final int heatmapMinZoom;
+        private final int heatmapMaxZoom;
+        private final double heatmapFadeRadiusKm;
+        private final int heatmapNeighbors;
+        private final int heatmapParallelism;
+
+        // 精灵图识别配置
+        private final double spritePixelInterval;
+        private final String spriteImageDir;
+        private final String spriteTessdataPath;
+        private final String spriteDataDir;
+        private final boolean spriteHotReloadEnabled;
+
+        // 价格分析配置
+        private final double minReasonablePrice;
+        private final double maxReasonablePrice;
+        private final double maxAreaLimit;
+
+        private Snapshot(Source source) {
+            // 高德地图配置
+            gaodeApiKey = source.string("gaode.api.key", "");
+            gaodeApiPrivateKey = source.string("gaode.api.privateKey", "");
+            gaodeCity = source.string("gaode.api.city", "010");
+            gaodeApiQps = source.decimal("gaode.api.qps", 3.0);
+
+            // 爬虫配置
+            crawlerMaxRetry = source.integer("crawler.retry.maxAttempts", 1);
+            crawlerPoolSize = Math.max(1, source.integer("crawler.pool.size", 2));
+            crawlerWorkerCount = Math.max(1, source.integer("crawler.concurrency.workers", crawlerPoolSize));
+            crawlerQueueCapacity = Math.max(1, source.integer("crawler.concurrency.queueCapacity", 16));
+            batchExtractionEnabled = source.bool("crawler.extraction.batch", true);
+            samplingTargetSamples = source.integer("crawler.sampling.targetSamples", 60);
+            samplingMinSamples = source.integer("crawler.sampling.minSamples", 15);
+            samplingMaxPages = source.integer("crawler.sampling.maxPages", 3);
+            samplingTolerance = source.decimal("crawler.sampling.tolerance", 0.03);
+
+            // 数据配置
+            defaultSquareMeter = source.integer("data.defaultSquareMeter", 10);
+            cacheEnabled = source.bool("data.cache.enabled", true);
+            cacheExpireDays = source.integer("data.cache.expireDays", 30);
+            cacheFormat = source.string("data.cache.format", "json");
+            cacheJsonExportEnabled = source.bool("data.cache.jsonExport", true);
+
+            // 分级缓存配置
+            stationsCacheExpireDays = source.integer("data.cache.stations.expireDays", 90);
+            locationsCacheExpireDays = source.integer("data.cache.locations.expireDays", -1);
+            pricesCacheExpireDays = source.integer("data.cache.prices.expireDays", 7);
+
+            // 价格进度日志配置
+            progressFsyncInterval = source.integer("data.progress.fsyncInterval", 1);
+            progressCompactInterval = source.integer("data.progress.compactInterval", 50);
+
+            // 增量刷新配置
+            priceRefreshEnabled = source.bool("data.refresh.enabled", false);
+            refreshTimeBudgetMinutes = source.integer("data.refresh.timeBudgetMinutes", 60);
+            refreshMinAgeHours = source.integer("data.refresh.minAgeHours", 24);
+            refreshVolatilityWeight = source.decimal("data.refresh.volatilityWeight", 10.0);
+
+            // 常驻模式配置
+            daemonEnabled = source.bool("daemon.enabled", false);
+            daemonCron = source.string("daemon.cron", "");
+            daemonIntervalMinutes = source.integer("daemon.intervalMinutes", 1440);
+            daemonRunOnStart = source.bool("daemon.runOnStart", true);
+
+            // 查询服务配置
+            serverEnabled = source.bool("server.enabled", false);
+            serverHost = source.string("server.host", "127.0.0.1");
+            serverPort = source.integer("server.port", 8080);
+
+            // 输出目录配置
+            baseDir = source.string("data.output.baseDir", "build");
+            dataDir = source.string("data.output.dataDir", "build/data");
+            outputDir = source.string("data.output.outputDir", "build/output");
+
+            // 分级缓存文件路径
+            stationsJsonFile = source.string("data.output.stationsJsonFile", "build/data/subway-stations.json");
+            locationsJsonFile = source.string("data.output.locationsJsonFile", "build/data/subway-locations.json");
+            pricesJsonFile = source.string("data.output.pricesJsonFile", "build/data/subway-prices.json");
+            geocodeCacheFile = source.string("data.output.geocodeCacheFile", "build/data/geocode-cache.json");
+            samplesDir = source.string("data.output.samplesDir", "build/data/samples");
+            listingSamplesEnabled = source.bool("data.samples.enabled", true);
+
+            // 兼容旧配置
+            priceJsonFile = source.string("data.output.priceJsonFile", "build/data/subway-prices.json");
+            locationJsonFile = source.string("data.output.locationJsonFile", "build/data/subway-locations.json");
+
+            // 地图页面配置
+            htmlOutputFile = source.string("data.output.htmlFile", "build/output/show.html");
+            mapTemplate = source.string("data.template.mapTemplate", "templates/map-template.html");
+            mapMarkerMode = source.string("map.markerMode", "cluster");
+            mapClusterMaxZoom = source.integer("map.cluster.maxZoom", 13);
+            mapClusterRadius = source.decimal("map.cluster.radius", 60.0);
+            mapExternalData = source.bool("map.externalData", true);
+            mapDataFile = source.string("map.dataFile", outputDir + "/show-data.js");
+
+            // 热力图配置
+            heatmapEnabled = source.bool("map.heatmap.enabled", false);
+            heatmapTileDir = source.string("map.heatmap.tileDir", outputDir + "/tiles");
+            heatmapMinZoom = source.integer("map.heatmap.minZoom", 9);
+            heatmapMaxZoom = source.integer("map.heatmap.maxZoom", 14);
+            heatmapFadeRadiusKm = source.decimal("map.heatmap.fadeRadiusKm", 3.0);
+            heatmapNeighbors = source.integer("map.heatmap.neighbors", 8);
+            heatmapParallelism = source.integer("map.heatmap.parallelism", 0);
+
+            // 精灵图识别配置
+            spritePixelInterval = source.decimal("sprite.recognition.pixelInterval", 21.4);
+            spriteImageDir = source.string("sprite.recognition.imageDir", "");
+            spriteTessdataPath = source.string("sprite.recognition.tessdataPath", "");
+            spriteDataDir = source.string("sprite.dataDir", "build/data/sprite");
+            spriteHotReloadEnabled = source.bool("sprite.hotReload.enabled", true);
+
+            // 价格分析配置
+            minReasonablePrice = source.decimal("price.analysis.minReasonablePrice", 10.0);
+            maxReasonablePrice = source.decimal("price.analysis.maxReasonablePrice", 1000.0);
+            maxAreaLimit = source.decimal("price.analysis.maxAreaLimit", 200.0);
         }
+    }
 
-        String result = value;
-        // 防止无限循环
-        int maxIterations = 10;
-
-        for (int i = 0; i < maxIterations && result.contains("${"); i++) {
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("\\$\\{([^}]+)}");
-            java.util.regex.Matcher matcher = pattern.matcher(result);
+    /**
+     * 配置来源<br>
+     * 解析规则：先从环境变量中获取（点号转为下划线并转为大写），不存在时从属性文件中获取并解析 ${key} 占位符，
+     * 数值转换失败时使用默认值
+     */
+    private static final class Source {
+        private final Properties properties;
+        private final UnaryOperator<String> env;
 
-            StringBuilder sb = new StringBuilder();
-            int lastEnd = 0;
-            boolean found = false;
+        private Source(Properties properties, UnaryOperator<String> env) {
+            this.properties = properties;
+            this.env = env;
+        }
 
-            while (matcher.find()) {
-                String key = matcher.group(1);
-                String replacement = properties.getProperty(key, "");
+        private String string(String key, String defaultValue) {
+            // 先从环境变量中获取，将点号转换为下划线并转为大写
+            String envValue = env.apply(key.replace(".", "_").toUpperCase());
 
-                sb.append(result, lastEnd, matcher.start());
-                sb.append(replacement);
-                lastEnd = matcher.end();
-                found = true;
+            // 如果环境变量存在，直接返回（不需要解析占位符，因为环境变量通常是最终值）
+            if (envValue != null && !envValue.trim().isEmpty()) {
+                return envValue;
             }
 
-            if (found) {
-                sb.append(result.substring(lastEnd));
+            // 否则从属性文件中获取并解析占位符
+            return resolvePlaceholders(properties.getProperty(key, defaultValue));
+        }
+
+        /**
+         * 解析配置中的占位符 ${key}
+         */
+        private String resolvePlaceholders(String value) {
+            String result = value;
+            // 防止无限循环
+            int maxIterations = 10;
+
+            for (int i = 0; i < maxIterations && result != null && result.contains("${"); i++) {
+                Matcher matcher = PLACEHOLDER.matcher(result);
+                if (!matcher.find()) {
+                    break;
+                }
+                StringBuilder sb = new StringBuilder();
+                do {
+                    matcher.appendReplacement(sb, Matcher.quoteReplacement(properties.getProperty(matcher.group(1), "")));
+                } while (matcher.find());
+                matcher.appendTail(sb);
                 result = sb.toString();
-            } else {
-                break;
             }
-        }
 
-        return result;
-    }
+            return result;
+        }
 
-    private int getIntProperty(String key, int defaultValue) {
-        try {
-            return Integer.parseInt(getProperty(key, String.valueOf(defaultValue)));
-        } catch (NumberFormatException e) {
-            return defaultValue;
+        private int integer(String key, int defaultValue) {
+            try {
+                return Integer.parseInt(string(key, String.valueOf(defaultValue)));
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
         }
-    }
 
-    private double getDoubleProperty(String key, double defaultValue) {
-        try {
-            return Double.parseDouble(getProperty(key, String.valueOf(defaultValue)));
-        } catch (NumberFormatException e) {
-            return defaultValue;
+        private double decimal(String key, double defaultValue) {
+            try {
+                return Double.parseDouble(string(key, String.valueOf(defaultValue)));
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
         }
-    }
 
-    private boolean getBooleanProperty() {
-        return Boolean.parseBoolean(getProperty("data.cache.enabled", String.valueOf(true)));
+        private boolean bool(String key, boolean defaultValue) {
+            return Boolean.parseBoolean(string(key, String.valueOf(defaultValue)));
+        }
     }
-}
\ No newline at end of file
+}
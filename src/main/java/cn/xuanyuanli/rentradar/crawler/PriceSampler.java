@@ -0,0 +1,114 @@
+package cn.xuanyuanli.rentradar.crawler;
+
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+
+import java.util.List;
+
+/**
+ * 站点价格采样控制器
+ * <p>
+ * 在翻页抓取单个站点的房源时决定是否继续翻页：
+ * 样本数达到目标、达到最大页数、当前页没有房源，
+ * 或每平米均价在相邻两页之间的相对变化小于容差（已收敛）时停止。
+ * </p>
+ *
+ * <p>每个站点使用一个新的实例，非线程安全。</p>
+ *
+ * @author xuanyuanli
+ * @since 1.0.0
+ */
+public class PriceSampler {
+
+    private final int targetSamples;
+    private final int minSamples;
+    private final int maxPages;
+    private final double tolerance;
+
+    private int pages;
+    private int samples;
+    private double sum;
+    private double lastMean = Double.NaN;
+    private String stopReason;
+
+    /**
+     * 构造函数
+     *
+     * @param targetSamples 目标样本数，达到后停止
+     * @param minSamples    判断收敛前至少需要的样本数
+     * @param maxPages      最多抓取的页数
+     * @param tolerance     均价收敛的相对容差，如0.03表示3%
+     */
+    public PriceSampler(int targetSamples, int minSamples, int maxPages, double tolerance) {
+        this.targetSamples = Math.max(1, targetSamples);
+        this.minSamples = Math.max(1, minSamples);
+        this.maxPages = Math.max(1, maxPages);
+        this.tolerance = Math.max(0, tolerance);
+    }
+
+    /**
+     * 记录一页的有效样本，并判断是否需要继续翻页
+     *
+     * @param pagePrices 当前页的有效租金价格
+     * @return 需要继续抓取下一页返回true，否则返回false
+     */
+    public boolean acceptPage(List<RentalPrice> pagePrices) {
+        pages++;
+        if (pagePrices.isEmpty()) {
+            stopReason = "第" + pages + "页没有有效房源";
+            return false;
+        }
+
+        for (RentalPrice price : pagePrices) {
+            sum += price.getPricePerSquareMeter();
+        }
+        samples += pagePrices.size();
+        double mean = sum / samples;
+        double previousMean = lastMean;
+        lastMean = mean;
+
+        if (samples >= targetSamples) {
+            stopReason = "样本数达到目标 " + targetSamples;
+            return false;
+        }
+        if (samples >= minSamples && !Double.isNaN(previousMean) && previousMean > 0
+                && Math.abs(mean - previousMean) / previousMean <= tolerance) {
+            stopReason = String.format("均价已收敛 (%.2f -> %.2f)", previousMean, mean);
+            return false;
+        }
+        if (pages >= maxPages) {
+            stopReason = "达到最大页数 " + maxPages;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 标记没有下一页，结束采样
+     */
+    public void noMorePages() {
+        if (stopReason == null) {
+            stopReason = "没有下一页";
+        }
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * 当前样本的每平米均价
+     *
+     * @return 均价，没有样本时返回0
+     */
+    public double getRunningMean() {
+        return samples > 0 ? sum / samples : 0.0;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+}
@@ -5,8 +5,10 @@ import cn.xuanyuanli.playwright.stealth.manager.PlaywrightBrowserManager;
 import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.exception.CrawlerException;
 import cn.xuanyuanli.rentradar.model.RentalPrice;
+import cn.xuanyuanli.rentradar.model.RentalPriceBatch;
 import cn.xuanyuanli.rentradar.model.Subway;
 import cn.xuanyuanli.rentradar.utils.PriceSpriteDecoder;
+import cn.xuanyuanli.rentradar.utils.QuantileSketch;
 import cn.xuanyuanli.rentradar.utils.RetryUtils;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
@@ -40,6 +42,34 @@ import java.util.regex.Pattern;
 @SuppressWarnings("CallToPrintStackTrace")
 public class ZiroomCrawler {
 
+    /**
+     * 列表页房源元素选择器
+     */
+    private static final String LISTING_ITEM_SELECTOR = ".Z_list-box div.item";
+
+    /**
+     * 批量提取脚本：一次取回当前页所有房源的文本和价格span样式
+     */
+    private static final String BATCH_EXTRACT_SCRIPT = """
+            () => Array.from(document.querySelectorAll('.Z_list-box div.item'), item => {
+                if (!item.querySelector('.price-content')) return null;
+                const styles = [];
+                for (const span of item.querySelectorAll('.price-content .price span.num')) {
+                    if (!span.style || !span.style.backgroundImage) continue;
+                    styles.push(span.style.cssText || span.getAttribute('style') || '');
+                }
+                return [item.textContent, styles];
+            })""";
+
+    /**
+     * 下一页链接提取脚本
+     */
+    private static final String NEXT_PAGE_SCRIPT = """
+            () => {
+                const next = document.querySelector('.Z_pages a.next');
+                return next ? next.getAttribute('href') : null;
+            }""";
+
     private final AppConfig config;
     private final PlaywrightBrowserManager playwrightManager;
 
@@ -191,50 +221,91 @@ public class ZiroomCrawler {
      * <p>
      * 访问地铁站对应的租房页面，查找页面中的房源列表项，
      * 解析每个房源的价格和面积信息，计算平均每平米价格。
+     * 支持翻页采样：样本数达到目标或均价收敛后提前停止翻页。
      * </p>
      *
      * @param url 要爬取的租房页面URL
      * @return 该页面房源的平均每平米价格，没有有效数据时返回0.0
      */
     public double getAveragePrice(String url) {
+        return calculateAveragePrice(getRentalPrices(url));
+    }
+
+    /**
+     * 爬取指定URL的全部房源价格样本
+     * <p>
+     * 与 {@link #getAveragePrice(String)} 使用相同的翻页采样策略，
+     * 返回未经异常值过滤的原始样本，便于保存到样本库后离线统计。
+     * </p>
+     *
+     * @param url 要爬取的租房页面URL
+     * @return 有效的房源价格样本，没有有效数据时返回空列表
+     */
+    public List<RentalPrice> getRentalPrices(String url) {
         List<RentalPrice> rentalPrices = new ArrayList<>();
+        PriceSampler sampler = new PriceSampler(config.getSamplingTargetSamples(), config.getSamplingMinSamples(),
+                config.getSamplingMaxPages(), config.getSamplingTolerance());
 
         playwrightManager.execute(page -> {
-            page.navigate(url, new Page.NavigateOptions().setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
-            page.waitForSelector(".z_logo_footer");
-
-            HumanBehaviorSimulator.simulate(page);
-
-            // 根据实际网站结构查找房源列表项
-            Locator houseItems = page.locator(".Z_list-box div.item");
-            int itemCount = houseItems.count();
-
-            System.out.println("从 " + url + " 获取到 " + itemCount + " 个有效房源价格");
-
-            for (int i = 0; i < itemCount; i++) {
-                Locator houseItem = houseItems.nth(i);
-                RentalPrice price = null;
-                try {
-                    price = RetryUtils.executeWithRetry(() -> parsePriceFromSprites(houseItem), 2, 100);
-                } catch (Exception e) {
-                    if (e.getMessage().contains("Browser operation failed") || e.getMessage().contains("Page operation failed")) {
-                        System.out.println("页面操作失败，跳过此元素的价格获取：" + houseItem.textContent());
-                    } else {
-                        throw new RuntimeException(e);
-                    }
+            String pageUrl = url;
+            while (pageUrl != null) {
+                page.navigate(pageUrl, new Page.NavigateOptions().setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
+                page.waitForSelector(".z_logo_footer");
+
+                // 首页完整模拟用户行为，后续翻页只做快速模拟
+                if (sampler.getPages() == 0) {
+                    HumanBehaviorSimulator.simulate(page);
+                } else {
+                    HumanBehaviorSimulator.quickSimulate(page);
                 }
-                if (price != null && isValidPrice(price)) {
-                    rentalPrices.add(price);
+
+                List<RentalPrice> pagePrices = config.isBatchExtractionEnabled()
+                        ? extractPricesInBatch(page, pageUrl)
+                        : extractPricesPerItem(page, pageUrl);
+                rentalPrices.addAll(pagePrices);
+
+                if (!sampler.acceptPage(pagePrices)) {
+                    break;
+                }
+                pageUrl = findNextPageUrl(page);
+                if (pageUrl == null) {
+                    sampler.noMorePages();
                 }
             }
         });
 
+        System.out.println("站点采样结束: " + url + "，共 " + sampler.getPages() + " 页 " + sampler.getSamples()
+                + " 个样本，" + sampler.getStopReason());
+        return rentalPrices;
+    }
+
+    /**
+     * 根据房源价格样本计算平均每平米价格
+     * <p>
+     * 先使用四分位数间距(IQR)方法过滤异常值，全部被过滤时使用原始数据。
+     * 统计在 {@link RentalPriceBatch} 的并列数组上进行，不再逐个创建过滤后的对象。
+     * </p>
+     *
+     * @param rentalPrices 房源价格样本
+     * @return 平均每平米价格，没有样本时返回0.0
+     */
+    public double calculateAveragePrice(List<RentalPrice> rentalPrices) {
+        return calculateAveragePrice(RentalPriceBatch.of(rentalPrices));
+    }
+
+    /**
+     * 根据房源价格批量数据计算平均每平米价格
+     *
+     * @param rentalPrices 房源价格批量数据
+     * @return 平均每平米价格，没有样本时返回0.0
+     */
+    public double calculateAveragePrice(RentalPriceBatch rentalPrices) {
         if (rentalPrices.isEmpty()) {
             return 0.0;
         }
 
         // 异常值检测：使用四分位数间距(IQR)方法过滤异常值
-        List<RentalPrice> filteredPrices = removeOutliers(rentalPrices);
+        RentalPriceBatch filteredPrices = removeOutliers(rentalPrices);
         
         if (filteredPrices.isEmpty()) {
             System.out.println("所有价格数据都被识别为异常值，使用原始数据计算平均值");
@@ -243,7 +314,135 @@ public class ZiroomCrawler {
             System.out.println("检测到 " + (rentalPrices.size() - filteredPrices.size()) + " 个异常价格数据，已过滤");
         }
 
-        return filteredPrices.stream().mapToDouble(RentalPrice::getPricePerSquareMeter).average().orElse(0.0);
+        return filteredPrices.meanPricePerSquareMeter();
+    }
+
+    /**
+     * 查找列表页的下一页链接
+     *
+     * @param page 已加载列表页的页面对象
+     * @return 下一页的完整URL，没有下一页时返回null
+     */
+    private String findNextPageUrl(Page page) {
+        Object href = page.evaluate(NEXT_PAGE_SCRIPT);
+        if (!(href instanceof String nextHref) || nextHref.isBlank() || nextHref.startsWith("javascript")) {
+            return null;
+        }
+        if (nextHref.startsWith("//")) {
+            return "https:" + nextHref;
+        }
+        if (nextHref.startsWith("/")) {
+            return "https://www.ziroom.com" + nextHref;
+        }
+        return nextHref;
+    }
+
+    /**
+     * 逐个房源提取价格
+     * <p>
+     * 对每个房源元素分别读取文本、检查价格区域并执行样式提取脚本，
+     * 每个房源需要多次浏览器往返。
+     * </p>
+     *
+     * @param page 已加载列表页的页面对象
+     * @param url  列表页URL
+     * @return 当前页有效的租金价格列表
+     */
+    private List<RentalPrice> extractPricesPerItem(Page page, String url) {
+        List<RentalPrice> rentalPrices = new ArrayList<>();
+
+        // 根据实际网站结构查找房源列表项
+        Locator houseItems = page.locator(LISTING_ITEM_SELECTOR);
+        int itemCount = houseItems.count();
+
+        System.out.println("从 " + url + " 获取到 " + itemCount + " 个有效房源价格");
+
+        for (int i = 0; i < itemCount; i++) {
+            Locator houseItem = houseItems.nth(i);
+            RentalPrice price = null;
+            try {
+                price = RetryUtils.executeWithRetry(() -> parsePriceFromSprites(houseItem), 2, 100);
+            } catch (Exception e) {
+                if (e.getMessage().contains("Browser operation failed") || e.getMessage().contains("Page operation failed")) {
+                    System.out.println("页面操作失败，跳过此元素的价格获取：" + houseItem.textContent());
+                } else {
+                    throw new RuntimeException(e);
+                }
+            }
+            if (price != null && isValidPrice(price)) {
+                rentalPrices.add(price);
+            }
+        }
+        return rentalPrices;
+    }
+
+    /**
+     * 批量提取当前列表页所有房源价格
+     * <p>
+     * 通过一次page.evaluate取回所有房源的文本和价格span样式，
+     * 返回紧凑结构 [[文本, [style, ...]], ...]（无价格区域的房源为null），
+     * 再在Java端统一解析面积和解码精灵图价格。
+     * </p>
+     *
+     * @param page 已加载列表页的页面对象
+     * @param url  列表页URL
+     * @return 当前页有效的租金价格列表
+     */
+    private List<RentalPrice> extractPricesInBatch(Page page, String url) {
+        List<RentalPrice> rentalPrices = new ArrayList<>();
+
+        Object result = RetryUtils.executeWithRetry(() -> page.evaluate(BATCH_EXTRACT_SCRIPT), 2, 100);
+        if (!(result instanceof List<?> items)) {
+            System.out.println("从 " + url + " 批量提取房源失败，返回结果为空");
+            return rentalPrices;
+        }
+
+        System.out.println("从 " + url + " 获取到 " + items.size() + " 个有效房源价格");
+
+        for (Object item : items) {
+            if (!(item instanceof List<?> fields) || fields.size() < 2) {
+                // 没有价格区域的房源
+                continue;
+            }
+            String elementText = String.valueOf(fields.get(0));
+            @SuppressWarnings("unchecked")
+            List<String> styles = fields.get(1) instanceof List<?> list ? (List<String>) list : List.of();
+
+            RentalPrice price = parsePriceFromStyles(elementText, styles, url);
+            if (price != null && isValidPrice(price)) {
+                rentalPrices.add(price);
+            }
+        }
+        return rentalPrices;
+    }
+
+    /**
+     * 根据批量提取的房源文本和span样式解析价格
+     *
+     * @param elementText 房源文本
+     * @param styles      价格span的style字符串列表
+     * @param url         列表页URL，用于日志
+     * @return 解码成功的租金价格对象，面积超限或解析失败时返回null
+     */
+    private RentalPrice parsePriceFromStyles(String elementText, List<String> styles, String url) {
+        double area = extractArea(elementText);
+        if (area <= 0) {
+            System.out.println("无法提取 " + url + " 面积信息，跳过: " + elementText);
+            return null;
+        }
+
+        // 检查面积是否超过限制
+        if (area > config.getMaxAreaLimit()) {
+            return null;
+        }
+
+        long price = PriceSpriteDecoder.decodePriceValue(styles);
+        if (PriceSpriteDecoder.isValidPrice(price)) {
+            System.out.println("\t面积： " + area + " ，价格: " + price);
+            return new RentalPrice(price, area);
+        }
+        System.out.println("无法提取 " + url + " 价格信息，跳过: " + elementText);
+        return null;
     }
 
     /**
@@ -348,74 +547,44 @@ public class ZiroomCrawler {
     /**
      * 使用四分位数间距(IQR)方法去除异常值
      * <p>
-     * 计算价格数据的第一四分位数(Q1)和第三四分位数(Q3)，
+     * 通过 {@link QuantileSketch} 估计第一四分位数(Q1)和第三四分位数(Q3)，
      * 然后计算IQR = Q3 - Q1，异常值定义为：
-     * 小于 Q1 - 1.5 * IQR 或大于 Q3 + 1.5 * IQR 的值
+     * 小于 Q1 - 1.5 * IQR 或大于 Q3 + 1.5 * IQR 的值。
+     * 单个站点的样本数在精确容量内，结果与排序后插值计算完全一致。
      * </p>
      *
-     * @param rentalPrices 原始租金价格对象列表
-     * @return 过滤异常值后的租金价格对象列表
+     * @param rentalPrices 原始租金价格批量数据
+     * @return 过滤异常值后的租金价格批量数据
      */
-    private List<RentalPrice> removeOutliers(List<RentalPrice> rentalPrices) {
-        if (rentalPrices.size() < 4) {
-            return new ArrayList<>(rentalPrices);
+    private RentalPriceBatch removeOutliers(RentalPriceBatch rentalPrices) {
+        int size = rentalPrices.size();
+        if (size < 4) {
+            return rentalPrices;
         }
 
-        List<Double> pricePerMeters = rentalPrices.stream()
-                .map(RentalPrice::getPricePerSquareMeter)
-                .sorted()
-                .toList();
-
-        double q1 = getQuartile(pricePerMeters, 0.25);
-        double q3 = getQuartile(pricePerMeters, 0.75);
-        double iqr = q3 - q1;
-
-        double lowerBound = q1 - 1.5 * iqr;
-        double upperBound = q3 + 1.5 * iqr;
-
-        List<RentalPrice> filteredPrices = new ArrayList<>();
-        List<RentalPrice> outliers = new ArrayList<>();
-        
-        for (RentalPrice price : rentalPrices) {
-            double pricePerMeter = price.getPricePerSquareMeter();
-            if (pricePerMeter >= lowerBound && pricePerMeter <= upperBound) {
-                filteredPrices.add(price);
-            } else {
-                outliers.add(price);
-            }
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < size; i++) {
+            sketch.add(rentalPrices.getPricePerSquareMeter(i));
         }
+        double[] bounds = sketch.iqrBounds(1.5);
+        double lowerBound = bounds[0];
+        double upperBound = bounds[1];
+
+        RentalPriceBatch filteredPrices = rentalPrices.filterPricePerSquareMeter(lowerBound, upperBound);
 
         // 输出异常值信息，包括租金和面积
-        if (!outliers.isEmpty()) {
+        if (filteredPrices.size() < size) {
             System.out.println("检测到异常价格值，边界范围: [" + 
                 String.format("%.2f", lowerBound) + ", " + String.format("%.2f", upperBound) + "]");
-            for (RentalPrice outlier : outliers) {
-                System.out.println("\t异常数据: 租金=" + outlier.getPrice() + "元, 面积=" +
-                    outlier.getArea() + "㎡, 单价=" + String.format("%.2f", outlier.getPricePerSquareMeter()) + "元/㎡");
+            for (int i = 0; i < size; i++) {
+                double pricePerMeter = rentalPrices.getPricePerSquareMeter(i);
+                if (pricePerMeter < lowerBound || pricePerMeter > upperBound) {
+                    System.out.println("\t异常数据: 租金=" + rentalPrices.getPrice(i) + "元, 面积=" +
+                        rentalPrices.getArea(i) + "㎡, 单价=" + String.format("%.2f", pricePerMeter) + "元/㎡");
+                }
             }
         }
 
         return filteredPrices;
     }
-
-    /**
-     * 计算指定分位数的值
-     *
-     * @param sortedData 已排序的数据列表
-     * @param percentile 分位数 (0.0 到 1.0)
-     * @return 分位数对应的值
-     */
-    private double getQuartile(List<Double> sortedData, double percentile) {
-        int n = sortedData.size();
-        double index = percentile * (n - 1);
-        int lowerIndex = (int) Math.floor(index);
-        int upperIndex = (int) Math.ceil(index);
-
-        if (lowerIndex == upperIndex) {
-            return sortedData.get(lowerIndex);
-        }
-
-        double weight = index - lowerIndex;
-        return sortedData.get(lowerIndex) * (1 - weight) + sortedData.get(upperIndex) * weight;
-    }
 }
\ No newline at end of file
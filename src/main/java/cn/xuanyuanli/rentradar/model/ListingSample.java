@@ -0,0 +1,67 @@
+package cn.xuanyuanli.rentradar.model;
+
+/**
+ * 房源价格样本<br>
+ * 记录一次抓取中单个房源的租金、面积和每平米价格，以及抓取时间
+ *
+ * @author xuanyuanli
+ */
+public class ListingSample {
+    private final long crawlTime;
+    private final double price;
+    private final double area;
+    private final double pricePerSquareMeter;
+
+    /**
+     * 构造函数
+     *
+     * @param crawlTime           抓取时间（毫秒时间戳）
+     * @param price               租金
+     * @param area                面积（平方米）
+     * @param pricePerSquareMeter 每平米价格
+     */
+    public ListingSample(long crawlTime, double price, double area, double pricePerSquareMeter) {
+        this.crawlTime = crawlTime;
+        this.price = price;
+        this.area = area;
+        this.pricePerSquareMeter = pricePerSquareMeter;
+    }
+
+    /**
+     * 从租房价格创建样本
+     *
+     * @param crawlTime   抓取时间（毫秒时间戳）
+     * @param rentalPrice 租房价格
+     * @return 房源价格样本
+     */
+    public static ListingSample of(long crawlTime, RentalPrice rentalPrice) {
+        return new ListingSample(crawlTime, rentalPrice.getPrice(), rentalPrice.getArea(),
+                rentalPrice.getPricePerSquareMeter());
+    }
+
+    public long getCrawlTime() {
+        return crawlTime;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getArea() {
+        return area;
+    }
+
+    public double getPricePerSquareMeter() {
+        return pricePerSquareMeter;
+    }
+
+    @Override
+    public String toString() {
+        return "ListingSample{" +
+                "crawlTime=" + crawlTime +
+                ", price=" + price +
+                ", area=" + area +
+                ", pricePerSquareMeter=" + pricePerSquareMeter +
+                '}';
+    }
+}
@@ -0,0 +1,205 @@
+package cn.xuanyuanli.rentradar.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 租房价格批量容器<br>
+ * 以三个并列的double数组保存一批房源的总价格、面积和每平米价格，聚合统计时不需要逐个创建对象和装箱<br>
+ * 均值、方差和过滤都是对数组的简单循环，便于JIT向量化<br>
+ * 每平米价格的计算规则和有效性判断与 {@link RentalPrice} 一致
+ *
+ * @author xuanyuanli
+ */
+public final class RentalPriceBatch {
+
+    private double[] prices;
+    private double[] areas;
+    private double[] pricePerSquareMeters;
+    private int size;
+
+    public RentalPriceBatch() {
+        this(16);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param initialCapacity 初始容量
+     */
+    public RentalPriceBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.prices = new double[capacity];
+        this.areas = new double[capacity];
+        this.pricePerSquareMeters = new double[capacity];
+    }
+
+    /**
+     * 从租房价格列表创建批量容器
+     *
+     * @param rentalPrices 租房价格列表
+     * @return 批量容器
+     */
+    public static RentalPriceBatch of(List<RentalPrice> rentalPrices) {
+        RentalPriceBatch batch = new RentalPriceBatch(rentalPrices.size());
+        for (RentalPrice rentalPrice : rentalPrices) {
+            batch.add(rentalPrice);
+        }
+        return batch;
+    }
+
+    /**
+     * 添加一个房源，根据总价格和面积计算每平米价格
+     *
+     * @param price 房屋总价格
+     * @param area  房屋面积（平方米）
+     */
+    public void add(double price, double area) {
+        add(price, area, area > 0 ? price / area : 0);
+    }
+
+    /**
+     * 添加一个房源，保留其每平米价格
+     *
+     * @param rentalPrice 租房价格
+     */
+    public void add(RentalPrice rentalPrice) {
+        add(rentalPrice.getPrice(), rentalPrice.getArea(), rentalPrice.getPricePerSquareMeter());
+    }
+
+    private void add(double price, double area, double pricePerSquareMeter) {
+        if (size == prices.length) {
+            int capacity = size * 2;
+            prices = Arrays.copyOf(prices, capacity);
+            areas = Arrays.copyOf(areas, capacity);
+            pricePerSquareMeters = Arrays.copyOf(pricePerSquareMeters, capacity);
+        }
+        prices[size] = price;
+        areas[size] = area;
+        pricePerSquareMeters[size] = pricePerSquareMeter;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getPrice(int index) {
+        checkIndex(index);
+        return prices[index];
+    }
+
+    public double getArea(int index) {
+        checkIndex(index);
+        return areas[index];
+    }
+
+    public double getPricePerSquareMeter(int index) {
+        checkIndex(index);
+        return pricePerSquareMeters[index];
+    }
+
+    /**
+     * 验证指定房源数据的有效性，规则同 {@link RentalPrice#isValid()}
+     *
+     * @param index 下标
+     * @return 数据有效返回true，否则返回false
+     */
+    public boolean isValid(int index) {
+        checkIndex(index);
+        return prices[index] > 0 && areas[index] > 0 && pricePerSquareMeters[index] > 0;
+    }
+
+    /**
+     * 过滤出有效的房源，规则同 {@link RentalPrice#isValid()}
+     *
+     * @return 新的批量容器
+     */
+    public RentalPriceBatch filterValid() {
+        RentalPriceBatch result = new RentalPriceBatch(size);
+        for (int i = 0; i < size; i++) {
+            if (prices[i] > 0 && areas[i] > 0 && pricePerSquareMeters[i] > 0) {
+                result.add(prices[i], areas[i], pricePerSquareMeters[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 过滤出每平米价格在闭区间内的房源，用于合理价格范围检查和异常值过滤
+     *
+     * @param min 最小每平米价格（包含）
+     * @param max 最大每平米价格（包含）
+     * @return 新的批量容器
+     */
+    public RentalPriceBatch filterPricePerSquareMeter(double min, double max) {
+        RentalPriceBatch result = new RentalPriceBatch(size);
+        for (int i = 0; i < size; i++) {
+            double pricePerSquareMeter = pricePerSquareMeters[i];
+            if (pricePerSquareMeter >= min && pricePerSquareMeter <= max) {
+                result.add(prices[i], areas[i], pricePerSquareMeter);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 计算每平米价格的平均值
+     *
+     * @return 平均值，没有数据时返回0.0
+     */
+    public double meanPricePerSquareMeter() {
+        if (size == 0) {
+            return 0.0;
+        }
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += pricePerSquareMeters[i];
+        }
+        return sum / size;
+    }
+
+    /**
+     * 计算每平米价格的总体方差
+     *
+     * @return 方差，没有数据时返回0.0
+     */
+    public double variancePricePerSquareMeter() {
+        if (size == 0) {
+            return 0.0;
+        }
+        double mean = meanPricePerSquareMeter();
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            double diff = pricePerSquareMeters[i] - mean;
+            sum += diff * diff;
+        }
+        return sum / size;
+    }
+
+    /**
+     * 转换为租房价格对象列表
+     *
+     * @return 租房价格列表
+     */
+    public List<RentalPrice> toList() {
+        List<RentalPrice> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            RentalPrice rentalPrice = new RentalPrice(prices[i], areas[i]);
+            rentalPrice.setPricePerSquareMeter(pricePerSquareMeters[i]);
+            result.add(rentalPrice);
+        }
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("下标越界: " + index + ", 大小: " + size);
+        }
+    }
+}
@@ -35,6 +35,21 @@ public class Subway {
         this.url = url;
     }
 
+    /**
+     * 复制构造函数<br>
+     * 缓存中的站点会被多个采集周期共享，修改前先复制
+     *
+     * @param other 被复制的地铁站
+     */
+    public Subway(Subway other) {
+        this.name = other.name;
+        this.lineName = other.lineName;
+        this.url = other.url;
+        this.squareMeterOfPrice = other.squareMeterOfPrice;
+        this.longitude = other.longitude;
+        this.latitude = other.latitude;
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
@@ -1,23 +1,46 @@
 package cn.xuanyuanli.rentradar.service;
 
 import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.model.Subway;
 import cn.xuanyuanli.rentradar.utils.FileUtils;
 import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import cn.xuanyuanli.rentradar.utils.SubwaySnapshot;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
  * 缓存管理器<br>
  * 统一管理三级缓存策略，支持数据缓存、过期检查和依赖缓存<br>
- * 提供通用的缓存代理方法，自动处理缓存有效性验证和数据获取
+ * 提供通用的缓存代理方法，自动处理缓存有效性验证和数据获取<br>
+ * 缓存文件以流式方式读写，不在内存中生成完整的JSON字符串<br>
+ * 配置 data.cache.format=binary 时地铁站数据改用二进制快照（同名 .bin 文件），并可同时导出JSON<br>
+ * 读取过的缓存保留在内存中，文件修改时间不变时直接返回，常驻模式下后续周期无需重新读取文件<br>
+ * 缓存中的站点对象可变，内存缓存存取时都复制站点，各周期修改的站点互不影响
  * 
  * @author xuanyuanli
  */
 public class CacheManager {
     
     private final AppConfig config;
+    private final Map<String, MemoryEntry> memoryCache = new ConcurrentHashMap<>();
+
+    /**
+     * 内存中的缓存数据及其对应的文件修改时间
+     */
+    private static final class MemoryEntry {
+        private final long lastModified;
+        private final List<?> data;
+
+        private MemoryEntry(long lastModified, List<?> data) {
+            this.lastModified = lastModified;
+            this.data = data;
+        }
+    }
     
     public CacheManager() {
         this.config = AppConfig.getInstance();
@@ -41,10 +64,10 @@ public class CacheManager {
             Class<T> clazz) throws Exception {
         
         // 检查缓存是否有效
-        if (config.isCacheEnabled() && isCacheValid(cacheFile, expireDays)) {
-            System.out.println("从缓存加载数据: " + cacheFile);
-            String json = FileUtils.readFromFile(cacheFile);
-            List<T> cachedData = JsonUtils.parseArray(json, clazz);
+        String storedFile = resolveCacheFile(cacheFile, clazz);
+        if (config.isCacheEnabled() && isCacheValid(storedFile, expireDays)) {
+            System.out.println("从缓存加载数据: " + storedFile);
+            List<T> cachedData = readCache(storedFile, clazz);
             if (cachedData != null && !cachedData.isEmpty()) {
                 return cachedData;
             }
@@ -55,9 +78,7 @@ public class CacheManager {
 
         // 缓存数据
         if (config.isCacheEnabled() && data != null && !data.isEmpty()) {
-            String json = JsonUtils.toJsonString(data);
-            FileUtils.writeToFile(cacheFile, json);
-            System.out.println("数据已缓存到: " + cacheFile);
+            writeCache(cacheFile, data, clazz);
         }
 
         return data;
@@ -82,10 +103,10 @@ public class CacheManager {
             Class<T> clazz) throws Exception {
         
         // 检查依赖缓存是否有效
-        if (config.isCacheEnabled() && isDependentCacheValid(cacheFile, dependentFile)) {
-            System.out.println("从缓存加载数据: " + cacheFile);
-            String json = FileUtils.readFromFile(cacheFile);
-            List<T> cachedData = JsonUtils.parseArray(json, clazz);
+        String storedFile = resolveCacheFile(cacheFile, clazz);
+        if (config.isCacheEnabled() && isDependentCacheValid(storedFile, resolveCacheFile(dependentFile, clazz))) {
+            System.out.println("从缓存加载数据: " + storedFile);
+            List<T> cachedData = readCache(storedFile, clazz);
             if (cachedData != null && !cachedData.isEmpty()) {
                 return cachedData;
             }
@@ -96,14 +117,118 @@ public class CacheManager {
 
         // 缓存数据
         if (config.isCacheEnabled() && data != null && !data.isEmpty()) {
-            String json = JsonUtils.toJsonString(data);
-            FileUtils.writeToFile(cacheFile, json);
-            System.out.println("数据已缓存到: " + cacheFile);
+            writeCache(cacheFile, data, clazz);
         }
 
         return data;
     }
 
+    /**
+     * 直接写入缓存，用于增量更新后的数据
+     *
+     * @param cacheFile 缓存文件路径
+     * @param data 数据
+     * @param clazz 数据类型
+     * @param <T> 数据泛型类型
+     * @throws IOException 文件写入异常
+     */
+    public <T> void putCachedData(String cacheFile, List<T> data, Class<T> clazz) throws IOException {
+        if (config.isCacheEnabled() && data != null && !data.isEmpty()) {
+            writeCache(cacheFile, data, clazz);
+        }
+    }
+
+    /**
+     * 读取已有缓存，不检查是否过期
+     *
+     * @param cacheFile 缓存文件路径
+     * @param clazz 数据类型
+     * @param <T> 数据泛型类型
+     * @return 缓存数据，缓存不存在或无法读取时返回空列表
+     * @throws IOException 文件读取异常
+     */
+    public <T> List<T> loadCachedData(String cacheFile, Class<T> clazz) throws IOException {
+        String storedFile = resolveCacheFile(cacheFile, clazz);
+        if (!FileUtils.exists(storedFile)) {
+            return new ArrayList<>();
+        }
+        List<T> data = readCache(storedFile, clazz);
+        return data != null ? data : new ArrayList<>();
+    }
+
+    /**
+     * 是否使用二进制快照，只有地铁站数据支持二进制格式
+     */
+    private boolean isBinaryFormat(Class<?> clazz) {
+        return clazz == Subway.class && "binary".equalsIgnoreCase(config.getCacheFormat());
+    }
+
+    /**
+     * 实际存储的缓存文件路径，二进制格式把扩展名替换为 .bin
+     */
+    private String resolveCacheFile(String cacheFile, Class<?> clazz) {
+        if (!isBinaryFormat(clazz)) {
+            return cacheFile;
+        }
+        int dot = cacheFile.lastIndexOf('.');
+        int slash = Math.max(cacheFile.lastIndexOf('/'), cacheFile.lastIndexOf('\\'));
+        return (dot > slash ? cacheFile.substring(0, dot) : cacheFile) + ".bin";
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> readCache(String storedFile, Class<T> clazz) throws IOException {
+        long lastModified = FileUtils.getLastModifiedTime(storedFile);
+        MemoryEntry entry = memoryCache.get(storedFile);
+        if (entry != null && entry.lastModified == lastModified) {
+            return (List<T>) copyStations((List<Subway>) entry.data);
+        }
+
+        List<T> data = readCacheFile(storedFile, clazz);
+        // 只有能复制的站点数据放入内存缓存
+        if (clazz == Subway.class && data != null && !data.isEmpty()) {
+            memoryCache.put(storedFile, new MemoryEntry(lastModified, copyStations((List<Subway>) data)));
+        }
+        return data;
+    }
+
+    private static List<Subway> copyStations(List<Subway> stations) {
+        List<Subway> copies = new ArrayList<>(stations.size());
+        for (Subway station : stations) {
+            copies.add(station != null ? new Subway(station) : null);
+        }
+        return copies;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> readCacheFile(String storedFile, Class<T> clazz) throws IOException {
+        if (isBinaryFormat(clazz)) {
+            try {
+                return (List<T>) SubwaySnapshot.read(storedFile);
+            } catch (IOException e) {
+                // 快照损坏时重新获取数据
+                System.err.println("读取二进制快照失败: " + e.getMessage());
+                return null;
+            }
+        }
+        return JsonUtils.readArray(storedFile, clazz);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void writeCache(String cacheFile, List<T> data, Class<T> clazz) throws IOException {
+        memoryCache.remove(resolveCacheFile(cacheFile, clazz));
+        if (isBinaryFormat(clazz)) {
+            String binaryFile = resolveCacheFile(cacheFile, clazz);
+            SubwaySnapshot.write(binaryFile, (List<Subway>) data);
+            System.out.println("数据已缓存到: " + binaryFile);
+            if (config.isCacheJsonExportEnabled()) {
+                JsonUtils.writeArray(cacheFile, data);
+            }
+            return;
+        }
+        JsonUtils.writeArray(cacheFile, data);
+        System.out.println("数据已缓存到: " + cacheFile);
+    }
+
     /**
      * 检查缓存是否有效
      */
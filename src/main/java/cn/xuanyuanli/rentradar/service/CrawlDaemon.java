@@ -0,0 +1,139 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.utils.CronExpression;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 常驻运行调度器<br>
+ * 按固定间隔或cron表达式周期性执行抓取任务，两次任务之间服务容器、浏览器页面池和内存缓存保持存活，
+ * 每个周期只需要做增量工作<br>
+ * 单个周期失败不会终止调度，下一个周期照常执行
+ *
+ * @author xuanyuanli
+ */
+public class CrawlDaemon {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 调度计划：根据上次触发时间计算下一次触发时间
+     */
+    public interface Schedule {
+        LocalDateTime next(LocalDateTime after);
+    }
+
+    /**
+     * 抓取周期任务
+     */
+    public interface CycleTask {
+        void run() throws Exception;
+    }
+
+    private final Schedule schedule;
+    private final CycleTask task;
+    private final boolean runOnStart;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile int completedCycles;
+
+    /**
+     * 构造函数
+     *
+     * @param schedule   调度计划
+     * @param task       周期任务
+     * @param runOnStart 启动时是否立即执行一次
+     */
+    public CrawlDaemon(Schedule schedule, CycleTask task, boolean runOnStart) {
+        this.schedule = schedule;
+        this.task = task;
+        this.runOnStart = runOnStart;
+    }
+
+    /**
+     * 根据配置创建调度计划：配置了 daemon.cron 时使用cron表达式，否则使用固定间隔
+     *
+     * @param config 应用配置
+     * @return 调度计划
+     */
+    public static Schedule scheduleFromConfig(AppConfig config) {
+        String cron = config.getDaemonCron();
+        if (cron != null && !cron.isBlank()) {
+            CronExpression expression = CronExpression.parse(cron);
+            return expression::next;
+        }
+        return fixedInterval(Duration.ofMinutes(Math.max(1, config.getDaemonIntervalMinutes())));
+    }
+
+    /**
+     * 固定间隔调度
+     *
+     * @param interval 间隔时间
+     * @return 调度计划
+     */
+    public static Schedule fixedInterval(Duration interval) {
+        return after -> after.plus(interval);
+    }
+
+    /**
+     * 运行调度循环，直到调用 {@link #stop()} 或线程被中断
+     */
+    public void run() {
+        LocalDateTime nextRun = runOnStart ? LocalDateTime.now() : schedule.next(LocalDateTime.now());
+        try {
+            while (!isStopped()) {
+                long waitMillis = Duration.between(LocalDateTime.now(), nextRun).toMillis();
+                if (waitMillis > 0) {
+                    System.out.println("下次抓取时间: " + nextRun.format(TIME_FORMAT));
+                    if (stopped.await(waitMillis, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                }
+
+                runCycle();
+                // 以本次计划时间推算下一次，周期耗时超过间隔时跳过已错过的时间点
+                LocalDateTime now = LocalDateTime.now();
+                nextRun = schedule.next(nextRun);
+                if (nextRun.isBefore(now)) {
+                    nextRun = schedule.next(now);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("常驻模式已停止，共执行 " + completedCycles + " 个周期");
+    }
+
+    private void runCycle() {
+        long start = System.currentTimeMillis();
+        System.out.println("=== 第 " + (completedCycles + 1) + " 个抓取周期开始 ===");
+        try {
+            task.run();
+        } catch (Exception e) {
+            System.err.println("抓取周期执行失败: " + e.getMessage());
+            //noinspection CallToPrintStackTrace
+            e.printStackTrace();
+        }
+        completedCycles++;
+        System.out.println("=== 抓取周期结束，耗时 " + (System.currentTimeMillis() - start) / 1000 + " 秒 ===");
+    }
+
+    /**
+     * 停止调度，正在执行的周期会执行完毕
+     */
+    public void stop() {
+        stopped.countDown();
+    }
+
+    public boolean isStopped() {
+        return stopped.getCount() == 0;
+    }
+
+    public int getCompletedCycles() {
+        return completedCycles;
+    }
+}
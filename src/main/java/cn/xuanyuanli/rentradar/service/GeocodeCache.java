@@ -0,0 +1,135 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.model.POI;
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.FileUtils;
+import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import com.alibaba.fastjson2.TypeReference;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 地理位置缓存<br>
+ * 按 "线路 站名" 保存每个站点的地理位置，站点列表更新后只需查询新增的站点<br>
+ * 首次使用时如果缓存文件不存在，会从已有的地铁站位置数据文件导入
+ *
+ * @author xuanyuanli
+ */
+public class GeocodeCache {
+
+    private final String cacheFile;
+    private final String legacyLocationsFile;
+    private Map<String, POI> entries;
+
+    public GeocodeCache() {
+        this(AppConfig.getInstance().getGeocodeCacheFile(), AppConfig.getInstance().getLocationsJsonFile());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param cacheFile           缓存文件路径
+     * @param legacyLocationsFile 旧的地铁站位置数据文件，缓存文件不存在时从中导入
+     */
+    GeocodeCache(String cacheFile, String legacyLocationsFile) {
+        this.cacheFile = cacheFile;
+        this.legacyLocationsFile = legacyLocationsFile;
+    }
+
+    /**
+     * 生成站点的缓存键，同时也是地理位置查询关键词
+     */
+    public static String keyOf(Subway station) {
+        return station.getLineName() + " " + station.getName();
+    }
+
+    /**
+     * 获取缓存的地理位置
+     *
+     * @param key 缓存键
+     * @return 地理位置，不存在时返回null
+     */
+    public synchronized POI get(String key) {
+        return load().get(key);
+    }
+
+    /**
+     * 找出缓存中没有的键
+     *
+     * @param keys 待查询的键
+     * @return 缓存未命中的键，保持原顺序并去重
+     */
+    public synchronized List<String> findMissing(Collection<String> keys) {
+        Map<String, POI> cached = load();
+        List<String> missing = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            if (!cached.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * 写入新查询到的地理位置并保存到文件，无效的位置不缓存
+     *
+     * @param pois 键 -> 地理位置
+     */
+    public synchronized void putAll(Map<String, POI> pois) {
+        Map<String, POI> cached = load();
+        int added = 0;
+        for (Map.Entry<String, POI> entry : pois.entrySet()) {
+            if (entry.getValue() != null && entry.getValue().isValid()) {
+                cached.put(entry.getKey(), entry.getValue());
+                added++;
+            }
+        }
+        if (added > 0) {
+            save();
+        }
+    }
+
+    public synchronized int size() {
+        return load().size();
+    }
+
+    private Map<String, POI> load() {
+        if (entries != null) {
+            return entries;
+        }
+        entries = new LinkedHashMap<>();
+
+        try {
+            if (FileUtils.exists(cacheFile)) {
+                Map<String, POI> cached = JsonUtils.readObject(cacheFile, new TypeReference<LinkedHashMap<String, POI>>() {
+                }.getType());
+                if (cached != null) {
+                    entries.putAll(cached);
+                }
+            } else if (FileUtils.exists(legacyLocationsFile)) {
+                List<Subway> stations = JsonUtils.readArray(legacyLocationsFile, Subway.class);
+                if (stations != null) {
+                    for (Subway station : stations) {
+                        if (station.hasValidLocation()) {
+                            entries.put(keyOf(station), new POI(station.getLongitude(), station.getLatitude()));
+                        }
+                    }
+                    System.out.println("从位置数据导入地理位置缓存: " + entries.size() + " 个站点");
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("读取地理位置缓存失败，将重新查询: " + e.getMessage());
+        }
+        return entries;
+    }
+
+    private void save() {
+        try {
+            JsonUtils.writeObject(cacheFile, entries);
+        } catch (IOException e) {
+            System.err.println("保存地理位置缓存失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.FileUtils;
+import cn.xuanyuanli.rentradar.utils.KdTree;
+import cn.xuanyuanli.rentradar.utils.QuantileSketch;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * 租金热力图瓦片生成器<br>
+ * 用反距离加权（IDW）把站点每平米价格插值到整个城市，按Web墨卡托XYZ规则生成各缩放级别的PNG瓦片，
+ * 写入 {z}/{x}/{y}.png，地图页面直接加载静态瓦片<br>
+ * 每个瓦片先在间隔 {@value #SAMPLE_STEP} 像素的网格上用KD树查找最近的k个站点插值，再双线性插值到每个像素；
+ * 距最近站点越远越透明，超过淡出半径后完全透明<br>
+ * 瓦片使用256色调色板（{@value #COLOR_LEVELS}级颜色 × {@value #ALPHA_LEVELS}级透明度），每像素一个字节，编码快、体积小<br>
+ * 瓦片之间互不依赖，用fork-join并行生成；生成完成后删除本次未生成的旧瓦片
+ *
+ * @author xuanyuanli
+ */
+public class HeatmapTileRenderer {
+
+    private static final int TILE_SIZE = 256;
+    private static final int SAMPLE_STEP = 8;
+    private static final int GRID_SIZE = TILE_SIZE / SAMPLE_STEP + 1;
+    private static final double EARTH_CIRCUMFERENCE_KM = 40075.017;
+    private static final int MAX_ALPHA = 170;
+    private static final double IDW_POWER = 2;
+
+    /**
+     * PNG压缩质量，对应deflate级别 (1 - 质量) * 9；调色板瓦片重复度高，低压缩级别体积相差不大但编码快得多
+     */
+    private static final float PNG_COMPRESSION_QUALITY = 0.75f;
+
+    /**
+     * 调色板颜色级数和透明度级数，加上完全透明的0号颜色共256色
+     */
+    private static final int COLOR_LEVELS = 51;
+    private static final int ALPHA_LEVELS = 5;
+
+    /**
+     * 每个并行子任务最多处理的瓦片数
+     */
+    private static final int TILES_PER_TASK = 4;
+
+    /**
+     * 颜色渐变：绿 -> 蓝 -> 黄 -> 红，与地图标记的价格分级颜色一致
+     */
+    private static final int[] RAMP = {0x3a9d4f, 0x2f78d6, 0xe3a400, 0xd63a2f};
+
+    private static final IndexColorModel PALETTE = buildPalette();
+
+    private final String tileDir;
+    private final int minZoom;
+    private final int maxZoom;
+    private final double fadeRadiusKm;
+    private final int neighbors;
+    private final int parallelism;
+
+    /**
+     * 热力图生成结果
+     */
+    public static final class Summary {
+        private final int tileCount;
+        private final double lowPrice;
+        private final double highPrice;
+
+        private Summary(int tileCount, double lowPrice, double highPrice) {
+            this.tileCount = tileCount;
+            this.lowPrice = lowPrice;
+            this.highPrice = highPrice;
+        }
+
+        public int getTileCount() {
+            return tileCount;
+        }
+
+        /**
+         * 颜色渐变起点对应的每平米价格（5%分位数）
+         */
+        public double getLowPrice() {
+            return lowPrice;
+        }
+
+        /**
+         * 颜色渐变终点对应的每平米价格（95%分位数）
+         */
+        public double getHighPrice() {
+            return highPrice;
+        }
+    }
+
+    public HeatmapTileRenderer() {
+        this(AppConfig.getInstance().getHeatmapTileDir(), AppConfig.getInstance().getHeatmapMinZoom(),
+                AppConfig.getInstance().getHeatmapMaxZoom(), AppConfig.getInstance().getHeatmapFadeRadiusKm(),
+                AppConfig.getInstance().getHeatmapNeighbors(), AppConfig.getInstance().getHeatmapParallelism());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param tileDir      瓦片输出目录
+     * @param minZoom      最小缩放级别
+     * @param maxZoom      最大缩放级别
+     * @param fadeRadiusKm 淡出半径（公里），距最近站点超过此距离的区域透明
+     * @param neighbors    插值使用的最近站点数
+     * @param parallelism  并行线程数，小于等于0时使用CPU核数
+     */
+    HeatmapTileRenderer(String tileDir, int minZoom, int maxZoom, double fadeRadiusKm, int neighbors, int parallelism) {
+        if (minZoom < 0 || maxZoom < minZoom) {
+            throw new IllegalArgumentException("热力图缩放级别不正确: " + minZoom + "-" + maxZoom);
+        }
+        this.tileDir = tileDir;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.fadeRadiusKm = fadeRadiusKm;
+        this.neighbors = Math.max(1, neighbors);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public String getTileDir() {
+        return tileDir;
+    }
+
+    public int getMinZoom() {
+        return minZoom;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * 生成瓦片金字塔
+     *
+     * @param stations 站点列表，没有有效位置或价格的站点不参与插值
+     * @return 生成结果，没有可用站点时瓦片数为0
+     * @throws IOException 瓦片写入异常
+     */
+    public Summary render(List<Subway> stations) throws IOException {
+        List<double[]> points = new ArrayList<>();
+        QuantileSketch sketch = new QuantileSketch();
+        double latitudeSum = 0;
+        for (Subway station : stations) {
+            if (!station.hasValidLocation() || !station.hasValidPrice()) {
+                continue;
+            }
+            try {
+                double longitude = Double.parseDouble(station.getLongitude().trim());
+                double latitude = Double.parseDouble(station.getLatitude().trim());
+                points.add(new double[]{mercatorX(longitude), mercatorY(latitude), station.getSquareMeterOfPrice()});
+                sketch.add(station.getSquareMeterOfPrice());
+                latitudeSum += latitude;
+            } catch (NumberFormatException e) {
+                // 经纬度格式不正确的站点不参与插值
+            }
+        }
+        if (points.isEmpty()) {
+            return new Summary(0, 0, 0);
+        }
+
+        Field field = new Field(points, sketch.quantile(0.05), sketch.quantile(0.95),
+                fadeRadiusKm / (EARTH_CIRCUMFERENCE_KM * Math.cos(Math.toRadians(latitudeSum / points.size()))));
+        List<int[]> tiles = coveringTiles(field);
+
+        Set<Path> written = ConcurrentHashMap.newKeySet();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new TileTask(field, tiles, 0, tiles.size(), written));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        removeStaleTiles(written);
+        return new Summary(written.size(), field.lowPrice, field.highPrice);
+    }
+
+    /**
+     * 覆盖全部站点（含淡出半径）的瓦片坐标 {z, x, y}
+     */
+    private List<int[]> coveringTiles(Field field) {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < field.prices.length; i++) {
+            minX = Math.min(minX, field.xs[i]);
+            minY = Math.min(minY, field.ys[i]);
+            maxX = Math.max(maxX, field.xs[i]);
+            maxY = Math.max(maxY, field.ys[i]);
+        }
+
+        List<int[]> tiles = new ArrayList<>();
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            int scale = 1 << zoom;
+            int fromX = tileIndex(minX - field.fadeRadius, scale);
+            int toX = tileIndex(maxX + field.fadeRadius, scale);
+            int fromY = tileIndex(minY - field.fadeRadius, scale);
+            int toY = tileIndex(maxY + field.fadeRadius, scale);
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    tiles.add(new int[]{zoom, x, y});
+                }
+            }
+        }
+        return tiles;
+    }
+
+    private static int tileIndex(double coordinate, int scale) {
+        return (int) Math.max(0, Math.min(scale - 1, Math.floor(coordinate * scale)));
+    }
+
+    /**
+     * 并行生成瓦片的fork-join任务，按瓦片区间二分<br>
+     * 任务只在进程内执行，不会被序列化
+     */
+    private final class TileTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Field field;
+        private final transient List<int[]> tiles;
+        private final int from;
+        private final int to;
+        private final transient Set<Path> written;
+
+        private TileTask(Field field, List<int[]> tiles, int from, int to, Set<Path> written) {
+            this.field = field;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.written = written;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    int[] tile = tiles.get(i);
+                    try {
+                        Path file = renderTile(field, tile[0], tile[1], tile[2]);
+                        if (file != null) {
+                            written.add(file);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileTask(field, tiles, from, mid, written), new TileTask(field, tiles, mid, to, written));
+        }
+    }
+
+    /**
+     * 生成单个瓦片
+     *
+     * @return 瓦片文件路径，瓦片完全透明时不写入并返回null
+     */
+    Path renderTile(Field field, int zoom, int tileX, int tileY) throws IOException {
+        double worldSize = (double) TILE_SIZE * (1L << zoom);
+        // 瓦片中心到最近站点的距离超过淡出半径加半个对角线时，整个瓦片透明，无需逐点插值
+        double halfDiagonal = Math.sqrt(0.5) * TILE_SIZE / worldSize;
+        if (field.nearestDistance((tileX + 0.5) * TILE_SIZE / worldSize, (tileY + 0.5) * TILE_SIZE / worldSize)
+                > field.fadeRadius + halfDiagonal) {
+            return null;
+        }
+        double[] values = new double[GRID_SIZE * GRID_SIZE];
+        double[] alphas = new double[GRID_SIZE * GRID_SIZE];
+        boolean visible = false;
+        for (int gy = 0; gy < GRID_SIZE; gy++) {
+            double y = (tileY * TILE_SIZE + gy * SAMPLE_STEP) / worldSize;
+            for (int gx = 0; gx < GRID_SIZE; gx++) {
+                double x = (tileX * TILE_SIZE + gx * SAMPLE_STEP) / worldSize;
+                int cell = gy * GRID_SIZE + gx;
+                alphas[cell] = field.sample(x, y, neighbors, values, cell);
+                visible |= alphas[cell] > 0;
+            }
+        }
+        if (!visible) {
+            return null;
+        }
+
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_BYTE_INDEXED, PALETTE);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int py = 0; py < TILE_SIZE; py++) {
+            int gy = py / SAMPLE_STEP;
+            double fy = (double) (py % SAMPLE_STEP) / SAMPLE_STEP;
+            for (int px = 0; px < TILE_SIZE; px++) {
+                int gx = px / SAMPLE_STEP;
+                double fx = (double) (px % SAMPLE_STEP) / SAMPLE_STEP;
+                int cell = gy * GRID_SIZE + gx;
+                double alpha = bilinear(alphas, cell, fx, fy);
+                if (alpha <= 0) {
+                    continue;
+                }
+                double value = Math.max(0, Math.min(1, bilinear(values, cell, fx, fy)));
+                int alphaLevel = Math.min(ALPHA_LEVELS, (int) Math.ceil(alpha * ALPHA_LEVELS)) - 1;
+                int colorLevel = (int) Math.round(value * (COLOR_LEVELS - 1));
+                pixels[py * TILE_SIZE + px] = (byte) (1 + alphaLevel * COLOR_LEVELS + colorLevel);
+            }
+        }
+
+        Path file = Paths.get(tileDir, String.valueOf(zoom), String.valueOf(tileX), tileY + ".png");
+        FileUtils.writeAtomically(file.toString(), false, out -> writePng(image, out));
+        return file.toAbsolutePath();
+    }
+
+    private static void writePng(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(PNG_COMPRESSION_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static IndexColorModel buildPalette() {
+        int size = 1 + COLOR_LEVELS * ALPHA_LEVELS;
+        byte[] reds = new byte[size];
+        byte[] greens = new byte[size];
+        byte[] blues = new byte[size];
+        byte[] alphas = new byte[size];
+        for (int alphaLevel = 0; alphaLevel < ALPHA_LEVELS; alphaLevel++) {
+            for (int colorLevel = 0; colorLevel < COLOR_LEVELS; colorLevel++) {
+                int index = 1 + alphaLevel * COLOR_LEVELS + colorLevel;
+                int rgb = rampColor((double) colorLevel / (COLOR_LEVELS - 1));
+                reds[index] = (byte) (rgb >> 16);
+                greens[index] = (byte) (rgb >> 8);
+                blues[index] = (byte) rgb;
+                alphas[index] = (byte) Math.round((alphaLevel + 1) * MAX_ALPHA / (double) ALPHA_LEVELS);
+            }
+        }
+        return new IndexColorModel(8, size, reds, greens, blues, alphas);
+    }
+
+    private static double bilinear(double[] grid, int cell, double fx, double fy) {
+        double top = grid[cell] + (grid[cell + 1] - grid[cell]) * fx;
+        double bottom = grid[cell + GRID_SIZE] + (grid[cell + GRID_SIZE + 1] - grid[cell + GRID_SIZE]) * fx;
+        return top + (bottom - top) * fy;
+    }
+
+    /**
+     * 按颜色渐变取色
+     *
+     * @param value 归一化后的价格，0为低价端，1为高价端
+     */
+    static int rampColor(double value) {
+        double position = Math.max(0, Math.min(1, value)) * (RAMP.length - 1);
+        int index = Math.min(RAMP.length - 2, (int) position);
+        double t = position - index;
+        int from = RAMP[index];
+        int to = RAMP[index + 1];
+        int red = (int) Math.round(((from >> 16) & 0xff) + (((to >> 16) & 0xff) - ((from >> 16) & 0xff)) * t);
+        int green = (int) Math.round(((from >> 8) & 0xff) + (((to >> 8) & 0xff) - ((from >> 8) & 0xff)) * t);
+        int blue = (int) Math.round((from & 0xff) + ((to & 0xff) - (from & 0xff)) * t);
+        return (red << 16) | (green << 8) | blue;
+    }
+
+    private void removeStaleTiles(Set<Path> written) throws IOException {
+        Path root = Paths.get(tileDir);
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".png")).toList()) {
+                if (!written.contains(file.toAbsolutePath())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    static double mercatorX(double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        return 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+    }
+
+    /**
+     * 插值用的站点数据，坐标为归一化的Web墨卡托坐标
+     */
+    static final class Field {
+        private final double[] xs;
+        private final double[] ys;
+        private final double[] prices;
+        private final KdTree tree;
+        private final double lowPrice;
+        private final double highPrice;
+        private final double fadeRadius;
+
+        Field(List<double[]> points, double lowPrice, double highPrice, double fadeRadius) {
+            int size = points.size();
+            this.xs = new double[size];
+            this.ys = new double[size];
+            this.prices = new double[size];
+            for (int i = 0; i < size; i++) {
+                xs[i] = points.get(i)[0];
+                ys[i] = points.get(i)[1];
+                prices[i] = points.get(i)[2];
+            }
+            this.tree = new KdTree(xs, ys);
+            this.lowPrice = lowPrice;
+            this.highPrice = highPrice;
+            this.fadeRadius = fadeRadius;
+        }
+
+        double nearestDistance(double x, double y) {
+            return Math.sqrt(tree.distanceSquared(tree.nearest(x, y, 1, null)[0], x, y));
+        }
+
+        /**
+         * 在指定位置插值
+         *
+         * @param values 写入归一化插值结果的数组
+         * @param cell   写入位置
+         * @return 透明度（0-1），按到最近站点的距离淡出
+         */
+        double sample(double x, double y, int k, double[] values, int cell) {
+            int[] nearest = tree.nearest(x, y, k, null);
+            double weightSum = 0;
+            double valueSum = 0;
+            for (int point : nearest) {
+                double distanceSquared = tree.distanceSquared(point, x, y);
+                if (distanceSquared == 0) {
+                    weightSum = 1;
+                    valueSum = prices[point];
+                    break;
+                }
+                double weight = 1 / Math.pow(distanceSquared, IDW_POWER / 2);
+                weightSum += weight;
+                valueSum += weight * prices[point];
+            }
+            double price = valueSum / weightSum;
+            values[cell] = highPrice > lowPrice ? (price - lowPrice) / (highPrice - lowPrice) : 0.5;
+
+            double distance = Math.sqrt(tree.distanceSquared(nearest[0], x, y));
+            if (distance >= fadeRadius) {
+                return 0;
+            }
+            // 淡出半径的前一半完全不透明，后一半线性淡出
+            return Math.min(1, 2 * (1 - distance / fadeRadius));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.model.ListingSample;
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+import cn.xuanyuanli.rentradar.model.Subway;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 房源价格样本库<br>
+ * 按站点保存每次抓取的全部房源样本，后续可以离线重新计算中位数、分位数和价格趋势，无需重新抓取<br>
+ * 每个站点一个文件，文件头之后是定长记录：抓取时间(long) 租金(double) 面积(double) 每平米价格(double)<br>
+ * 写入只追加，读取时内存映射文件按时间范围扫描；进程中断留下的不完整记录在读取时忽略、在下次追加前截掉
+ *
+ * @author xuanyuanli
+ */
+public class ListingSampleStore {
+
+    private static final int MAGIC = 0x5A4C5331;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = Long.BYTES + 3 * Double.BYTES;
+    private static final String FILE_SUFFIX = ".samples";
+
+    private final Path samplesDir;
+
+    public ListingSampleStore() {
+        this(AppConfig.getInstance().getSamplesDir());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param samplesDir 样本文件目录
+     */
+    ListingSampleStore(String samplesDir) {
+        this.samplesDir = Paths.get(samplesDir);
+    }
+
+    /**
+     * 追加一次抓取的房源样本
+     *
+     * @param station   地铁站
+     * @param crawlTime 抓取时间（毫秒时间戳）
+     * @param prices    本次抓取到的房源价格
+     * @throws IOException 文件写入异常
+     */
+    public synchronized void append(Subway station, long crawlTime, List<RentalPrice> prices) throws IOException {
+        if (prices == null || prices.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(samplesDir);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + prices.size() * RECORD_SIZE);
+        try (FileChannel channel = FileChannel.open(fileOf(station),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                buffer.putInt(MAGIC).putInt(RECORD_SIZE);
+                size = 0;
+            } else {
+                // 截掉上次中断留下的不完整记录
+                size -= (size - HEADER_SIZE) % RECORD_SIZE;
+            }
+            for (RentalPrice price : prices) {
+                buffer.putLong(crawlTime)
+                        .putDouble(price.getPrice())
+                        .putDouble(price.getArea())
+                        .putDouble(price.getPricePerSquareMeter());
+            }
+            buffer.flip();
+
+            channel.truncate(size);
+            channel.position(size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 按抓取时间范围读取站点的房源样本
+     *
+     * @param station 地铁站
+     * @param from    起始时间（包含，毫秒时间戳）
+     * @param to      结束时间（不包含，毫秒时间戳）
+     * @return 时间范围内的样本，按写入顺序返回；站点没有样本时返回空列表
+     * @throws IOException 文件读取异常或文件格式不正确
+     */
+    public List<ListingSample> scan(Subway station, long from, long to) throws IOException {
+        Path file = fileOf(station);
+        List<ListingSample> samples = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return samples;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return samples;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != RECORD_SIZE) {
+                throw new IOException("不是有效的样本文件: " + file);
+            }
+
+            long records = (size - HEADER_SIZE) / RECORD_SIZE;
+            for (int i = 0; i < records; i++) {
+                int offset = HEADER_SIZE + i * RECORD_SIZE;
+                long crawlTime = buffer.getLong(offset);
+                if (crawlTime >= from && crawlTime < to) {
+                    samples.add(new ListingSample(crawlTime,
+                            buffer.getDouble(offset + Long.BYTES),
+                            buffer.getDouble(offset + Long.BYTES + Double.BYTES),
+                            buffer.getDouble(offset + Long.BYTES + 2 * Double.BYTES)));
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * 读取站点的全部房源样本
+     *
+     * @param station 地铁站
+     * @return 全部样本
+     * @throws IOException 文件读取异常或文件格式不正确
+     */
+    public List<ListingSample> scanAll(Subway station) throws IOException {
+        return scan(station, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 站点对应的样本文件，文件名由站点键生成并替换掉文件系统不允许的字符
+     */
+    Path fileOf(Subway station) {
+        String key = ProgressCacheManager.generateStationKey(station);
+        return samplesDir.resolve(key.replaceAll("[\\\\/:*?\"<>|\\s]", "_") + FILE_SUFFIX);
+    }
+}
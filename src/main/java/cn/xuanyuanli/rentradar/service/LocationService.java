@@ -1,10 +1,10 @@
 package cn.xuanyuanli.rentradar.service;
 
-import cn.xuanyuanli.core.util.Runtimes;
 import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.exception.LocationServiceException;
 import cn.xuanyuanli.rentradar.model.POI;
 import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import cn.xuanyuanli.rentradar.utils.RateLimiter;
 import cn.xuanyuanli.rentradar.utils.RetryUtils;
 
 import java.io.IOException;
@@ -15,22 +15,35 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
- * 位置服务
+ * 位置服务<br>
+ * 所有请求共用一个长连接HttpClient，按高德API的QPS配额通过令牌桶限流<br>
+ * 批量查询时异步并发发送请求，失败的关键词按重试次数重新查询
  *
  * @author xuanyuanli
  */
 @SuppressWarnings("AlibabaLowerCamelCaseVariableNaming")
 public class LocationService {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
     private final AppConfig config;
+    private final HttpClient httpClient;
+    private final RateLimiter rateLimiter;
 
     public LocationService() {
-        this.config = AppConfig.getInstance();
+        this(AppConfig.getInstance(), HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build());
+    }
+
+    LocationService(AppConfig config, HttpClient httpClient) {
+        this.config = config;
+        this.httpClient = httpClient;
+        this.rateLimiter = new RateLimiter(config.getGaodeApiQps(), 1);
     }
 
     public POI getPOI(String keyword) throws LocationServiceException {
@@ -45,42 +58,92 @@ public class LocationService {
         }
     }
 
-    private POI fetchPOIFromApi(String keyword) {
-        try {
-            Map<String, String> params = new TreeMap<>();
-            params.put("key", config.getGaodeApiKey());
-            params.put("keywords", keyword);
-            params.put("city", config.getGaodeCity());
-            params.put("citylimit", "true");
-
-            String privateKey = config.getGaodeApiPrivateKey();
-            if (privateKey != null && !privateKey.trim().isEmpty()) {
-                String signature = generateDigitalSignature(params, privateKey);
-                params.put("sig", signature);
+    /**
+     * 批量查询地理位置<br>
+     * 按限流速率依次异步发送请求，不等待前一个请求返回；一轮结束后失败的关键词进入下一轮重试
+     *
+     * @param keywords 查询关键词
+     * @return 关键词 -> POI，查询失败的关键词不包含在结果中
+     */
+    public Map<String, POI> getPOIs(Collection<String> keywords) {
+        Map<String, POI> result = new LinkedHashMap<>();
+        List<String> pending = new ArrayList<>(new LinkedHashSet<>(keywords));
+        int maxAttempts = Math.max(1, config.getCrawlerMaxRetry());
+
+        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+            Map<String, CompletableFuture<POI>> futures = new LinkedHashMap<>();
+            for (String keyword : pending) {
+                acquirePermit();
+                System.out.println("查询地理位置: " + keyword);
+                futures.put(keyword, httpClient.sendAsync(buildRequest(keyword), HttpResponse.BodyHandlers.ofString())
+                        .thenApply(response -> parsePOIFromResponse(response.body())));
             }
 
-            String url = buildRequestUrl(params);
-            System.out.println("查询地理位置: " + keyword);
-
-            HttpResponse<String> response;
-            try (HttpClient client = HttpClient.newHttpClient()) {
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .GET()
-                        .build();
-
-                response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                // 休眠500毫秒，避免请求过快
-                Runtimes.sleep(500);
+            List<String> failed = new ArrayList<>();
+            for (Map.Entry<String, CompletableFuture<POI>> entry : futures.entrySet()) {
+                try {
+                    result.put(entry.getKey(), entry.getValue().join());
+                } catch (CompletionException e) {
+                    failed.add(entry.getKey());
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.out.println("第" + attempt + "次尝试失败: " + entry.getKey() + ", " + cause.getMessage());
+                }
             }
-            String body = response.body();
+            pending = failed;
+        }
+
+        if (!pending.isEmpty()) {
+            System.out.println("地理位置查询失败 " + pending.size() + " 个: " + pending);
+        }
+        return result;
+    }
 
-            return parsePOIFromResponse(body);
-        } catch (IOException | InterruptedException e) {
+    private POI fetchPOIFromApi(String keyword) {
+        try {
+            acquirePermit();
+            System.out.println("查询地理位置: " + keyword);
+            HttpResponse<String> response = httpClient.send(buildRequest(keyword), HttpResponse.BodyHandlers.ofString());
+            return parsePOIFromResponse(response.body());
+        } catch (IOException e) {
+            throw new RuntimeException("API调用失败", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException("API调用失败", e);
         }
     }
 
+    /**
+     * 等待限流令牌，保证请求速率不超过高德API的QPS配额
+     */
+    private void acquirePermit() {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待请求配额时被中断", e);
+        }
+    }
+
+    private HttpRequest buildRequest(String keyword) {
+        Map<String, String> params = new TreeMap<>();
+        params.put("key", config.getGaodeApiKey());
+        params.put("keywords", keyword);
+        params.put("city", config.getGaodeCity());
+        params.put("citylimit", "true");
+
+        String privateKey = config.getGaodeApiPrivateKey();
+        if (privateKey != null && !privateKey.trim().isEmpty()) {
+            String signature = generateDigitalSignature(params, privateKey);
+            params.put("sig", signature);
+        }
+
+        return HttpRequest.newBuilder()
+                .uri(URI.create(buildRequestUrl(params)))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private POI parsePOIFromResponse(String responseBody) {
         try {
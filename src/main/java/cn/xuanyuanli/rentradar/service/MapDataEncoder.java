@@ -0,0 +1,155 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 地图数据紧凑编码<br>
+ * 把站点和各缩放级别的聚合点编码为一段 window.mapData = {...} 脚本，由固定的渲染脚本 map-renderer.js 解码绘制<br>
+ * 编码方式：
+ * <ul>
+ *     <li>经纬度乘以 {@value #COORDINATE_SCALE} 取整后按前一个点做差分，相邻站点的差值通常只有几位数字</li>
+ *     <li>每平米价格乘以10取整；线路名称去重后按下标引用</li>
+ *     <li>每个缩放级别的聚合点为扁平整数数组，每个聚合点依次为 经度差分、纬度差分、站点数、价格、单站点下标或-1</li>
+ * </ul>
+ * 数据脚本可以内嵌在页面中，也可以作为独立文件由页面动态加载，更新数据时无需重新生成页面
+ *
+ * @author xuanyuanli
+ */
+public final class MapDataEncoder {
+
+    /**
+     * 数据格式版本
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * 经纬度定点数倍数，保留6位小数
+     */
+    public static final int COORDINATE_SCALE = 1_000_000;
+
+    private MapDataEncoder() {
+        // 工具类不应被实例化
+    }
+
+    /**
+     * 写出地图数据脚本
+     *
+     * @param stations       站点列表，需要有可解析的经纬度和有效价格
+     * @param levels         各缩放级别的聚合点，下标为 缩放级别 - {@link MarkerClusterer#MIN_ZOOM}
+     * @param maxZoom        最大聚合级别
+     * @param squareMeter    显示价格使用的房屋面积
+     * @param thresholds     价格颜色分级阈值（每平米价格）
+     * @param generatedTime  生成时间
+     * @param out            输出流
+     * @throws IOException 写入异常
+     */
+    public static void write(List<Subway> stations, List<List<MarkerClusterer.Cluster>> levels, int maxZoom,
+                             int squareMeter, double[] thresholds, String generatedTime, Writer out) throws IOException {
+        Map<String, Integer> lineIndexes = new LinkedHashMap<>();
+        for (Subway station : stations) {
+            lineIndexes.putIfAbsent(station.getLineName(), lineIndexes.size());
+        }
+
+        out.write("window.mapData={\"v\":" + VERSION + ",\"time\":" + quote(generatedTime)
+                + ",\"squareMeter\":" + squareMeter + ",\"scale\":" + COORDINATE_SCALE + ",\"thresholds\":[");
+        for (int i = 0; i < thresholds.length; i++) {
+            out.write((i > 0 ? "," : "") + formatPrice(thresholds[i]));
+        }
+
+        out.write("],\n\"lines\":[");
+        boolean first = true;
+        for (String line : lineIndexes.keySet()) {
+            out.write((first ? "" : ",") + quote(line));
+            first = false;
+        }
+
+        out.write("],\n\"names\":[");
+        for (int i = 0; i < stations.size(); i++) {
+            out.write((i > 0 ? "," : "") + quote(stations.get(i).getName()));
+        }
+
+        out.write("],\n\"line\":[");
+        for (int i = 0; i < stations.size(); i++) {
+            out.write((i > 0 ? "," : "") + lineIndexes.get(stations.get(i).getLineName()));
+        }
+
+        out.write("],\n\"price\":[");
+        for (int i = 0; i < stations.size(); i++) {
+            out.write((i > 0 ? "," : "") + Math.round(stations.get(i).getSquareMeterOfPrice() * 10));
+        }
+
+        out.write("],\n\"lon\":[");
+        long previous = 0;
+        for (int i = 0; i < stations.size(); i++) {
+            long value = toFixedPoint(Double.parseDouble(stations.get(i).getLongitude().trim()));
+            out.write((i > 0 ? "," : "") + (value - previous));
+            previous = value;
+        }
+
+        out.write("],\n\"lat\":[");
+        previous = 0;
+        for (int i = 0; i < stations.size(); i++) {
+            long value = toFixedPoint(Double.parseDouble(stations.get(i).getLatitude().trim()));
+            out.write((i > 0 ? "," : "") + (value - previous));
+            previous = value;
+        }
+
+        out.write("],\n\"minZoom\":" + MarkerClusterer.MIN_ZOOM + ",\"maxZoom\":" + maxZoom + ",\"levels\":[");
+        for (int level = 0; level < levels.size(); level++) {
+            out.write(level > 0 ? ",\n[" : "\n[");
+            long previousLongitude = 0;
+            long previousLatitude = 0;
+            List<MarkerClusterer.Cluster> clusters = levels.get(level);
+            for (int i = 0; i < clusters.size(); i++) {
+                MarkerClusterer.Cluster cluster = clusters.get(i);
+                long longitude = toFixedPoint(cluster.getLongitude());
+                long latitude = toFixedPoint(cluster.getLatitude());
+                out.write((i > 0 ? "," : "") + (longitude - previousLongitude) + "," + (latitude - previousLatitude)
+                        + "," + cluster.getCount() + "," + Math.round(cluster.getAveragePrice() * 10)
+                        + "," + cluster.getStationIndex());
+                previousLongitude = longitude;
+                previousLatitude = latitude;
+            }
+            out.write(']');
+        }
+        out.write("]};\n");
+    }
+
+    static long toFixedPoint(double value) {
+        return Math.round(value * COORDINATE_SCALE);
+    }
+
+    private static String formatPrice(double price) {
+        return price == Math.rint(price) ? String.valueOf((long) price) : String.valueOf(price);
+    }
+
+    /**
+     * 转为JSON字符串字面量，同时转义 &lt; 以便安全地内嵌在script标签中
+     */
+    static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"', '\\' -> quoted.append('\\').append(c);
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                case '<' -> quoted.append("\\u003c");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,163 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.KdTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 地图标记分级聚合<br>
+ * 在Java端预先计算每个缩放级别的聚合点，浏览器只需按当前缩放级别取出对应数组绘制，无需逐个创建全部站点标记<br>
+ * 从最大聚合级别开始逐级向上：把站点投影到Web墨卡托平面，用KD树找出聚合半径（像素）内尚未归属的点合并，
+ * 合并结果作为上一级的输入，因此各级聚合是嵌套的
+ *
+ * @author xuanyuanli
+ */
+public final class MarkerClusterer {
+
+    /**
+     * 最小缩放级别
+     */
+    public static final int MIN_ZOOM = 3;
+
+    /**
+     * 地图瓦片像素尺寸
+     */
+    private static final double TILE_SIZE = 256;
+
+    private final int maxZoom;
+    private final double radiusPixels;
+
+    /**
+     * 聚合点<br>
+     * 只包含一个站点时 {@link #getStationIndex()} 为站点在输入列表中的下标，否则为-1
+     */
+    public static final class Cluster {
+        private final double x;
+        private final double y;
+        private final int count;
+        private final double priceSum;
+        private final int stationIndex;
+
+        private Cluster(double x, double y, int count, double priceSum, int stationIndex) {
+            this.x = x;
+            this.y = y;
+            this.count = count;
+            this.priceSum = priceSum;
+            this.stationIndex = stationIndex;
+        }
+
+        public double getLongitude() {
+            return (x - 0.5) * 360;
+        }
+
+        public double getLatitude() {
+            double n = Math.PI - 2 * Math.PI * y;
+            return Math.toDegrees(Math.atan(Math.sinh(n)));
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * 聚合内站点的平均每平米价格
+         */
+        public double getAveragePrice() {
+            return priceSum / count;
+        }
+
+        public int getStationIndex() {
+            return stationIndex;
+        }
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxZoom      最大聚合级别，更高级别直接显示单个站点
+     * @param radiusPixels 聚合半径（像素）
+     */
+    public MarkerClusterer(int maxZoom, double radiusPixels) {
+        if (maxZoom < MIN_ZOOM) {
+            throw new IllegalArgumentException("最大聚合级别不能小于 " + MIN_ZOOM);
+        }
+        this.maxZoom = maxZoom;
+        this.radiusPixels = radiusPixels;
+    }
+
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * 计算各缩放级别的聚合点
+     *
+     * @param stations 站点列表，需要有有效位置和价格
+     * @return 下标为 缩放级别 - MIN_ZOOM 的聚合点列表
+     */
+    public List<List<Cluster>> cluster(List<Subway> stations) {
+        List<Cluster> current = new ArrayList<>(stations.size());
+        for (int i = 0; i < stations.size(); i++) {
+            Subway station = stations.get(i);
+            double longitude = Double.parseDouble(station.getLongitude().trim());
+            double latitude = Double.parseDouble(station.getLatitude().trim());
+            current.add(new Cluster(mercatorX(longitude), mercatorY(latitude), 1, station.getSquareMeterOfPrice(), i));
+        }
+
+        List<List<Cluster>> levels = new ArrayList<>(maxZoom - MIN_ZOOM + 1);
+        for (int zoom = maxZoom; zoom >= MIN_ZOOM; zoom--) {
+            current = merge(current, radiusPixels / (TILE_SIZE * Math.pow(2, zoom)));
+            levels.add(Collections.unmodifiableList(current));
+        }
+        Collections.reverse(levels);
+        return levels;
+    }
+
+    private static List<Cluster> merge(List<Cluster> points, double radius) {
+        int size = points.size();
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = points.get(i).x;
+            ys[i] = points.get(i).y;
+        }
+        KdTree tree = new KdTree(xs, ys);
+        boolean[] assigned = new boolean[size];
+
+        List<Cluster> merged = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (assigned[i]) {
+                continue;
+            }
+            assigned[i] = true;
+            Cluster seed = points.get(i);
+            double[] sums = {seed.x * seed.count, seed.y * seed.count, seed.count, seed.priceSum};
+            tree.radius(seed.x, seed.y, radius, neighbor -> !assigned[neighbor], neighbor -> {
+                assigned[neighbor] = true;
+                Cluster other = points.get(neighbor);
+                sums[0] += other.x * other.count;
+                sums[1] += other.y * other.count;
+                sums[2] += other.count;
+                sums[3] += other.priceSum;
+            });
+
+            int count = (int) sums[2];
+            merged.add(count == seed.count ? seed
+                    : new Cluster(sums[0] / count, sums[1] / count, count, sums[3], -1));
+        }
+        return merged;
+    }
+
+    private static double mercatorX(double longitude) {
+        return longitude / 360 + 0.5;
+    }
+
+    private static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(latitude));
+        double y = 0.5 - 0.25 * Math.log((1 + sin) / (1 - sin)) / Math.PI;
+        return Math.min(1, Math.max(0, y));
+    }
+}
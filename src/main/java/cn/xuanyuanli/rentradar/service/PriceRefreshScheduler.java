@@ -0,0 +1,102 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.model.Subway;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 站点价格增量刷新调度器<br>
+ * 根据每个站点上次抓取时间和价格波动率排出刷新顺序：没有价格的站点最优先，
+ * 其余按 陈旧度 × (1 + 波动率权重 × 波动率) 从高到低排列<br>
+ * 陈旧度 = 距上次抓取的时间 / 价格缓存过期时间；刚抓取过（未达到最小间隔）的站点不参与刷新，
+ * 抓取过但没有得到价格的站点同样要等到最小间隔之后才会再次抓取<br>
+ * 配合采集器的时间预算，每次运行只刷新最需要更新的一部分站点
+ *
+ * @author xuanyuanli
+ */
+public class PriceRefreshScheduler {
+
+    private final Duration minAge;
+    private final long maxAgeMinutes;
+    private final double volatilityWeight;
+
+    public PriceRefreshScheduler() {
+        this(Duration.ofHours(AppConfig.getInstance().getRefreshMinAgeHours()),
+                Duration.ofDays(Math.max(1, AppConfig.getInstance().getPricesCacheExpireDays())),
+                AppConfig.getInstance().getRefreshVolatilityWeight());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param minAge           最小刷新间隔，距上次抓取不足此时间的站点不刷新
+     * @param maxAge           价格有效期，陈旧度以此为单位；不足1分钟时按1天计算
+     * @param volatilityWeight 波动率权重
+     */
+    PriceRefreshScheduler(Duration minAge, Duration maxAge, double volatilityWeight) {
+        this.minAge = minAge;
+        this.maxAgeMinutes = maxAge.toMinutes() > 0 ? maxAge.toMinutes() : Duration.ofDays(1).toMinutes();
+        this.volatilityWeight = Math.max(0, volatilityWeight);
+    }
+
+    /**
+     * 生成本次的刷新顺序
+     *
+     * @param stations 全部站点
+     * @param progress 进度缓存，包含每个站点上次的价格、抓取时间和波动率
+     * @param now      当前时间
+     * @return 需要刷新的站点，按优先级从高到低排列
+     */
+    public List<Subway> plan(List<Subway> stations, ProgressCacheManager.PriceProgress progress, LocalDateTime now) {
+        List<Subway> candidates = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        for (Subway station : stations) {
+            double score = score(progress.getPriceData().get(ProgressCacheManager.generateStationKey(station)), now);
+            if (score >= 0) {
+                candidates.add(station);
+                scores.add(score);
+            }
+        }
+
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // 分数相同时保持原站点顺序
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> scores.get(i)).reversed());
+
+        List<Subway> plan = new ArrayList<>(order.length);
+        for (Integer index : order) {
+            plan.add(candidates.get(index));
+        }
+        return plan;
+    }
+
+    /**
+     * 计算站点的刷新优先级
+     *
+     * @param price 站点上次的价格记录，没有时为null
+     * @param now   当前时间
+     * @return 优先级，越大越优先；不需要刷新时返回-1
+     */
+    double score(ProgressCacheManager.StationPrice price, LocalDateTime now) {
+        if (price == null || price.getProcessedAt() == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        Duration age = Duration.between(price.getProcessedAt(), now);
+        if (age.compareTo(minAge) < 0) {
+            return -1;
+        }
+        if (price.getPrice() <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double staleness = (double) age.toMinutes() / maxAgeMinutes;
+        return staleness * (1 + volatilityWeight * price.getVolatility());
+    }
+}
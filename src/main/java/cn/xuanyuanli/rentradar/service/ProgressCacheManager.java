@@ -5,25 +5,57 @@ import cn.xuanyuanli.rentradar.model.Subway;
 import cn.xuanyuanli.rentradar.utils.JsonUtils;
 import com.alibaba.fastjson2.annotation.JSONField;
 
-import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.util.*;
 
 /**
  * 进度缓存管理器<br>
  * 用于管理价格获取的断点续传功能<br>
- * 支持逐个站点保存进度，程序异常退出后可从断点处继续
+ * 每完成一个站点只向进度日志（subway-prices-progress.journal）追加一行记录，
+ * 每追加一定条数后把完整进度压缩写入快照文件（subway-prices-progress.json）并清空日志<br>
+ * 读取进度时先加载快照再重放日志，程序异常退出后可从断点处继续<br>
+ * 每个站点还记录价格波动率（相邻两次价格相对变化的指数平滑），供增量刷新调度使用
  *
  * @author xuanyuanli
  */
 public class ProgressCacheManager {
-    
-    private final String progressCacheFile;
-    
+
+    /**
+     * 波动率平滑系数，越大越看重最近一次价格变化
+     */
+    private static final double VOLATILITY_SMOOTHING = 0.5;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final int fsyncInterval;
+    private final int compactInterval;
+    private FileChannel journal;
+    private int unsyncedRecords;
+    private int appendsSinceCompaction;
+
     public ProgressCacheManager() {
-        this.progressCacheFile = AppConfig.getInstance().getDataDir() + "/subway-prices-progress.json";
+        this(AppConfig.getInstance().getDataDir() + "/subway-prices-progress.json",
+                AppConfig.getInstance().getProgressFsyncInterval(),
+                AppConfig.getInstance().getProgressCompactInterval());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param progressCacheFile 进度快照文件路径，日志文件与其同名、后缀为.journal
+     * @param fsyncInterval     每追加多少条记录强制刷盘一次，0表示交给操作系统
+     * @param compactInterval   每追加多少条记录压缩一次日志
+     */
+    ProgressCacheManager(String progressCacheFile, int fsyncInterval, int compactInterval) {
+        this.snapshotFile = Paths.get(progressCacheFile);
+        this.journalFile = snapshotFile.resolveSibling(snapshotFile.getFileName().toString().replaceFirst("\\.json$", "") + ".journal");
+        this.fsyncInterval = Math.max(0, fsyncInterval);
+        this.compactInterval = Math.max(1, compactInterval);
     }
 
     /**
@@ -69,6 +101,7 @@ public class ProgressCacheManager {
         private String displayName;
         private double price;
         private String url;
+        private double volatility;  // 价格波动率，相邻两次价格相对变化的指数平滑
         @JSONField(format = "yyyy-MM-dd HH:mm:ss")
         private LocalDateTime processedAt = LocalDateTime.now();
         
@@ -98,6 +131,9 @@ public class ProgressCacheManager {
         
         public String getUrl() { return url; }
         public void setUrl(String url) { this.url = url; }
+
+        public double getVolatility() { return volatility; }
+        public void setVolatility(double volatility) { this.volatility = volatility; }
         
         public LocalDateTime getProcessedAt() { return processedAt; }
         public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
@@ -111,61 +147,206 @@ public class ProgressCacheManager {
     }
     
     /**
-     * 读取进度缓存（检查有效期）
+     * 读取进度缓存（检查有效期）<br>
+     * 先加载快照，再按顺序重放日志中的记录；日志末尾不完整的记录会被截掉
+     */
+    public synchronized PriceProgress loadProgress() {
+        return loadProgress(true);
+    }
+
+    /**
+     * 读取进度缓存
+     *
+     * @param checkExpiry 是否按价格缓存过期天数整体失效；增量刷新模式下按站点判断新旧，不整体失效
      */
-    public PriceProgress loadProgress() {
-        File file = new File(progressCacheFile);
-        if (!file.exists()) {
+    public synchronized PriceProgress loadProgress(boolean checkExpiry) {
+        PriceProgress progress = readSnapshot();
+        int replayed = replayJournal(progress);
+        if (progress.getLastProcessedTime() == null) {
+            progress.setLastProcessedTime(LocalDateTime.now());
+        }
+
+        // 检查进度缓存是否过期（与价格数据缓存一致）
+        int expireDays = AppConfig.getInstance().getPricesCacheExpireDays();
+        if (checkExpiry && expireDays > 0 && LocalDateTime.now().isAfter(progress.getLastProcessedTime().plusDays(expireDays))) {
+            System.out.println("进度缓存已过期，将重新开始");
+            deleteProgressFiles();
             return new PriceProgress();
         }
-        
+
+        if (!progress.getCompletedStations().isEmpty()) {
+            System.out.println("发现进度缓存：已处理 " + progress.getCompletedStations().size() +
+                             " 个站点（日志重放 " + replayed + " 条），上次更新时间：" + progress.getLastProcessedTime());
+        }
+        return progress;
+    }
+
+    private PriceProgress readSnapshot() {
+        PriceProgress empty = new PriceProgress();
+        empty.setLastProcessedTime(null);
+        if (!Files.exists(snapshotFile)) {
+            return empty;
+        }
+
         try {
-            String jsonContent = java.nio.file.Files.readString(java.nio.file.Paths.get(progressCacheFile));
-            PriceProgress progress = JsonUtils.parseObject(jsonContent, PriceProgress.class);
-            
-            // 检查进度缓存是否过期（与价格数据缓存一致）
-            int expireDays = AppConfig.getInstance().getPricesCacheExpireDays();
-            if (progress != null && expireDays > 0 && progress.getLastProcessedTime() != null) {
-                LocalDateTime expiryTime = progress.getLastProcessedTime().plusDays(expireDays);
-                if (LocalDateTime.now().isAfter(expiryTime)) {
-                    System.out.println("进度缓存已过期，将重新开始");
-                    return new PriceProgress();
+            PriceProgress progress = JsonUtils.readObject(snapshotFile.toString(), PriceProgress.class);
+            return progress != null ? progress : empty;
+        } catch (Exception e) {
+            System.out.println("读取进度缓存失败，将重新开始：" + e.getMessage());
+            return empty;
+        }
+    }
+
+    /**
+     * 重放进度日志
+     *
+     * @return 重放的记录数
+     */
+    private int replayJournal(PriceProgress progress) {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(journalFile);
+            int replayed = 0;
+            int lineStart = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8).trim();
+                lineStart = i + 1;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                StationPrice record = JsonUtils.parseObject(line, StationPrice.class);
+                if (record != null && record.getStationKey() != null) {
+                    applyRecord(progress, record);
+                    replayed++;
+                } else {
+                    System.out.println("进度日志记录损坏，已跳过：" + line);
                 }
             }
 
-            if (progress != null) {
-                System.out.println("发现进度缓存：已处理 " + progress.getCompletedStations().size() +
-                                 " 个站点，上次更新时间：" + progress.getLastProcessedTime());
+            // 写入过程中崩溃会留下不完整的最后一行，截掉后续记录才能正常追加
+            if (lineStart < bytes.length) {
+                System.out.println("进度日志末尾记录不完整，已忽略");
+                try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(lineStart);
+                }
             }
-            return progress;
-        } catch (Exception e) {
-            System.out.println("读取进度缓存失败，将重新开始：" + e.getMessage());
-            return new PriceProgress();
+            return replayed;
+        } catch (IOException e) {
+            System.out.println("读取进度日志失败：" + e.getMessage());
+            return 0;
         }
     }
-    
+
+    private void applyRecord(PriceProgress progress, StationPrice record) {
+        // 没有得到有效价格的抓取只记录时间，不算完成
+        if (record.getPrice() > 0) {
+            progress.getCompletedStations().add(record.getStationKey());
+        }
+        progress.getPriceData().put(record.getStationKey(), record);
+        LocalDateTime processedAt = record.getProcessedAt();
+        if (processedAt != null && (progress.getLastProcessedTime() == null || processedAt.isAfter(progress.getLastProcessedTime()))) {
+            progress.setLastProcessedTime(processedAt);
+        }
+    }
+
     /**
-     * 保存单个站点价格到进度缓存
+     * 保存单个站点价格到进度缓存<br>
+     * 只向日志追加一条记录，写入量与已完成的站点数无关<br>
+     * 多个采集线程会同时调用，加锁保证进度数据和文件内容一致
      */
-    public void saveStationProgress(Subway station, double price, PriceProgress progress) {
-        String stationKey = generateStationKey(station);
-        
+    public synchronized void saveStationProgress(Subway station, double price, PriceProgress progress) {
+        StationPrice record = new StationPrice(station, price);
+        StationPrice previous = progress.getPriceData().get(record.getStationKey());
+        if (previous != null && previous.getPrice() > 0) {
+            double change = Math.abs(price - previous.getPrice()) / previous.getPrice();
+            record.setVolatility(VOLATILITY_SMOOTHING * change + (1 - VOLATILITY_SMOOTHING) * previous.getVolatility());
+        }
+
         // 更新进度数据
-        progress.getCompletedStations().add(stationKey);
-        progress.getPriceData().put(stationKey, new StationPrice(station, price));
-        progress.setLastProcessedTime(LocalDateTime.now());
-        
-        // 立即保存到文件
+        applyRecord(progress, record);
+
+        // 追加到进度日志
         try {
-            String jsonContent = JsonUtils.toJsonString(progress);
-            Path path = Paths.get(progressCacheFile);
-            java.nio.file.Files.createDirectories(path.getParent());
-            java.nio.file.Files.writeString(path, jsonContent);
+            appendRecord(record);
+            if (++appendsSinceCompaction >= compactInterval) {
+                compact(progress);
+            }
         } catch (Exception e) {
             System.err.println("保存进度缓存失败: " + e.getMessage());
+            closeJournal();
         }
     }
-    
+
+    /**
+     * 记录一次没有得到有效价格的抓取（没有房源或抓取失败）<br>
+     * 站点还没有有效价格时写入一条价格为0的记录，保存抓取时间，增量刷新在最小刷新间隔内不再重复抓取它；
+     * 已有有效价格的站点保留原记录。该记录不计入已完成站点，全量采集时仍会重试
+     */
+    public synchronized void saveFailedAttempt(Subway station, PriceProgress progress) {
+        StationPrice previous = progress.getPriceData().get(generateStationKey(station));
+        if (previous != null && previous.getPrice() > 0) {
+            return;
+        }
+
+        StationPrice record = new StationPrice(station, 0);
+        applyRecord(progress, record);
+        try {
+            appendRecord(record);
+            if (++appendsSinceCompaction >= compactInterval) {
+                compact(progress);
+            }
+        } catch (Exception e) {
+            System.err.println("保存进度缓存失败: " + e.getMessage());
+            closeJournal();
+        }
+    }
+
+    private void appendRecord(StationPrice record) throws IOException {
+        if (journal == null) {
+            Files.createDirectories(journalFile.toAbsolutePath().getParent());
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap((JsonUtils.toJsonString(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        if (fsyncInterval > 0 && ++unsyncedRecords >= fsyncInterval) {
+            journal.force(false);
+            unsyncedRecords = 0;
+        }
+    }
+
+    /**
+     * 把完整进度写入快照并清空日志<br>
+     * 快照流式写入并原子替换；清空日志前崩溃时重放已在快照中的记录不影响结果
+     */
+    private void compact(PriceProgress progress) throws IOException {
+        JsonUtils.writeObject(snapshotFile.toString(), progress);
+
+        closeJournal();
+        Files.write(journalFile, new byte[0]);
+        appendsSinceCompaction = 0;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("关闭进度日志失败: " + e.getMessage());
+            }
+            journal = null;
+            unsyncedRecords = 0;
+        }
+    }
+
     /**
      * 将进度缓存转换为地铁站列表
      */
@@ -184,7 +365,7 @@ public class ProgressCacheManager {
             StationPrice priceData = entry.getValue();
             
             Subway originalStation = stationMap.get(stationKey);
-            if (originalStation != null) {
+            if (originalStation != null && priceData.getPrice() > 0) {
                 // 创建新的Subway对象并设置价格
                 Subway stationWithPrice = new Subway();
                 stationWithPrice.setName(originalStation.getName());
@@ -211,14 +392,25 @@ public class ProgressCacheManager {
     /**
      * 清除进度缓存
      */
-    public void clearProgress() {
-        File file = new File(progressCacheFile);
-        if (file.exists()) {
-            file.delete();
+    public synchronized void clearProgress() {
+        if (deleteProgressFiles()) {
             System.out.println("已清除进度缓存");
         }
     }
-    
+
+    private boolean deleteProgressFiles() {
+        closeJournal();
+        appendsSinceCompaction = 0;
+        try {
+            boolean snapshotDeleted = Files.deleteIfExists(snapshotFile);
+            boolean journalDeleted = Files.deleteIfExists(journalFile);
+            return snapshotDeleted || journalDeleted;
+        } catch (IOException e) {
+            System.err.println("清除进度缓存失败: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * 获取进度统计信息
      */
@@ -3,7 +3,9 @@ package cn.xuanyuanli.rentradar.service;
 import cn.xuanyuanli.playwright.stealth.config.PlaywrightConfig;
 import cn.xuanyuanli.playwright.stealth.config.StealthMode;
 import cn.xuanyuanli.playwright.stealth.manager.PlaywrightBrowserManager;
+import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.crawler.ZiroomCrawler;
+import cn.xuanyuanli.rentradar.utils.SpriteRegistry;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -78,7 +80,7 @@ public class ServiceContainer {
      */
     private void initializeServices() {
         // 初始化Playwright管理器
-        playwrightManager = new PlaywrightBrowserManager(PLAYWRIGHT_CONFIG, 2);
+        playwrightManager = new PlaywrightBrowserManager(PLAYWRIGHT_CONFIG, AppConfig.getInstance().getCrawlerPoolSize());
 
         // 创建服务实例
         LocationService locationService = new LocationService();
@@ -91,6 +93,11 @@ public class ServiceContainer {
         services.put(ZiroomCrawler.class, crawler);
         services.put(SubwayDataService.class, dataService);
         services.put(VisualizationService.class, visualizationService);
+
+        // 监听精灵图目录，新增或修改的精灵图配置无需重启即可生效
+        if (AppConfig.getInstance().isSpriteHotReloadEnabled()) {
+            SpriteRegistry.getInstance().startWatching();
+        }
     }
 
     /**
@@ -98,6 +105,8 @@ public class ServiceContainer {
      * 主要负责关闭Playwright浏览器管理器，释放浏览器进程和相关资源
      */
     public void shutdown() {
+        SpriteRegistry.shutdownIfInitialized();
+
         if (playwrightManager != null) {
             playwrightManager.close();
             System.out.println("Playwright管理器已关闭");
@@ -0,0 +1,312 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.KdTree;
+
+import java.util.*;
+
+/**
+ * 地铁站内存索引<br>
+ * 把站点列表整理成并列的经纬度、价格和线路编号数组，按经纬度范围、线路和价格区间过滤时只做数组比较<br>
+ * 按线路查询时只遍历该线路的站点；经纬度按站点平均纬度投影为以公里为单位的平面坐标后建立KD树，
+ * 支持矩形范围、半径和最近k个站点查询（城市范围内投影误差小于千分之一）<br>
+ * 索引构建后不可变，可被多个线程同时查询
+ *
+ * @author xuanyuanli
+ */
+public final class StationIndex {
+
+    /**
+     * 每纬度对应的公里数
+     */
+    private static final double KM_PER_LATITUDE = 110.574;
+
+    /**
+     * 赤道上每经度对应的公里数
+     */
+    private static final double KM_PER_LONGITUDE_AT_EQUATOR = 111.320;
+
+    private final Subway[] stations;
+    private final double[] longitudes;
+    private final double[] latitudes;
+    private final double[] prices;
+    private final Map<String, int[]> stationsByLine;
+    private final double kmPerLongitude;
+    private final KdTree tree;
+
+    private StationIndex(List<Subway> source) {
+        List<Subway> located = new ArrayList<>(source.size());
+        double[] parsedLongitudes = new double[source.size()];
+        double[] parsedLatitudes = new double[source.size()];
+        for (Subway station : source) {
+            if (!station.hasValidLocation()) {
+                continue;
+            }
+            try {
+                parsedLongitudes[located.size()] = Double.parseDouble(station.getLongitude().trim());
+                parsedLatitudes[located.size()] = Double.parseDouble(station.getLatitude().trim());
+                located.add(station);
+            } catch (NumberFormatException e) {
+                System.out.println("站点经纬度格式不正确，不进入索引: " + station.getDisplayName());
+            }
+        }
+
+        int size = located.size();
+        this.stations = located.toArray(new Subway[0]);
+        this.longitudes = Arrays.copyOf(parsedLongitudes, size);
+        this.latitudes = Arrays.copyOf(parsedLatitudes, size);
+        this.prices = new double[size];
+        Map<String, List<Integer>> lines = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            prices[i] = stations[i].getSquareMeterOfPrice();
+            lines.computeIfAbsent(stations[i].getLineName(), k -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, int[]> byLine = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : lines.entrySet()) {
+            byLine.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        this.stationsByLine = Collections.unmodifiableMap(byLine);
+
+        double meanLatitude = Arrays.stream(latitudes).average().orElse(0);
+        this.kmPerLongitude = KM_PER_LONGITUDE_AT_EQUATOR * Math.cos(Math.toRadians(meanLatitude));
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = longitudes[i] * kmPerLongitude;
+            ys[i] = latitudes[i] * KM_PER_LATITUDE;
+        }
+        this.tree = new KdTree(xs, ys);
+    }
+
+    /**
+     * 构建索引，没有有效位置的站点不进入索引
+     *
+     * @param stations 地铁站列表
+     * @return 索引
+     */
+    public static StationIndex build(List<Subway> stations) {
+        return new StationIndex(stations);
+    }
+
+    /**
+     * 按条件查询站点
+     *
+     * @param query 查询条件
+     * @return 满足条件的站点，保持原列表顺序
+     */
+    public List<Subway> query(Query query) {
+        List<Subway> result = new ArrayList<>();
+        if (query.line != null) {
+            int[] indexes = stationsByLine.get(query.line);
+            if (indexes != null) {
+                for (int index : indexes) {
+                    if (matches(index, query)) {
+                        result.add(stations[index]);
+                    }
+                }
+            }
+            return result;
+        }
+
+        if (query.hasBoundingBox()) {
+            List<Integer> found = new ArrayList<>();
+            tree.range(query.minLongitude * kmPerLongitude, query.minLatitude * KM_PER_LATITUDE,
+                    query.maxLongitude * kmPerLongitude, query.maxLatitude * KM_PER_LATITUDE, index -> {
+                        if (matches(index, query)) {
+                            found.add(index);
+                        }
+                    });
+            Collections.sort(found);
+            for (int index : found) {
+                result.add(stations[index]);
+            }
+            return result;
+        }
+
+        for (int i = 0; i < stations.length; i++) {
+            if (matches(i, query)) {
+                result.add(stations[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查询距离指定位置最近的k个站点
+     *
+     * @param longitude 经度
+     * @param latitude  纬度
+     * @param k         最多返回的站点数
+     * @param query     过滤条件
+     * @return 满足条件的站点，按距离由近到远排列
+     */
+    public List<Neighbor> nearest(double longitude, double latitude, int k, Query query) {
+        double x = longitude * kmPerLongitude;
+        double y = latitude * KM_PER_LATITUDE;
+        List<Neighbor> result = new ArrayList<>();
+        for (int index : tree.nearest(x, y, k, index -> matches(index, query))) {
+            result.add(new Neighbor(stations[index], Math.sqrt(tree.distanceSquared(index, x, y))));
+        }
+        return result;
+    }
+
+    /**
+     * 查询指定位置半径范围内的站点
+     *
+     * @param longitude 经度
+     * @param latitude  纬度
+     * @param radiusKm  半径（公里）
+     * @param query     过滤条件
+     * @return 满足条件的站点，按距离由近到远排列
+     */
+    public List<Neighbor> withinRadius(double longitude, double latitude, double radiusKm, Query query) {
+        double x = longitude * kmPerLongitude;
+        double y = latitude * KM_PER_LATITUDE;
+        List<Neighbor> result = new ArrayList<>();
+        tree.radius(x, y, radiusKm, index -> matches(index, query),
+                index -> result.add(new Neighbor(stations[index], Math.sqrt(tree.distanceSquared(index, x, y)))));
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceKm));
+        return result;
+    }
+
+    private boolean matches(int index, Query query) {
+        double price = prices[index];
+        if (price < query.minPrice || price > query.maxPrice) {
+            return false;
+        }
+        if (query.line != null && !query.line.equals(stations[index].getLineName())) {
+            return false;
+        }
+        return !query.hasBoundingBox()
+                || (longitudes[index] >= query.minLongitude && longitudes[index] <= query.maxLongitude
+                && latitudes[index] >= query.minLatitude && latitudes[index] <= query.maxLatitude);
+    }
+
+    public int size() {
+        return stations.length;
+    }
+
+    /**
+     * 全部站点，保持原列表顺序
+     */
+    public List<Subway> all() {
+        return List.of(stations);
+    }
+
+    /**
+     * 全部线路名称
+     */
+    public Set<String> lines() {
+        return stationsByLine.keySet();
+    }
+
+    /**
+     * 附近站点查询结果
+     */
+    public static final class Neighbor {
+        private final Subway station;
+        private final double distanceKm;
+
+        public Neighbor(Subway station, double distanceKm) {
+            this.station = station;
+            this.distanceKm = distanceKm;
+        }
+
+        public Subway getStation() {
+            return station;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    /**
+     * 站点查询条件<br>
+     * 未指定的条件不参与过滤
+     */
+    public static final class Query {
+        private double minLongitude = Double.NaN;
+        private double minLatitude = Double.NaN;
+        private double maxLongitude = Double.NaN;
+        private double maxLatitude = Double.NaN;
+        private String line;
+        private double minPrice = Double.NEGATIVE_INFINITY;
+        private double maxPrice = Double.POSITIVE_INFINITY;
+
+        /**
+         * 从请求参数解析查询条件<br>
+         * bbox=最小经度,最小纬度,最大经度,最大纬度；line=线路名称；minPrice、maxPrice=每平米价格区间
+         *
+         * @param params 请求参数
+         * @return 查询条件
+         * @throws IllegalArgumentException 参数格式不正确
+         */
+        public static Query fromParams(Map<String, String> params) {
+            Query query = new Query();
+            String bbox = params.get("bbox");
+            if (bbox != null && !bbox.isBlank()) {
+                String[] parts = bbox.split(",");
+                if (parts.length != 4) {
+                    throw new IllegalArgumentException("bbox格式应为 最小经度,最小纬度,最大经度,最大纬度: " + bbox);
+                }
+                query.boundingBox(parseDouble(parts[0], "bbox"), parseDouble(parts[1], "bbox"),
+                        parseDouble(parts[2], "bbox"), parseDouble(parts[3], "bbox"));
+            }
+            String line = params.get("line");
+            if (line != null && !line.isBlank()) {
+                query.line(line.trim());
+            }
+            if (params.containsKey("minPrice")) {
+                query.minPrice = parseDouble(params.get("minPrice"), "minPrice");
+            }
+            if (params.containsKey("maxPrice")) {
+                query.maxPrice = parseDouble(params.get("maxPrice"), "maxPrice");
+            }
+            return query;
+        }
+
+        public Query boundingBox(double minLongitude, double minLatitude, double maxLongitude, double maxLatitude) {
+            if (minLongitude > maxLongitude || minLatitude > maxLatitude) {
+                throw new IllegalArgumentException("bbox最小值不能大于最大值");
+            }
+            this.minLongitude = minLongitude;
+            this.minLatitude = minLatitude;
+            this.maxLongitude = maxLongitude;
+            this.maxLatitude = maxLatitude;
+            return this;
+        }
+
+        public Query line(String line) {
+            this.line = line;
+            return this;
+        }
+
+        public Query priceRange(double minPrice, double maxPrice) {
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            return this;
+        }
+
+        public boolean hasBoundingBox() {
+            return !Double.isNaN(minLongitude);
+        }
+
+        /**
+         * 是否没有任何过滤条件
+         */
+        public boolean isEmpty() {
+            return !hasBoundingBox() && line == null
+                    && minPrice == Double.NEGATIVE_INFINITY && maxPrice == Double.POSITIVE_INFINITY;
+        }
+
+        private static double parseDouble(String text, String name) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException(name + " 不是有效的数字: " + text);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.core.util.Numbers;
+import cn.xuanyuanli.rentradar.crawler.ZiroomCrawler;
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+import cn.xuanyuanli.rentradar.model.Subway;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 站点价格并发采集器<br>
+ * 使用固定数量的工作线程并发调用爬虫获取各站点价格，让浏览器页面池保持满载<br>
+ * 待处理站点通过有界队列提交，队列满时提交方阻塞等待，避免一次性堆积全部任务<br>
+ * 每个站点完成后立即写入进度缓存，结果按输入站点顺序返回<br>
+ * 配置了样本库时同时保存每个站点抓取到的原始房源样本
+ *
+ * @author xuanyuanli
+ */
+public class StationPriceCollector {
+
+    private final ZiroomCrawler crawler;
+    private final ProgressCacheManager progressCacheManager;
+    private final ListingSampleStore sampleStore;
+    private final int workerCount;
+    private final int queueCapacity;
+
+    /**
+     * 构造函数
+     *
+     * @param crawler              自如爬虫
+     * @param progressCacheManager 进度缓存管理器
+     * @param workerCount          工作线程数
+     * @param queueCapacity        等待队列容量
+     */
+    public StationPriceCollector(ZiroomCrawler crawler, ProgressCacheManager progressCacheManager,
+                                 int workerCount, int queueCapacity) {
+        this(crawler, progressCacheManager, null, workerCount, queueCapacity);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param crawler              自如爬虫
+     * @param progressCacheManager 进度缓存管理器
+     * @param sampleStore          房源样本库，为null时不保存样本
+     * @param workerCount          工作线程数
+     * @param queueCapacity        等待队列容量
+     */
+    public StationPriceCollector(ZiroomCrawler crawler, ProgressCacheManager progressCacheManager,
+                                 ListingSampleStore sampleStore, int workerCount, int queueCapacity) {
+        this.crawler = crawler;
+        this.progressCacheManager = progressCacheManager;
+        this.sampleStore = sampleStore;
+        this.workerCount = Math.max(1, workerCount);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    /**
+     * 并发采集未完成站点的价格
+     *
+     * @param stations 全部站点
+     * @param progress 当前进度缓存，已完成的站点会被跳过
+     * @return 本次新获取到有效价格的站点，顺序与输入一致
+     */
+    public List<Subway> collect(List<Subway> stations, ProgressCacheManager.PriceProgress progress) {
+        List<Subway> pending = new ArrayList<>();
+        for (Subway station : stations) {
+            if (!progressCacheManager.isStationCompleted(station, progress)) {
+                pending.add(station);
+            }
+        }
+        return crawlAll(pending, progress, -1);
+    }
+
+    /**
+     * 在时间预算内按顺序刷新站点价格，不跳过已完成的站点<br>
+     * 预算用尽后不再开始新的站点，已在抓取中的站点会正常完成
+     *
+     * @param stations 待刷新站点，按优先级排列
+     * @param progress 当前进度缓存
+     * @param budget   时间预算
+     * @return 本次获取到有效价格的站点，顺序与输入一致
+     */
+    public List<Subway> refresh(List<Subway> stations, ProgressCacheManager.PriceProgress progress, Duration budget) {
+        return crawlAll(new ArrayList<>(stations), progress, Math.max(0, budget.toNanos()));
+    }
+
+    /**
+     * 并发抓取站点价格
+     *
+     * @param budgetNanos 时间预算（纳秒），小于0表示不限制
+     */
+    private List<Subway> crawlAll(List<Subway> pending, ProgressCacheManager.PriceProgress progress, long budgetNanos) {
+        if (pending.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        long startNanos = System.nanoTime();
+        int total = pending.size();
+        Subway[] collected = new Subway[total];
+        AtomicInteger processedCount = new AtomicInteger();
+        // 许可数 = 工作线程数 + 队列容量，提交方拿不到许可时阻塞，形成有界队列的背压
+        Semaphore slots = new Semaphore(workerCount + queueCapacity);
+        ExecutorService executor = createExecutor();
+
+        System.out.println("开始并发获取价格：" + total + " 个站点，" + workerCount + " 个工作线程");
+        try {
+            for (int i = 0; i < total; i++) {
+                int index = i;
+                Subway station = pending.get(i);
+                slots.acquire();
+                if (isOverBudget(startNanos, budgetNanos)) {
+                    slots.release();
+                    System.out.println("时间预算已用完，剩余 " + (total - i) + " 个站点留待下次刷新");
+                    break;
+                }
+                try {
+                    executor.execute(() -> {
+                        try {
+                            // 排队期间预算用完的站点不再抓取
+                            if (!isOverBudget(startNanos, budgetNanos)) {
+                                collected[index] = crawlStation(station, progress, processedCount, total);
+                            }
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    slots.release();
+                    throw e;
+                }
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.out.println("价格获取进行中 (" + processedCount.get() + "/" + total + ")");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            System.out.println("价格获取被中断，已完成 " + processedCount.get() + "/" + total);
+        }
+
+        List<Subway> result = new ArrayList<>();
+        for (Subway station : collected) {
+            if (station != null) {
+                result.add(station);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isOverBudget(long startNanos, long budgetNanos) {
+        return budgetNanos >= 0 && System.nanoTime() - startNanos >= budgetNanos;
+    }
+
+    /**
+     * 获取单个站点价格并保存进度
+     *
+     * @return 价格有效时返回站点，否则返回null
+     */
+    private Subway crawlStation(Subway station, ProgressCacheManager.PriceProgress progress,
+                                AtomicInteger processedCount, int total) {
+        try {
+            double avgPrice = sampleStore == null ? crawler.getAveragePrice(station.getUrl()) : crawlAndRecord(station);
+            station.setSquareMeterOfPrice(avgPrice);
+
+            Subway result = null;
+            if (station.hasValidPrice()) {
+                // 立即保存进度
+                progressCacheManager.saveStationProgress(station, avgPrice, progress);
+                result = station;
+            } else {
+                // 没有有效价格也记录抓取时间，增量刷新不会每次都优先重抓
+                progressCacheManager.saveFailedAttempt(station, progress);
+            }
+
+            System.out.println("获取到价格 (" + processedCount.incrementAndGet() + "/" + total + "): " +
+                    station.getDisplayName() + " = " + Numbers.moneyFormat(avgPrice) + " 元/㎡");
+            return result;
+        } catch (Exception e) {
+            // 失败的站点只记录抓取时间，全量采集下次运行时会重新获取
+            progressCacheManager.saveFailedAttempt(station, progress);
+            System.out.println("获取价格失败 (" + processedCount.incrementAndGet() + "/" + total + "): " +
+                    station.getDisplayName() + ", " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 抓取站点的原始房源样本，保存到样本库后计算均价<br>
+     * 样本保存失败不影响价格结果
+     */
+    private double crawlAndRecord(Subway station) {
+        long crawlTime = System.currentTimeMillis();
+        List<RentalPrice> samples = crawler.getRentalPrices(station.getUrl());
+        try {
+            sampleStore.append(station, crawlTime, samples);
+        } catch (IOException e) {
+            System.err.println("保存房源样本失败: " + station.getDisplayName() + ", " + e.getMessage());
+        }
+        return crawler.calculateAveragePrice(samples);
+    }
+
+    private ExecutorService createExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "price-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,297 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * 站点价格查询服务<br>
+ * 基于JDK内置HttpServer的进程内HTTP服务，每个请求由一个虚拟线程处理<br>
+ * 查询只访问内存中的 {@link StationIndex}，不读取文件；无过滤条件的站点JSON和地图页面在数据更新时预先生成<br>
+ * 接口：
+ * <ul>
+ *     <li>GET /api/stations?bbox=最小经度,最小纬度,最大经度,最大纬度&amp;line=线路&amp;minPrice=&amp;maxPrice= 站点JSON</li>
+ *     <li>GET /api/stations?near=经度,纬度&amp;radius=公里 或 near=经度,纬度&amp;k=数量 附近站点JSON，按距离排列，可叠加上述过滤参数</li>
+ *     <li>GET /api/lines 线路名称JSON</li>
+ *     <li>GET /map 地图页面，支持与 /api/stations 相同的过滤参数</li>
+ *     <li>GET /tiles/{z}/{x}/{y}.png 热力图瓦片（开启热力图时）</li>
+ *     <li>GET /health 健康检查</li>
+ * </ul>
+ *
+ * @author xuanyuanli
+ */
+public class StationQueryServer {
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String HTML_TYPE = "text/html; charset=utf-8";
+    private static final String TEXT_TYPE = "text/plain; charset=utf-8";
+    private static final int DEFAULT_NEAREST_COUNT = 10;
+    private static final Pattern TILE_PATH = Pattern.compile("\\d+/\\d+/\\d+\\.png");
+
+    /**
+     * 数据快照，更新时整体替换，查询线程无需加锁
+     */
+    private static final class Snapshot {
+        private final StationIndex index;
+        private final byte[] stationsJson;
+        private final byte[] linesJson;
+        private final byte[] mapHtml;
+
+        private Snapshot(StationIndex index, byte[] stationsJson, byte[] linesJson, byte[] mapHtml) {
+            this.index = index;
+            this.stationsJson = stationsJson;
+            this.linesJson = linesJson;
+            this.mapHtml = mapHtml;
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final VisualizationService visualizationService;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * 构造函数，监听地址和端口从配置读取
+     *
+     * @param visualizationService 可视化服务，用于渲染地图页面
+     */
+    public StationQueryServer(VisualizationService visualizationService) {
+        this(AppConfig.getInstance().getServerHost(), AppConfig.getInstance().getServerPort(), visualizationService);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param host                 监听地址
+     * @param port                 监听端口，0表示随机端口
+     * @param visualizationService 可视化服务，用于渲染地图页面
+     */
+    public StationQueryServer(String host, int port, VisualizationService visualizationService) {
+        this.host = host;
+        this.port = port;
+        this.visualizationService = visualizationService;
+    }
+
+    /**
+     * 更新服务数据<br>
+     * 重建索引并预先生成无过滤条件的响应，完成后原子替换，正在处理的请求继续使用旧数据
+     *
+     * @param stations 地铁站列表
+     * @throws IOException 地图模板加载异常
+     */
+    public void update(List<Subway> stations) throws IOException {
+        StationIndex index = StationIndex.build(stations);
+        byte[] stationsJson = JsonUtils.toJsonString(index.all()).getBytes(StandardCharsets.UTF_8);
+        byte[] linesJson = JsonUtils.toJsonString(new ArrayList<>(index.lines())).getBytes(StandardCharsets.UTF_8);
+        byte[] mapHtml = visualizationService.renderHtml(index.all()).getBytes(StandardCharsets.UTF_8);
+        snapshot.set(new Snapshot(index, stationsJson, linesJson, mapHtml));
+        System.out.println("查询服务数据已更新，共 " + index.size() + " 个站点");
+    }
+
+    /**
+     * 启动服务
+     *
+     * @throws IOException 端口绑定失败
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        httpServer.createContext("/api/stations", exchange -> handle(exchange, this::handleStations));
+        httpServer.createContext("/api/lines", exchange -> handle(exchange, this::handleLines));
+        httpServer.createContext("/map", exchange -> handle(exchange, this::handleMap));
+        httpServer.createContext("/health", exchange -> handle(exchange,
+                (ex, data) -> send(ex, 200, TEXT_TYPE, "OK".getBytes(StandardCharsets.UTF_8))));
+        httpServer.createContext("/", exchange -> handle(exchange, this::handleRoot));
+        String tilePath = visualizationService.getHeatmapTilePath();
+        if (AppConfig.getInstance().isHeatmapEnabled() && !tilePath.startsWith("..")) {
+            String prefix = "/" + tilePath + "/";
+            Path tileDir = Paths.get(AppConfig.getInstance().getHeatmapTileDir());
+            httpServer.createContext(prefix, exchange -> handle(exchange, (ex, data) -> handleTile(ex, prefix, tileDir)));
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        server = httpServer;
+        System.out.println("查询服务已启动: http://" + host + ":" + getPort() + "/map");
+    }
+
+    /**
+     * 停止服务，等待正在处理的请求最多1秒
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+        executor = null;
+        System.out.println("查询服务已停止");
+    }
+
+    /**
+     * 实际监听的端口，构造时端口为0时返回系统分配的端口
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange, Snapshot data) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                send(exchange, 405, TEXT_TYPE, "Method Not Allowed".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            Snapshot data = snapshot.get();
+            if (data == null) {
+                send(exchange, 503, TEXT_TYPE, "数据尚未加载".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            try {
+                handler.handle(exchange, data);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, TEXT_TYPE, e.getMessage().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            System.err.println("查询请求处理失败: " + exchange.getRequestURI() + " - " + e.getMessage());
+        }
+    }
+
+    private void handleStations(HttpExchange exchange, Snapshot data) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        StationIndex.Query query = StationIndex.Query.fromParams(params);
+        if (params.containsKey("near")) {
+            send(exchange, 200, JSON_TYPE, JsonUtils.toJsonString(nearby(data.index, params, query)).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        if (query.isEmpty()) {
+            send(exchange, 200, JSON_TYPE, data.stationsJson);
+            return;
+        }
+        send(exchange, 200, JSON_TYPE, JsonUtils.toJsonString(data.index.query(query)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 附近站点查询：指定radius时返回半径内全部站点，否则返回最近的k个站点
+     */
+    private static List<StationIndex.Neighbor> nearby(StationIndex index, Map<String, String> params,
+                                                      StationIndex.Query query) {
+        String[] near = params.get("near").split(",");
+        if (near.length != 2) {
+            throw new IllegalArgumentException("near格式应为 经度,纬度: " + params.get("near"));
+        }
+        double longitude = parseNumber(near[0], "near");
+        double latitude = parseNumber(near[1], "near");
+        if (params.containsKey("radius")) {
+            double radius = parseNumber(params.get("radius"), "radius");
+            if (radius < 0) {
+                throw new IllegalArgumentException("radius不能为负数");
+            }
+            return index.withinRadius(longitude, latitude, radius, query);
+        }
+        int k = params.containsKey("k") ? (int) parseNumber(params.get("k"), "k") : DEFAULT_NEAREST_COUNT;
+        return index.nearest(longitude, latitude, k, query);
+    }
+
+    private static double parseNumber(String text, String name) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " 不是有效的数字: " + text);
+        }
+    }
+
+    private void handleLines(HttpExchange exchange, Snapshot data) throws IOException {
+        send(exchange, 200, JSON_TYPE, data.linesJson);
+    }
+
+    private void handleMap(HttpExchange exchange, Snapshot data) throws IOException {
+        StationIndex.Query query = StationIndex.Query.fromParams(parseQuery(exchange.getRequestURI().getRawQuery()));
+        if (query.isEmpty()) {
+            send(exchange, 200, HTML_TYPE, data.mapHtml);
+            return;
+        }
+        String html = visualizationService.renderHtml(data.index.query(query));
+        send(exchange, 200, HTML_TYPE, html.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 热力图瓦片，只接受 {z}/{x}/{y}.png 形式的路径
+     */
+    private void handleTile(HttpExchange exchange, String prefix, Path tileDir) throws IOException {
+        String relative = exchange.getRequestURI().getPath().substring(prefix.length());
+        Path file = tileDir.resolve(relative);
+        if (!TILE_PATH.matcher(relative).matches() || !Files.isRegularFile(file)) {
+            send(exchange, 404, TEXT_TYPE, "Not Found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        exchange.getResponseHeaders().set("Cache-Control", "max-age=3600");
+        send(exchange, 200, "image/png", Files.readAllBytes(file));
+    }
+
+    private void handleRoot(HttpExchange exchange, Snapshot data) throws IOException {
+        if (!"/".equals(exchange.getRequestURI().getPath())) {
+            send(exchange, 404, TEXT_TYPE, "Not Found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", "/map");
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    /**
+     * 解析URL查询参数，同名参数取第一个
+     */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+}
@@ -1,16 +1,20 @@
 package cn.xuanyuanli.rentradar.service;
 
-import cn.xuanyuanli.core.util.Numbers;
 import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.crawler.ZiroomCrawler;
 import cn.xuanyuanli.rentradar.exception.CrawlerException;
-import cn.xuanyuanli.rentradar.exception.LocationServiceException;
 import cn.xuanyuanli.rentradar.model.POI;
 import cn.xuanyuanli.rentradar.model.Subway;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
 
 /**
  * 地铁数据服务类<br>
@@ -25,15 +29,27 @@ public class SubwayDataService {
     private final AppConfig config;
     private final ZiroomCrawler crawler;
     private final LocationService locationService;
+    private final GeocodeCache geocodeCache;
     private final CacheManager cacheManager;
     private final ProgressCacheManager progressCacheManager;
+    private final StationPriceCollector priceCollector;
+    private final PriceRefreshScheduler refreshScheduler;
 
     public SubwayDataService(ZiroomCrawler crawler, LocationService locationService) {
+        this(crawler, locationService, new GeocodeCache());
+    }
+
+    SubwayDataService(ZiroomCrawler crawler, LocationService locationService, GeocodeCache geocodeCache) {
         this.config = AppConfig.getInstance();
         this.crawler = crawler;
         this.locationService = locationService;
+        this.geocodeCache = geocodeCache;
         this.cacheManager = new CacheManager();
         this.progressCacheManager = new ProgressCacheManager();
+        this.priceCollector = new StationPriceCollector(crawler, progressCacheManager,
+                config.isListingSamplesEnabled() ? new ListingSampleStore() : null,
+                config.getCrawlerWorkerCount(), config.getCrawlerQueueCapacity());
+        this.refreshScheduler = new PriceRefreshScheduler();
     }
 
     /**
@@ -106,24 +122,29 @@ public class SubwayDataService {
     }
 
     /**
-     * 为地铁站数据添加地理位置信息
+     * 为地铁站数据添加地理位置信息<br>
+     * 优先使用地理位置缓存，只有缓存中没有的站点才交给位置服务并发查询
      */
     private List<Subway> enrichWithLocations(List<Subway> stations) {
+        List<String> keywords = stations.stream()
+                .map(GeocodeCache::keyOf)
+                .toList();
+        List<String> missing = geocodeCache.findMissing(keywords);
+        System.out.println("地理位置缓存命中 " + (keywords.size() - missing.size()) + " 个站点，需查询 " + missing.size() + " 个");
+        if (!missing.isEmpty()) {
+            geocodeCache.putAll(locationService.getPOIs(missing));
+        }
+
         for (Subway station : stations) {
-            try {
-                String keyword = station.getLineName() + " " + station.getName();
-                POI poi = locationService.getPOI(keyword);
-
-                if (poi != null && poi.isValid()) {
-                    station.setLongitude(poi.getLongitude());
-                    station.setLatitude(poi.getLatitude());
-                    System.out.println("获取位置: " + station.getDisplayName() +
-                            " = [" + poi.getLongitude() + ", " + poi.getLatitude() + "]");
-                } else {
-                    System.out.println("位置获取失败: " + station.getDisplayName());
-                }
-            } catch (LocationServiceException e) {
-                System.out.println("位置服务错误: " + station.getDisplayName() + ", " + e.getMessage());
+            POI poi = geocodeCache.get(GeocodeCache.keyOf(station));
+
+            if (poi != null && poi.isValid()) {
+                station.setLongitude(poi.getLongitude());
+                station.setLatitude(poi.getLatitude());
+                System.out.println("获取位置: " + station.getDisplayName() +
+                        " = [" + poi.getLongitude() + ", " + poi.getLatitude() + "]");
+            } else {
+                System.out.println("位置获取失败: " + station.getDisplayName());
             }
         }
 
@@ -134,10 +155,14 @@ public class SubwayDataService {
     }
 
     /**
-     * 第三步：获取地铁站价格数据（支持断点续传）
+     * 第三步：获取地铁站价格数据（支持断点续传）<br>
+     * 开启增量刷新时不使用整体过期策略，每次只在时间预算内刷新最陈旧或波动最大的站点
      */
     public List<Subway> getPriceData(List<Subway> stationsWithLocation) throws Exception {
         System.out.println("开始获取价格数据...");
+        if (config.isPriceRefreshEnabled()) {
+            return refreshPrices(stationsWithLocation);
+        }
 
         return cacheManager.getCachedData(
                 config.getPricesJsonFile(),
@@ -148,7 +173,18 @@ public class SubwayDataService {
     }
 
     /**
-     * 为地铁站数据添加价格信息（支持断点续传）
+     * 读取上次生成的价格数据，不触发任何抓取，用于常驻模式启动时预热查询服务
+     *
+     * @return 价格数据，没有缓存时返回空列表
+     * @throws IOException 缓存读取异常
+     */
+    public List<Subway> getCachedPriceData() throws IOException {
+        return cacheManager.loadCachedData(config.getPricesJsonFile(), Subway.class);
+    }
+
+    /**
+     * 为地铁站数据添加价格信息（支持断点续传）<br>
+     * 未完成的站点交给StationPriceCollector并发获取
      */
     private List<Subway> enrichWithPricesWithResume(List<Subway> stations) {
         // 加载进度缓存
@@ -161,31 +197,44 @@ public class SubwayDataService {
             System.out.println(progressCacheManager.getProgressInfo(progress, stations.size()));
         }
 
-        // 处理剩余未完成的站点
-        int processedCount = 0;
-        int total = stations.size() - progress.getCompletedStations().size();
-        for (Subway station : stations) {
-            if (!progressCacheManager.isStationCompleted(station, progress)) {
-                double avgPrice = crawler.getAveragePrice(station.getUrl());
-                station.setSquareMeterOfPrice(avgPrice);
-
-                // 添加到结果列表（如果价格有效）
-                if (station.hasValidPrice()) {
-                    // 立即保存进度
-                    progressCacheManager.saveStationProgress(station, avgPrice, progress);
-                    result.add(station);
-                }
-
-                processedCount++;
-                System.out.println("获取到价格 (" + processedCount + "/" + total + "): " +
-                        station.getDisplayName() + " = " + Numbers.moneyFormat(avgPrice) + " 元/㎡");
-            }
-        }
+        // 并发处理剩余未完成的站点
+        result.addAll(priceCollector.collect(stations, progress));
+        sortByStationOrder(result, stations);
 
         System.out.println("价格数据获取完成，共 " + result.size() + " 个站点有效");
         return result;
     }
 
+    /**
+     * 增量刷新站点价格<br>
+     * 由PriceRefreshScheduler排出刷新顺序，在时间预算内刷新后与其余站点的已有价格合并，写入价格缓存
+     */
+    private List<Subway> refreshPrices(List<Subway> stations) throws IOException {
+        ProgressCacheManager.PriceProgress progress = progressCacheManager.loadProgress(false);
+        List<Subway> plan = refreshScheduler.plan(stations, progress, LocalDateTime.now());
+        Duration budget = Duration.ofMinutes(config.getRefreshTimeBudgetMinutes());
+        System.out.println("增量刷新：" + plan.size() + " 个站点待刷新，时间预算 " + budget.toMinutes() + " 分钟");
+
+        List<Subway> refreshed = priceCollector.refresh(plan, progress, budget);
+        List<Subway> result = progressCacheManager.convertToSubwayList(progress, stations);
+        sortByStationOrder(result, stations);
+        cacheManager.putCachedData(config.getPricesJsonFile(), result, Subway.class);
+
+        System.out.println("增量刷新完成：刷新 " + refreshed.size() + " 个站点，共 " + result.size() + " 个站点有效");
+        return result;
+    }
+
+    /**
+     * 按原始站点列表顺序排序，使结果不受缓存恢复和并发完成先后的影响
+     */
+    private void sortByStationOrder(List<Subway> result, List<Subway> stations) {
+        Map<String, Integer> order = new HashMap<>();
+        for (int i = 0; i < stations.size(); i++) {
+            order.putIfAbsent(ProgressCacheManager.generateStationKey(stations.get(i)), i);
+        }
+        result.sort(Comparator.comparingInt(s -> order.getOrDefault(ProgressCacheManager.generateStationKey(s), Integer.MAX_VALUE)));
+    }
+
     /**
      * 清除价格获取进度缓存
      */
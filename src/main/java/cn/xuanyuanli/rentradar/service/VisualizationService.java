@@ -3,35 +3,59 @@ package cn.xuanyuanli.rentradar.service;
 import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.model.Subway;
 import cn.xuanyuanli.rentradar.utils.FileUtils;
+import cn.xuanyuanli.rentradar.utils.StreamingTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.DoubleSummaryStatistics;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * 可视化服务类<br>
  * 负责生成基于高德地图的HTML可视化页面<br>
  * 将地铁站价格数据渲染为带有颜色标记的地图标点<br>
+ * 默认使用分级聚合模式：各缩放级别的聚合点在Java端预先计算，由 {@link MapDataEncoder} 编码为紧凑的数据脚本，
+ * 默认写成独立的数据文件由页面动态加载，只更新数据文件即可刷新地图；也可配置为逐站点输出标记代码<br>
+ * 开启热力图时先由 {@link HeatmapTileRenderer} 生成租金插值瓦片，页面以瓦片图层叠加显示<br>
  * 支持价格统计信息显示和自定义地图模板
  *
  * @author xuanyuanli
  */
 public class VisualizationService {
 
+    /**
+     * 聚合模式的浏览器端渲染脚本，解码地图数据并绘制
+     */
+    private static final String RENDERER_SCRIPT = "templates/map-renderer.js";
+
+    /**
+     * 价格颜色分级阈值（每平米价格），依次对应绿色、蓝色、黄色，不低于最后一个阈值为红色
+     */
+    private static final double[] PRICE_THRESHOLDS = {50, 80, 120};
+
     private final AppConfig config;
+    private final HeatmapTileRenderer heatmapRenderer;
+    private volatile Map.Entry<String, StreamingTemplate> template;
+    private volatile String rendererScript;
 
     public VisualizationService() {
         this.config = AppConfig.getInstance();
+        this.heatmapRenderer = new HeatmapTileRenderer();
     }
 
     /**
      * 生成HTML可视化地图<br>
-     * 根据地铁站数据生成包含价格标记的高德地图HTML页面
+     * 根据地铁站数据生成包含价格标记的高德地图HTML页面，页面内容边渲染边写入文件<br>
+     * 聚合模式且开启外部数据文件时，先写出数据文件，页面中只包含渲染脚本和数据文件的加载代码
      * 
      * @param subways 包含完整信息的地铁站列表
      * @throws IOException 文件操作异常
@@ -39,27 +63,155 @@ public class VisualizationService {
     public void generateHtmlVisualization(List<Subway> subways) throws IOException {
         System.out.println("开始生成HTML可视化...");
 
-        String template = loadTemplate();
-        String markers = buildMarkers(subways);
-        String statistics = buildStatistics(subways);
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        if (config.isHeatmapEnabled()) {
+            long start = System.currentTimeMillis();
+            HeatmapTileRenderer.Summary summary = heatmapRenderer.render(subways);
+            System.out.printf("热力图瓦片已生成: %s，共 %d 个瓦片，颜色范围 %.1f - %.1f 元/㎡，耗时 %d 毫秒%n",
+                    heatmapRenderer.getTileDir(), summary.getTileCount(), summary.getLowPrice(), summary.getHighPrice(),
+                    System.currentTimeMillis() - start);
+        }
 
-        String html = template
-                .replace("{{GAODE_API_KEY}}", config.getGaodeApiKey())
-                .replace("{{MARKERS}}", markers)
-                .replace("{{STATISTICS}}", statistics)
-                .replace("{{GENERATED_TIME}}", timestamp);
+        String timestamp = now();
+        String dataPath = null;
+        if (isClusterMode() && config.isMapExternalData()) {
+            String dataFile = config.getMapDataFile();
+            FileUtils.writeAtomically(dataFile, true, out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writeMapData(subways, timestamp, writer);
+                writer.flush();
+            });
+            dataPath = relativeToHtml(dataFile);
+            System.out.println("地图数据已生成: " + dataFile);
+        }
 
         String outputFile = config.getHtmlOutputFile();
-        FileUtils.writeToFile(outputFile, html);
+        String markerDataPath = dataPath;
+        FileUtils.writeAtomically(outputFile, true, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            renderHtml(subways, timestamp, markerDataPath, writer);
+            writer.flush();
+        });
 
         System.out.println("HTML可视化已生成: " + outputFile);
         System.out.println("包含 " + subways.size() + " 个地铁站的价格信息");
     }
 
-    private String loadTemplate() throws IOException {
-        // 从resources加载模板
+    /**
+     * 渲染HTML可视化地图页面，不写入文件
+     *
+     * @param subways 包含完整信息的地铁站列表
+     * @return HTML内容
+     * @throws IOException 模板加载异常
+     */
+    public String renderHtml(List<Subway> subways) throws IOException {
+        StringWriter writer = new StringWriter();
+        renderHtml(subways, writer);
+        return writer.toString();
+    }
+
+    /**
+     * 渲染HTML可视化地图页面到输出流<br>
+     * 模板只解析一次，各占位符的内容直接写入输出流，标记数据不会先拼接成完整字符串；地图数据内嵌在页面中
+     *
+     * @param subways 包含完整信息的地铁站列表
+     * @param out     输出流，由调用方刷新和关闭
+     * @throws IOException 模板加载或写入异常
+     */
+    public void renderHtml(List<Subway> subways, Writer out) throws IOException {
+        renderHtml(subways, now(), null, out);
+    }
+
+    /**
+     * @param dataPath 外部数据文件相对于页面的路径，为null时数据内嵌在页面中
+     */
+    private void renderHtml(List<Subway> subways, String timestamp, String dataPath, Writer out) throws IOException {
+        Map<String, StreamingTemplate.SegmentWriter> values = Map.of(
+                "GAODE_API_KEY", writer -> writer.write(config.getGaodeApiKey()),
+                "HEATMAP", writer -> writer.write(buildHeatmapLayer()),
+                "MARKERS", writer -> writeMarkers(subways, dataPath, writer),
+                "STATISTICS", writer -> writer.write(buildStatistics(subways)),
+                "GENERATED_TIME", writer -> writer.write(timestamp));
+        getTemplate().render(out, values);
+    }
+
+    /**
+     * 写出聚合模式的地图数据脚本，即外部数据文件的内容
+     *
+     * @param subways   包含完整信息的地铁站列表，无效位置或价格的站点会被忽略
+     * @param timestamp 生成时间
+     * @param out       输出流，由调用方刷新和关闭
+     * @throws IOException 写入异常
+     */
+    public void writeMapData(List<Subway> subways, String timestamp, Writer out) throws IOException {
+        List<Subway> stations = subways.stream()
+                .filter(Subway::hasValidLocation)
+                .filter(Subway::hasValidPrice)
+                .filter(VisualizationService::hasNumericLocation)
+                .toList();
+        MarkerClusterer clusterer = new MarkerClusterer(config.getMapClusterMaxZoom(), config.getMapClusterRadius());
+        MapDataEncoder.write(stations, clusterer.cluster(stations), clusterer.getMaxZoom(),
+                config.getDefaultSquareMeter(), PRICE_THRESHOLDS, timestamp, out);
+    }
+
+    private static String now() {
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    }
+
+    private boolean isClusterMode() {
+        return "cluster".equalsIgnoreCase(config.getMapMarkerMode());
+    }
+
+    /**
+     * 已解析的地图模板，模板路径变化时重新解析
+     */
+    private StreamingTemplate getTemplate() throws IOException {
         String templatePath = config.getMapTemplate();
+        Map.Entry<String, StreamingTemplate> cached = template;
+        if (cached == null || !cached.getKey().equals(templatePath)) {
+            cached = Map.entry(templatePath, StreamingTemplate.parse(loadResource(templatePath)));
+            template = cached;
+        }
+        return cached.getValue();
+    }
+
+    private String getRendererScript() throws IOException {
+        String script = rendererScript;
+        if (script == null) {
+            script = loadResource(RENDERER_SCRIPT);
+            rendererScript = script;
+        }
+        return script;
+    }
+
+    /**
+     * 热力图瓦片相对于HTML页面的路径，使用 / 分隔
+     */
+    public String getHeatmapTilePath() {
+        return relativeToHtml(heatmapRenderer.getTileDir());
+    }
+
+    private String relativeToHtml(String path) {
+        Path htmlDir = Paths.get(config.getHtmlOutputFile()).toAbsolutePath().getParent();
+        return htmlDir.relativize(Paths.get(path).toAbsolutePath()).toString().replace('\\', '/');
+    }
+
+    private String buildHeatmapLayer() {
+        if (!config.isHeatmapEnabled()) {
+            return "";
+        }
+        return String.format(
+                """
+                        new AMap.TileLayer({
+                          tileUrl: '%s/[z]/[x]/[y].png',
+                          zooms: [%d, %d],
+                          zIndex: 5,
+                          map: map
+                        });""",
+                getHeatmapTilePath(), heatmapRenderer.getMinZoom(), heatmapRenderer.getMaxZoom());
+    }
+
+    private String loadResource(String templatePath) throws IOException {
+        // 从resources加载模板
         try (InputStream input = getClass().getClassLoader().getResourceAsStream(templatePath)) {
             if (input != null) {
                 return new String(input.readAllBytes(), StandardCharsets.UTF_8);
@@ -70,17 +222,61 @@ public class VisualizationService {
         throw new IOException("模板文件未找到: " + templatePath);
     }
 
-    private String buildMarkers(List<Subway> subways) {
-        return subways.stream()
-                .filter(Subway::hasValidLocation)
-                .filter(Subway::hasValidPrice)
-                .map(this::createMarkerScript)
-                .collect(Collectors.joining("\n\t\t"));
+    private void writeMarkers(List<Subway> subways, String dataPath, Writer out) throws IOException {
+        if (isClusterMode()) {
+            writeClusterScript(subways, dataPath, out);
+            return;
+        }
+        boolean first = true;
+        for (Subway subway : subways) {
+            if (!subway.hasValidLocation() || !subway.hasValidPrice()) {
+                continue;
+            }
+            if (!first) {
+                out.write("\n\t\t");
+            }
+            out.write(createMarkerScript(subway));
+            first = false;
+        }
+    }
+
+    /**
+     * 输出聚合模式的标记脚本：渲染脚本，加上内嵌的地图数据或外部数据文件的加载代码<br>
+     * 数据文件以script标签加载，本地直接打开页面时也可用；地址附加时间戳避免浏览器缓存旧数据
+     */
+    private void writeClusterScript(List<Subway> subways, String dataPath, Writer out) throws IOException {
+        out.write(getRendererScript());
+        if (dataPath == null) {
+            writeMapData(subways, now(), out);
+            out.write("renderMapData(window.mapData);\n");
+            return;
+        }
+        out.write("""
+                (function () {
+                    var script = document.createElement('script');
+                    script.src = %s + '?t=' + Date.now();
+                    script.onload = function () { renderMapData(window.mapData); };
+                    document.head.appendChild(script);
+                })();
+                """.formatted(MapDataEncoder.quote(dataPath)));
+    }
+
+    private static boolean hasNumericLocation(Subway subway) {
+        try {
+            Double.parseDouble(subway.getLongitude().trim());
+            Double.parseDouble(subway.getLatitude().trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private double getDisplayPrice(double pricePerMeter) {
+        return Math.round(pricePerMeter * config.getDefaultSquareMeter() * 10) / 10.0;
     }
 
     private String createMarkerScript(Subway subway) {
-        double displayPrice = Math.round(subway.getSquareMeterOfPrice() *
-                config.getDefaultSquareMeter() * 10) / 10.0;
+        double displayPrice = getDisplayPrice(subway.getSquareMeterOfPrice());
 
         // 根据价格设置不同颜色
         String color = getPriceColor(subway.getSquareMeterOfPrice());
@@ -109,28 +305,18 @@ public class VisualizationService {
 
     /**
      * 根据每平方米价格获取对应的地图标记颜色<br>
-     * 价格分级：绿色(<50) -> 蓝色(<80) -> 黄色(<120) -> 红色(>=120)
+     * 价格分级：绿色(<50) -> 蓝色(<80) -> 黄色(<120) -> 红色(>=120)，与渲染脚本共用 {@link #PRICE_THRESHOLDS}
      * 
      * @param pricePerMeter 每平方米价格
      * @return 颜色代码(1-4)
      */
     private String getPriceColor(double pricePerMeter) {
-        // 绿色
-        if (pricePerMeter < 50) {
-            return "1";
-        }
-        // 蓝色
-        else if (pricePerMeter < 80) {
-            return "2";
-        }
-        // 黄色
-        else if (pricePerMeter < 120) {
-            return "3";
-        }
-        // 红色
-        else {
-            return "4";
+        for (int i = 0; i < PRICE_THRESHOLDS.length; i++) {
+            if (pricePerMeter < PRICE_THRESHOLDS[i]) {
+                return String.valueOf(i + 1);
+            }
         }
+        return String.valueOf(PRICE_THRESHOLDS.length + 1);
     }
 
     private String buildStatistics(List<Subway> subways) {
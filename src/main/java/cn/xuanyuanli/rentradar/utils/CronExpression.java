@@ -0,0 +1,141 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * 简单的cron表达式<br>
+ * 支持标准的5个字段：分 时 日 月 周，每个字段支持 *、数值、范围(a-b)、步长(*&#47;n、a-b/n)和逗号分隔的列表<br>
+ * 周字段0和7都表示周日；日和周都不是 * 时，满足其一即可（与crontab一致）
+ *
+ * @author xuanyuanli
+ */
+public final class CronExpression {
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CronExpression(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("cron表达式需要5个字段（分 时 日 月 周）: " + expression);
+        }
+        this.expression = expression.trim();
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.daysOfMonth = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.daysOfWeek = parseField(fields[4], 0, 7);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    /**
+     * 解析cron表达式
+     *
+     * @param expression cron表达式，如 "0 3 * * *" 表示每天3点
+     * @return cron表达式对象
+     * @throws IllegalArgumentException 表达式格式不正确
+     */
+    public static CronExpression parse(String expression) {
+        return new CronExpression(expression);
+    }
+
+    /**
+     * 计算指定时间之后的下一个触发时间
+     *
+     * @param after 起始时间（不包含）
+     * @return 下一个触发时间，精确到分钟
+     * @throws IllegalArgumentException 表达式在未来五年内都不会触发（如2月30日）
+     */
+    public LocalDateTime next(LocalDateTime after) {
+        LocalDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDateTime limit = time.plusYears(5);
+
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        throw new IllegalArgumentException("cron表达式不会触发: " + expression);
+    }
+
+    private boolean matchesDay(LocalDateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        // DayOfWeek: 周一为1 ... 周日为7，转换为cron的周日为0
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet values = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, Integer.MAX_VALUE, field);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*")) {
+                start = min;
+                end = max;
+            } else if (part.contains("-")) {
+                String[] range = part.split("-", 2);
+                start = parseNumber(range[0], min, max, field);
+                end = parseNumber(range[1], min, max, field);
+                if (start > end) {
+                    throw new IllegalArgumentException("cron范围不正确: " + field);
+                }
+            } else {
+                start = parseNumber(part, min, max, field);
+                end = slash >= 0 ? max : start;
+            }
+
+            for (int value = start; value <= end; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseNumber(String text, int min, int max, String field) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("cron字段超出范围 [" + min + ", " + max + "]: " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("cron字段格式不正确: " + field, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
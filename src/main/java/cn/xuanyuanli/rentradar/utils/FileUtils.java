@@ -1,10 +1,12 @@
 package cn.xuanyuanli.rentradar.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
@@ -19,6 +21,8 @@ import java.util.List;
  */
 public final class FileUtils {
 
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     private FileUtils() {
         // 工具类不应被实例化
     }
@@ -33,30 +37,101 @@ public final class FileUtils {
         return Files.exists(Paths.get(filePath));
     }
 
+    /**
+     * 文件内容写入逻辑
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * 把内容写入输出流，输出流由调用方关闭
+         *
+         * @param out 输出流
+         * @throws IOException 写入异常
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
     /**
      * 将内容写入指定文件<br>
-     * 自动创建父目录和文件（如果不存在）
+     * 自动创建父目录，先写临时文件并刷盘，再原子替换目标文件，写入中途崩溃不会破坏原文件
      * 
      * @param filePath 文件路径
      * @param content 要写入的内容
      * @throws IOException 文件操作异常
      */
     public static void writeToFile(String filePath, String content) throws IOException {
-        Path path = Paths.get(filePath);
+        writeToFile(filePath, content, true);
+    }
+
+    /**
+     * 将内容写入指定文件<br>
+     * 自动创建父目录，先写临时文件再原子替换目标文件
+     *
+     * @param filePath 文件路径
+     * @param content 要写入的内容
+     * @param fsync 替换前是否强制刷盘，为false时只保证不会读到写了一半的文件
+     * @throws IOException 文件操作异常
+     */
+    public static void writeToFile(String filePath, String content, boolean fsync) throws IOException {
+        writeAtomically(filePath, fsync, out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+        System.out.println("文件已写入: " + filePath);
+    }
+
+    /**
+     * 原子写入文件<br>
+     * 内容先写入同目录下的临时文件，可选刷盘后用原子移动替换目标文件；
+     * 写入失败时删除临时文件，目标文件保持原样
+     *
+     * @param filePath 文件路径
+     * @param fsync 替换前是否强制刷盘
+     * @param writer 内容写入逻辑
+     * @throws IOException 文件操作异常
+     */
+    public static void writeAtomically(String filePath, boolean fsync, ContentWriter writer) throws IOException {
+        Path path = Paths.get(filePath).toAbsolutePath();
 
         // 确保父目录存在
         Path parentDir = path.getParent();
-        if (parentDir != null && !Files.exists(parentDir)) {
+        if (!Files.exists(parentDir)) {
             Files.createDirectories(parentDir);
         }
 
-        // 如果文件不存在则创建
-        if (!Files.exists(path)) {
-            Files.createFile(path);
+        Path tempFile = parentDir.resolve("." + path.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE)) {
+                writer.write(out);
+                out.flush();
+                if (fsync) {
+                    channel.force(true);
+                }
+            }
+            moveIntoPlace(tempFile, path);
+            if (fsync) {
+                syncDirectory(parentDir);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
+    }
 
-        Files.writeString(path, content, StandardOpenOption.TRUNCATE_EXISTING);
-        System.out.println("文件已写入: " + filePath);
+    /**
+     * 刷新目录项，保证重命名本身落盘；部分平台（如Windows）不支持打开目录，直接忽略
+     */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // 不支持目录刷盘
+        }
     }
 
     public static String readFromFile(String filePath) throws IOException {
@@ -2,13 +2,27 @@ package cn.xuanyuanli.rentradar.utils;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * JSON操作工具类<br>
  * 封装fastjson2的常用操作，提供统一的JSON序列化和反序列化方法<br>
- * 包括异常处理和数据有效性验证功能
+ * 包括异常处理和数据有效性验证功能<br>
+ * 文件读写方法在fastjson2和文件流之间直接传输，不经过完整的JSON字符串
  *
  * @author xuanyuanli
  */
@@ -71,6 +85,146 @@ public final class JsonUtils {
         }
     }
 
+    /**
+     * 将列表以JSON数组流式写入文件<br>
+     * 每个元素单独序列化后直接写入文件流并占一行，内存中不保存完整的JSON字符串；
+     * 文件通过 {@link FileUtils#writeAtomically} 原子替换
+     *
+     * @param <T> 列表元素类型
+     * @param filePath 文件路径
+     * @param data 要写入的数据
+     * @throws IOException 文件操作异常
+     */
+    public static <T> void writeArray(String filePath, Collection<T> data) throws IOException {
+        FileUtils.writeAtomically(filePath, true, out -> {
+            try (JSONWriter writer = JSONWriter.ofUTF8()) {
+                out.write('[');
+                boolean first = true;
+                for (T item : data) {
+                    if (!first) {
+                        out.write(',');
+                    }
+                    out.write('\n');
+                    writer.writeAny(item);
+                    writer.flushTo(out);
+                    first = false;
+                }
+                out.write('\n');
+                out.write(']');
+            }
+        });
+        System.out.println("文件已写入: " + filePath);
+    }
+
+    /**
+     * 从文件流式读取JSON数组<br>
+     * {@link #writeArray} 写出的每行一个元素的文件逐行解析，内存占用与文件大小无关；
+     * 其他格式的JSON数组由fastjson2直接从文件流解析<br>
+     * 反序列化失败时返回null
+     *
+     * @param <T> 列表元素类型
+     * @param filePath 文件路径
+     * @param clazz 元素类的Class对象
+     * @return 反序列化后的列表，失败时返回null
+     * @throws IOException 文件不存在或读取异常
+     */
+    public static <T> List<T> readArray(String filePath, Class<T> clazz) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            throw new IOException("文件不存在: " + filePath);
+        }
+
+        List<T> result;
+        try {
+            result = readArrayByLine(path, clazz);
+        } catch (JSONException e) {
+            // 首行是 [ 但元素跨越多行（如格式化输出的JSON），交给流式解析
+            result = null;
+        }
+
+        try {
+            return result != null ? result : readArrayFromStream(path, clazz);
+        } catch (JSONException e) {
+            System.err.println("JSON数组反序列化失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 按行读取每行一个元素的JSON数组
+     *
+     * @return 列表，文件不是每行一个元素的格式时返回null
+     * @throws JSONException 某一行不是完整的元素
+     */
+    private static <T> List<T> readArrayByLine(Path path, Class<T> clazz) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String first = reader.readLine();
+            if (first == null || !"[".equals(first.trim())) {
+                return null;
+            }
+
+            List<T> result = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String item = line.trim();
+                if ("]".equals(item)) {
+                    return result;
+                }
+                if (item.endsWith(",")) {
+                    item = item.substring(0, item.length() - 1);
+                }
+                if (!item.isEmpty()) {
+                    result.add(JSON.parseObject(item, clazz));
+                }
+            }
+            throw new JSONException("JSON数组不完整: " + path);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> readArrayFromStream(Path path, Class<T> clazz) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path));
+             JSONReader reader = JSONReader.of(in, StandardCharsets.UTF_8)) {
+            return (List<T>) reader.readArray(clazz);
+        }
+    }
+
+    /**
+     * 将对象流式写入文件，不生成中间的JSON字符串<br>
+     * 文件通过 {@link FileUtils#writeAtomically} 原子替换
+     *
+     * @param filePath 文件路径
+     * @param object 要写入的对象
+     * @throws IOException 文件操作异常
+     */
+    public static void writeObject(String filePath, Object object) throws IOException {
+        FileUtils.writeAtomically(filePath, true, out -> JSON.writeTo(out, object));
+    }
+
+    /**
+     * 从文件流式读取对象<br>
+     * 反序列化失败时返回null
+     *
+     * @param <T> 目标对象类型
+     * @param filePath 文件路径
+     * @param type 目标类型，泛型类型可使用TypeReference获取
+     * @return 反序列化后的对象，失败时返回null
+     * @throws IOException 文件不存在或读取异常
+     */
+    public static <T> T readObject(String filePath, Type type) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            throw new IOException("文件不存在: " + filePath);
+        }
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return JSON.parseObject(in, StandardCharsets.UTF_8, type);
+        } catch (JSONException e) {
+            System.err.println("JSON反序列化失败: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 验证JSON字符串的有效性<br>
      * 检查给定的字符串是否为合法的JSON格式
@@ -0,0 +1,271 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * 二维KD树<br>
+ * 对平面坐标点建立隐式KD树：只保存一个按树结构排列的下标数组，区间 [lo, hi) 的中点为子树根，按深度交替以x、y切分<br>
+ * 支持矩形范围、圆形范围和最近k个点查询，点以构建时传入数组的下标表示；构建后不可变，可被多个线程同时查询
+ *
+ * @author xuanyuanli
+ */
+public final class KdTree {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] tree;
+
+    /**
+     * 构建KD树
+     *
+     * @param xs 各点x坐标
+     * @param ys 各点y坐标，长度与xs相同
+     */
+    public KdTree(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+        this.tree = new int[xs.length];
+        for (int i = 0; i < tree.length; i++) {
+            tree[i] = i;
+        }
+        build(0, tree.length, 0);
+    }
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, depth & 1);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * 快速选择：把区间内第k小的点放到k位置，左侧不大于它，右侧不小于它
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (left < right) {
+            int pivotIndex = (left + right) >>> 1;
+            double pivot = coordinate(tree[pivotIndex], axis);
+            swap(pivotIndex, right);
+            int store = left;
+            for (int i = left; i < right; i++) {
+                if (coordinate(tree[i], axis) < pivot) {
+                    swap(i, store++);
+                }
+            }
+            swap(store, right);
+            if (store == k) {
+                return;
+            } else if (store < k) {
+                left = store + 1;
+            } else {
+                right = store - 1;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int tmp = tree[i];
+        tree[i] = tree[j];
+        tree[j] = tmp;
+    }
+
+    private double coordinate(int point, int axis) {
+        return axis == 0 ? xs[point] : ys[point];
+    }
+
+    public int size() {
+        return tree.length;
+    }
+
+    /**
+     * 矩形范围查询（包含边界）
+     *
+     * @param consumer 接收范围内的点下标，顺序不确定
+     */
+    public void range(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        range(0, tree.length, 0, minX, minY, maxX, maxY, consumer);
+    }
+
+    private void range(int lo, int hi, int depth, double minX, double minY, double maxX, double maxY,
+                       IntConsumer consumer) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int point = tree[mid];
+        double x = xs[point];
+        double y = ys[point];
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+            consumer.accept(point);
+        }
+        boolean byX = (depth & 1) == 0;
+        double split = byX ? x : y;
+        if ((byX ? minX : minY) <= split) {
+            range(lo, mid, depth + 1, minX, minY, maxX, maxY, consumer);
+        }
+        if ((byX ? maxX : maxY) >= split) {
+            range(mid + 1, hi, depth + 1, minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    /**
+     * 圆形范围查询（包含边界）
+     *
+     * @param filter   额外过滤条件，为null时不过滤
+     * @param consumer 接收范围内的点下标，顺序不确定
+     */
+    public void radius(double x, double y, double radius, IntPredicate filter, IntConsumer consumer) {
+        double radiusSquared = radius * radius;
+        range(x - radius, y - radius, x + radius, y + radius, point -> {
+            if (distanceSquared(point, x, y) <= radiusSquared && (filter == null || filter.test(point))) {
+                consumer.accept(point);
+            }
+        });
+    }
+
+    /**
+     * 最近k个点查询
+     *
+     * @param k      最多返回的点数
+     * @param filter 额外过滤条件，为null时不过滤
+     * @return 点下标，按距离由近到远排列
+     */
+    public int[] nearest(double x, double y, int k, IntPredicate filter) {
+        if (k <= 0 || tree.length == 0) {
+            return new int[0];
+        }
+        Neighbors neighbors = new Neighbors(Math.min(k, tree.length));
+        nearest(0, tree.length, 0, x, y, filter, neighbors);
+        return neighbors.sorted();
+    }
+
+    private void nearest(int lo, int hi, int depth, double x, double y, IntPredicate filter, Neighbors neighbors) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        int point = tree[mid];
+        if (filter == null || filter.test(point)) {
+            neighbors.offer(point, distanceSquared(point, x, y));
+        }
+        boolean byX = (depth & 1) == 0;
+        double delta = byX ? x - xs[point] : y - ys[point];
+        // 先搜索查询点所在一侧，另一侧只有与切分线的距离小于当前第k近距离时才需要搜索
+        if (delta < 0) {
+            nearest(lo, mid, depth + 1, x, y, filter, neighbors);
+            if (delta * delta <= neighbors.worst()) {
+                nearest(mid + 1, hi, depth + 1, x, y, filter, neighbors);
+            }
+        } else {
+            nearest(mid + 1, hi, depth + 1, x, y, filter, neighbors);
+            if (delta * delta <= neighbors.worst()) {
+                nearest(lo, mid, depth + 1, x, y, filter, neighbors);
+            }
+        }
+    }
+
+    /**
+     * 点到查询坐标的距离平方
+     */
+    public double distanceSquared(int point, double x, double y) {
+        double dx = xs[point] - x;
+        double dy = ys[point] - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * 固定容量的最大堆，保存当前最近的k个点
+     */
+    private static final class Neighbors {
+        private final int[] points;
+        private final double[] distances;
+        private int size;
+
+        private Neighbors(int capacity) {
+            this.points = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        private double worst() {
+            return size < points.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        private void offer(int point, double distance) {
+            if (size < points.length) {
+                points[size] = point;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                points[0] = point;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distances[parent] >= distances[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int point = points[i];
+            points[i] = points[j];
+            points[j] = point;
+            double distance = distances[i];
+            distances[i] = distances[j];
+            distances[j] = distance;
+        }
+
+        private int[] sorted() {
+            // k通常很小，插入排序即可，避免装箱
+            int[] result = Arrays.copyOf(points, size);
+            double[] keys = Arrays.copyOf(distances, size);
+            for (int i = 1; i < size; i++) {
+                int point = result[i];
+                double key = keys[i];
+                int j = i - 1;
+                while (j >= 0 && keys[j] > key) {
+                    result[j + 1] = result[j];
+                    keys[j + 1] = keys[j];
+                    j--;
+                }
+                result[j + 1] = point;
+                keys[j + 1] = key;
+            }
+            return result;
+        }
+    }
+}
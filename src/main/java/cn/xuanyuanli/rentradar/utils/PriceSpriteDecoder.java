@@ -1,26 +1,18 @@
 package cn.xuanyuanli.rentradar.utils;
 
-import cn.xuanyuanli.core.util.Resources;
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONWriter;
-import org.springframework.core.io.Resource;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import cn.xuanyuanli.rentradar.config.AppConfig;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CSS精灵图价格解码器
  * <p>
  * 用于解析自如网站使用CSS精灵图显示的价格数字，
  * 通过分析background-position来解码价格数字。
- * 支持多种精灵图文件的识别和解码。
+ * 支持多种精灵图文件的识别和解码，精灵图配置由 {@link SpriteRegistry} 统一管理。
  * </p>
  *
  * @author xuanyuanli
@@ -28,10 +20,58 @@ import java.util.regex.Pattern;
  */
 public class PriceSpriteDecoder {
 
+    private static final String BACKGROUND_IMAGE = "background-image";
+    private static final String BACKGROUND_POSITION = "background-position";
+
+    /**
+     * 样式扫描结果：没有可解码的内容，跳过当前span
+     */
+    private static final int SKIP = -1;
+
+    /**
+     * 样式扫描结果：解码失败，整个价格无效
+     */
+    private static final int FAIL = -2;
+
+    /**
+     * 坐标解析失败
+     */
+    private static final int NO_POSITION = Integer.MIN_VALUE;
+
+    /**
+     * 价格最多位数，防止long溢出
+     */
+    private static final int MAX_PRICE_DIGITS = 18;
+
+    /**
+     * 精灵图中的数字个数
+     */
+    private static final int DIGIT_COUNT = 10;
+
+    /**
+     * 推算数字间隔时允许的最小间隔（像素）
+     */
+    private static final double MIN_PIXEL_INTERVAL = 5;
+
+    /**
+     * 坐标与推算间隔倍数之间允许的误差（像素），坐标本身只保留一位小数
+     */
+    private static final double POSITION_TOLERANCE = 0.15;
+
     /**
-     * 精灵图配置缓存：精灵图文件名/哈希 -> 精灵图配置
+     * 识别失败的精灵图在冷却期内不再重新下载识别
      */
-    private static final Map<String, SpriteConfig> SPRITE_CONFIGS = new HashMap<>();
+    static final Duration FAILED_SPRITE_COOLDOWN = Duration.ofMinutes(30);
+
+    /**
+     * 识别失败记录的最大条数
+     */
+    static final int MAX_FAILED_SPRITES = 256;
+
+    /**
+     * 识别失败的精灵图及其失败时间
+     */
+    private static final Map<String, Instant> FAILED_SPRITES = new ConcurrentHashMap<>();
 
     /**
      * 精灵图配置数据模型
@@ -86,17 +126,73 @@ public class PriceSpriteDecoder {
         }
     }
 
+    /**
+     * 单张精灵图的数字查找表
+     * <p>
+     * 把配置中的坐标量化为0.1像素的整数，数字按 坐标 - 最小坐标 存入byte数组，
+     * 解码时直接按下标取值，不再拼接字符串查HashMap。
+     * </p>
+     */
+    static final class SpriteTable {
+        private final String identifier;
+        private final int hash;
+        private final int minTenths;
+        private final byte[] digits;
+
+        SpriteTable(SpriteConfig config) {
+            this.identifier = config.getIdentifier();
+            this.hash = identifier.hashCode();
+
+            Map<String, String> mapping = config.getMapping() != null ? config.getMapping() : Map.of();
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (String position : mapping.keySet()) {
+                int tenths = parseTenths(position, 0, false);
+                if (tenths != NO_POSITION) {
+                    min = Math.min(min, tenths);
+                    max = Math.max(max, tenths);
+                }
+            }
 
-    static {
-        // 动态加载所有精灵图配置文件
-        scanAndLoadSpriteConfigs();
+            if (min > max) {
+                this.minTenths = 0;
+                this.digits = new byte[0];
+                return;
+            }
+            this.minTenths = min;
+            this.digits = new byte[max - min + 1];
+            Arrays.fill(digits, (byte) -1);
+            for (Map.Entry<String, String> entry : mapping.entrySet()) {
+                int tenths = parseTenths(entry.getKey(), 0, false);
+                String digit = entry.getValue();
+                if (tenths != NO_POSITION && digit != null && digit.length() == 1 && Character.isDigit(digit.charAt(0))) {
+                    digits[tenths - min] = (byte) (digit.charAt(0) - '0');
+                }
+            }
+        }
+
+        /**
+         * 按量化后的坐标查找数字
+         *
+         * @param tenths 坐标，单位0.1像素
+         * @return 数字0-9，没有映射时返回-1
+         */
+        int digitAt(int tenths) {
+            int index = tenths - minTenths;
+            return index >= 0 && index < digits.length ? digits[index] : -1;
+        }
+
+        boolean matches(String style, int idStart, int idEnd, int idHash) {
+            return hash == idHash && identifier.length() == idEnd - idStart
+                    && style.regionMatches(idStart, identifier, 0, identifier.length());
+        }
     }
 
 
     /**
      * 解码精灵图价格
      * <p>
-     * 使用精灵图映射解码价格，如果遇到未知精灵图则提示用户手动输入
+     * 使用精灵图映射解码价格，如果遇到未知精灵图则自动识别其数字顺序
      * </p>
      *
      * @param priceSpanData 价格span元素的样式数据列表，包含style属性
@@ -107,51 +203,173 @@ public class PriceSpriteDecoder {
             return null;
         }
 
-        StringBuilder price = new StringBuilder();
-
+        List<String> styles = new ArrayList<>(priceSpanData.size());
         for (Map<String, Object> spanData : priceSpanData) {
-            String style = (String) spanData.get("style");
-            if (style == null) {
-                continue;
-            }
+            styles.add((String) spanData.get("style"));
+        }
+        return decodePriceFromStyles(styles);
+    }
+
+    /**
+     * 按span的CSS样式字符串解码精灵图价格
+     * <p>
+     * 供批量提取模式使用：页面脚本一次性返回所有span的样式字符串，无需再包装成Map
+     * </p>
+     *
+     * @param styles 价格span的style字符串列表，按数字顺序排列
+     * @return 解码后的价格字符串，解码失败时返回null
+     */
+    public static String decodePriceFromStyles(List<String> styles) {
+        if (styles == null || styles.isEmpty()) {
+            return null;
+        }
 
-            // 1. 识别当前span的精灵图类型
-            String backgroundImage = getBackgroundImage(spanData);
-            String spriteId = null;
-            if (backgroundImage != null) {
-                spriteId = identifySpriteTypeFromBgImageUrl(backgroundImage);
+        StringBuilder price = new StringBuilder(styles.size());
+        for (int i = 0, size = styles.size(); i < size; i++) {
+            int digit = decodeDigit(styles.get(i), styles);
+            if (digit == FAIL) {
+                return null;
+            }
+            if (digit != SKIP) {
+                price.append((char) ('0' + digit));
             }
+        }
+
+        return !price.isEmpty() ? price.toString() : null;
+    }
 
-            // 2. 获取精灵图配置
-            SpriteConfig config = SPRITE_CONFIGS.get(spriteId);
-            if (config == null && spriteId != null) {
-                // 未知精灵图，提示用户手动输入
-                config = handleUnknownSprite(spriteId, backgroundImage);
-                if (config == null) {
-                    return null;
+    /**
+     * 按span的CSS样式字符串解码精灵图价格数值
+     * <p>
+     * 采集热路径使用：逐字符扫描样式、按整数坐标查表，已知精灵图的解码过程不产生任何对象。
+     * </p>
+     *
+     * @param styles 价格span的style字符串列表，按数字顺序排列
+     * @return 解码后的价格，解码失败时返回-1
+     */
+    public static long decodePriceValue(List<String> styles) {
+        if (styles == null) {
+            return -1;
+        }
+
+        long price = 0;
+        int digits = 0;
+        for (int i = 0, size = styles.size(); i < size; i++) {
+            int digit = decodeDigit(styles.get(i), styles);
+            if (digit == FAIL) {
+                return -1;
+            }
+            if (digit != SKIP) {
+                if (++digits > MAX_PRICE_DIGITS) {
+                    return -1;
                 }
+                price = price * 10 + digit;
             }
+        }
 
-            // 3. 解码当前span
-            if (config != null) {
-                String position = extractBackgroundPosition(style);
-                if (position != null) {
-                    String digit = config.getMapping().get(position);
-                    // 解决整数时，小数点后多余 .0 的问题
-                    if (digit == null) {
-                        digit = config.getMapping().get(position + ".0");
-                    }
-                    if (digit != null) {
-                        price.append(digit);
-                    } else {
-                        // 找不到映射
-                        return null;
-                    }
-                }
+        return digits > 0 ? price : -1;
+    }
+
+    /**
+     * 解码单个span
+     *
+     * @param style  span的CSS样式字符串
+     * @param styles 同一价格的全部span样式，遇到未知精灵图时用于推算数字间隔和校验识别结果
+     * @return 数字0-9；没有精灵图或坐标时返回 {@link #SKIP}；找不到映射时返回 {@link #FAIL}
+     */
+    private static int decodeDigit(String style, List<String> styles) {
+        if (style == null) {
+            return SKIP;
+        }
+
+        // 1. 识别当前span的精灵图类型
+        long idRange = scanSpriteId(style);
+        if (idRange < 0) {
+            return SKIP;
+        }
+        int idStart = (int) (idRange >>> 32);
+        int idEnd = (int) idRange;
+
+        // 2. 获取精灵图查找表
+        SpriteTable table = findTable(style, idStart, idEnd);
+        if (table == null) {
+            // 未知精灵图，自动识别
+            table = learnSprite(style, idStart, idEnd, styles);
+            if (table == null) {
+                return FAIL;
             }
         }
 
-        return !price.isEmpty() ? price.toString() : null;
+        // 3. 解码当前span
+        int tenths = scanPositionTenths(style);
+        if (tenths == NO_POSITION) {
+            return SKIP;
+        }
+        int digit = table.digitAt(tenths);
+        return digit >= 0 ? digit : FAIL;
+    }
+
+    private static SpriteTable findTable(String style, int idStart, int idEnd) {
+        int idHash = 0;
+        for (int i = idStart; i < idEnd; i++) {
+            idHash = 31 * idHash + style.charAt(i);
+        }
+
+        for (SpriteTable table : SpriteRegistry.getInstance().tables()) {
+            if (table.matches(style, idStart, idEnd, idHash)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 遇到未知精灵图时走慢路径：提取完整URL并自动识别
+     */
+    private static SpriteTable learnSprite(String style, int idStart, int idEnd, List<String> styles) {
+        String spriteId = style.substring(idStart, idEnd);
+        // 冷却期内的失败精灵图直接放弃，不进入识别锁
+        if (recentlyFailed(spriteId, Instant.now())) {
+            return null;
+        }
+        int[] positions = observedPositions(spriteId, styles);
+        boolean wholePrice = positions.length == countSpriteSpans(styles);
+        SpriteConfig config = handleUnknownSprite(spriteId, extractBackgroundImage(style), positions, wholePrice);
+        return config != null ? findTable(style, idStart, idEnd) : null;
+    }
+
+    /**
+     * 价格中使用指定精灵图的span坐标（单位0.1像素），按span顺序排列
+     */
+    private static int[] observedPositions(String spriteId, List<String> styles) {
+        int[] positions = new int[styles.size()];
+        int count = 0;
+        for (String style : styles) {
+            long idRange = style != null ? scanSpriteId(style) : -1;
+            if (idRange < 0) {
+                continue;
+            }
+            int idStart = (int) (idRange >>> 32);
+            int idEnd = (int) idRange;
+            if (idEnd - idStart != spriteId.length() || !style.regionMatches(idStart, spriteId, 0, spriteId.length())) {
+                continue;
+            }
+            int tenths = scanPositionTenths(style);
+            if (tenths != NO_POSITION) {
+                positions[count++] = tenths;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private static int countSpriteSpans(List<String> styles) {
+        int count = 0;
+        for (String style : styles) {
+            if (style != null && scanSpriteId(style) >= 0 && scanPositionTenths(style) != NO_POSITION) {
+                count++;
+            }
+        }
+        return count;
     }
 
 
@@ -168,9 +386,10 @@ public class PriceSpriteDecoder {
         }
 
         for (Map<String, Object> spanData : priceSpanData) {
-            String spriteId = identifySpriteTypeFromSingle(spanData);
-            if (spriteId != null) {
-                return spriteId;
+            String style = (String) spanData.get("style");
+            long idRange = style != null ? scanSpriteId(style) : -1;
+            if (idRange >= 0) {
+                return style.substring((int) (idRange >>> 32), (int) idRange);
             }
         }
 
@@ -178,83 +397,167 @@ public class PriceSpriteDecoder {
     }
 
     /**
-     * 从单个span数据识别精灵图类型
+     * 扫描background-image中的精灵图标识符（URL文件名去掉后缀）
      *
-     * @param spanData 单个span的样式数据
-     * @return 精灵图标识符，如果无法识别返回null
+     * @param style CSS样式字符串
+     * @return 标识符在style中的区间，高32位为起始下标，低32位为结束下标；未找到时返回-1
      */
-    private static String identifySpriteTypeFromSingle(Map<String, Object> spanData) {
-        String backgroundImage = getBackgroundImage(spanData);
-        if (backgroundImage == null) {
-            return null;
-        }
-        return identifySpriteTypeFromBgImageUrl(backgroundImage);
-    }
-
-    private static String identifySpriteTypeFromBgImageUrl(String backgroundImage) {
-        // 根据URL中的关键字识别精灵图类型
-        // 从URL中提取文件名（不包括后缀）作为标识符
-        String fileName = backgroundImage.substring(backgroundImage.lastIndexOf('/') + 1);
-        if (fileName.contains(".")) {
-            return fileName.substring(0, fileName.lastIndexOf('.'));
+    static long scanSpriteId(String style) {
+        int start = findUrlStart(style);
+        if (start < 0) {
+            return -1;
         }
-        return null;
-    }
-
-    private static String getBackgroundImage(Map<String, Object> spanData) {
-        String style = (String) spanData.get("style");
-        if (style == null) {
-            return null;
-        }
-
-        // 提取背景图片URL
-        String backgroundImage = extractBackgroundImage(style);
-        if (backgroundImage != null) {
-            return backgroundImage.startsWith("https:") ? backgroundImage : ("https:" + backgroundImage);
+        int end = findUrlEnd(style, start);
+        int idStart = Math.max(style.lastIndexOf('/', end - 1) + 1, start);
+        int dot = style.lastIndexOf('.', end - 1);
+        if (dot <= idStart) {
+            return -1;
         }
-        return null;
+        return ((long) idStart << 32) | dot;
     }
 
     /**
-     * 从CSS样式中提取背景图片URL
+     * 从CSS样式中提取背景图片URL，协议相对地址补全为https
      *
      * @param style CSS样式字符串
      * @return 背景图片URL，未找到时返回null
      */
     private static String extractBackgroundImage(String style) {
-        Pattern pattern = Pattern.compile("background-image:\\s*url\\(([^)]+)\\)");
-        Matcher matcher = pattern.matcher(style);
+        int start = findUrlStart(style);
+        if (start < 0) {
+            return null;
+        }
+        int end = findUrlEnd(style, start);
+        String url = style.substring(start, end);
+        return url.startsWith("//") ? "https:" + url : url;
+    }
 
-        if (matcher.find()) {
-            String url = matcher.group(1);
-            // 清理引号
-            return url.replaceAll("[\"']", "");
+    /**
+     * 定位 background-image: url(...) 中URL的起始下标（已跳过引号和空白）
+     */
+    private static int findUrlStart(String style) {
+        int property = style.indexOf(BACKGROUND_IMAGE);
+        if (property < 0) {
+            return -1;
+        }
+        int i = skipWhitespace(style, property + BACKGROUND_IMAGE.length());
+        if (i >= style.length() || style.charAt(i) != ':') {
+            return -1;
+        }
+        i = skipWhitespace(style, i + 1);
+        if (!style.startsWith("url(", i)) {
+            return -1;
         }
+        i += 4;
+        int close = style.indexOf(')', i);
+        if (close < 0) {
+            return -1;
+        }
+        while (i < close && isQuoteOrSpace(style.charAt(i))) {
+            i++;
+        }
+        return i < close ? i : -1;
+    }
 
-        return null;
+    /**
+     * 定位URL的结束下标（不含结尾的引号和空白）
+     */
+    private static int findUrlEnd(String style, int start) {
+        int end = style.indexOf(')', start);
+        while (end > start && isQuoteOrSpace(style.charAt(end - 1))) {
+            end--;
+        }
+        return end;
     }
 
     /**
      * 从CSS样式字符串中提取background-position的X坐标值
      * <p>
      * 解析类似 "background-position: -149.8px center;" 的样式字符串，
-     * 提取其中的X坐标值并转换为纯数字格式用于映射查找。
+     * X坐标量化为0.1像素的整数，如 -149.8px 返回 -1498。
      * </p>
      *
      * @param style CSS样式字符串
-     * @return 提取到的X坐标值（纯数字格式），未找到时返回null
+     * @return X坐标（单位0.1像素），未找到时返回 {@link Integer#MIN_VALUE}
      */
-    private static String extractBackgroundPosition(String style) {
-        // 匹配 background-position: -149.8px center 或 background-position: -149.8px 0px
-        Pattern pattern = Pattern.compile("background-position:\\s*(-?\\d+(?:\\.\\d+)?)px");
-        Matcher matcher = pattern.matcher(style);
+    static int scanPositionTenths(String style) {
+        int property = style.indexOf(BACKGROUND_POSITION);
+        if (property < 0) {
+            return NO_POSITION;
+        }
+        int i = skipWhitespace(style, property + BACKGROUND_POSITION.length());
+        if (i >= style.length() || style.charAt(i) != ':') {
+            return NO_POSITION;
+        }
+        return parseTenths(style, skipWhitespace(style, i + 1), true);
+    }
 
-        if (matcher.find()) {
-            // 返回纯数字格式，去掉px后缀
-            return matcher.group(1);
+    /**
+     * 把十进制坐标解析为0.1像素的整数，第二位小数四舍五入
+     *
+     * @param text      文本
+     * @param from      数字起始下标
+     * @param requirePx 是否要求数字后紧跟px单位
+     * @return 坐标（单位0.1像素），格式不正确时返回 {@link Integer#MIN_VALUE}
+     */
+    static int parseTenths(String text, int from, boolean requirePx) {
+        int length = text.length();
+        int i = from;
+        boolean negative = i < length && text.charAt(i) == '-';
+        if (negative) {
+            i++;
         }
 
-        return null;
+        int integerStart = i;
+        int tenths = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            if (tenths > 100_000_000) {
+                return NO_POSITION;
+            }
+            tenths = tenths * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+        if (i == integerStart) {
+            return NO_POSITION;
+        }
+        tenths *= 10;
+
+        if (i < length && text.charAt(i) == '.') {
+            int fractionStart = ++i;
+            if (i < length && isDigit(text.charAt(i))) {
+                tenths += text.charAt(i++) - '0';
+            }
+            if (i < length && isDigit(text.charAt(i)) && text.charAt(i) >= '5') {
+                tenths++;
+            }
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == fractionStart) {
+                return NO_POSITION;
+            }
+        }
+
+        if (requirePx ? !text.startsWith("px", i) : i != length) {
+            return NO_POSITION;
+        }
+        return negative ? -tenths : tenths;
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isQuoteOrSpace(char c) {
+        return c == '"' || c == '\'' || Character.isWhitespace(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
     /**
@@ -280,53 +583,88 @@ public class PriceSpriteDecoder {
         }
     }
 
-
     /**
-     * 扫描并加载资源目录下的所有精灵图配置文件
+     * 验证解码后的价格数值是否合理
+     *
+     * @param price 价格，解码失败时为-1
+     * @return 价格合理返回true，否则返回false
      */
-    private static void scanAndLoadSpriteConfigs() {
-        Resource[] classPathAllResources = Resources.getClassPathAllResources("META-INF/sprite/*.json");
-        for (Resource resource : classPathAllResources) {
-            try (InputStream is = resource.getInputStream()) {
-                String jsonContent = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-                SpriteConfig config = JSON.parseObject(jsonContent, SpriteConfig.class);
-
-
-                SPRITE_CONFIGS.put(config.getIdentifier(), config);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
+    public static boolean isValidPrice(long price) {
+        // 租房合理价格范围：100-500000元/月
+        return price >= 100 && price <= 500000;
     }
 
+
     /**
-     * 处理未知精灵图，提示用户手动输入数据
+     * 处理未知精灵图，自动识别精灵图数字顺序并生成配置<br>
+     * 数字间隔由页面上观察到的坐标推算；生成的映射必须能解码当前价格的全部坐标
+     * （价格只使用这一张精灵图时还要求价格合理）才会发布并保存；
+     * 识别失败的精灵图记录失败时间，冷却期 {@link #FAILED_SPRITE_COOLDOWN} 内直接返回失败<br>
+     * 并发采集时多个线程可能同时遇到同一张新精灵图，加锁保证只识别一次
+     *
+     * @param positions  当前价格中使用该精灵图的span坐标（单位0.1像素）
+     * @param wholePrice 当前价格是否只使用这一张精灵图
      */
-    private static SpriteConfig handleUnknownSprite(String spriteId, String backgroundImage) {
+    private static synchronized SpriteConfig handleUnknownSprite(String spriteId, String backgroundImage,
+                                                                 int[] positions, boolean wholePrice) {
         if (spriteId == null) {
             System.err.println("无法识别的精灵图类型！");
             return null;
         }
 
+        // 其他线程可能已经识别完成
+        SpriteRegistry registry = SpriteRegistry.getInstance();
+        SpriteConfig existing = registry.get(spriteId);
+        if (existing != null) {
+            return existing;
+        }
+
+        // 其他线程可能刚识别失败
+        if (recentlyFailed(spriteId, Instant.now())) {
+            return null;
+        }
+
         // 检测是否为测试环境
         if (isTestEnvironment()) {
             return null;
         }
 
-        System.out.println("发现未知精灵图: " + backgroundImage);
-        System.out.println("请手动输入以下信息：");
+        SpriteConfig config = recognizeSprite(spriteId, backgroundImage, positions, wholePrice);
+        if (config == null) {
+            recordFailure(spriteId, Instant.now());
+            return null;
+        }
 
-        Scanner scanner = new Scanner(System.in);
+        // 发布配置并保存到精灵图目录
+        registry.register(config);
+        registry.persist(config);
 
-        // 获取用户输入
-        System.out.print("像素间隔 (px): ");
-        double pixelInterval = Double.parseDouble(scanner.nextLine().trim());
+        return config;
+    }
 
-        System.out.print("数字顺序 (10位数字按出现顺序): ");
-        String digitOrder = scanner.nextLine().trim();
+    /**
+     * 下载并识别精灵图，生成通过当前价格校验的配置
+     *
+     * @return 识别或校验失败时返回null
+     */
+    private static SpriteConfig recognizeSprite(String spriteId, String backgroundImage,
+                                                int[] positions, boolean wholePrice) {
+        System.out.println("发现未知精灵图: " + backgroundImage + "，开始自动识别...");
+        String digitOrder = SpriteDigitRecognizer.recognize(spriteId, backgroundImage);
+        if (digitOrder == null) {
+            System.err.println("精灵图自动识别失败: " + backgroundImage);
+            return null;
+        }
+
+        double pixelInterval = inferPixelInterval(positions, AppConfig.getInstance().getSpritePixelInterval());
+        if (Double.isNaN(pixelInterval)) {
+            System.err.println("精灵图坐标无法对应到等间隔的数字，放弃识别结果: " + spriteId + " " + Arrays.toString(positions));
+            return null;
+        }
+        System.out.println("精灵图识别成功: " + spriteId + "，数字顺序: " + digitOrder + "，像素间隔: " + pixelInterval);
 
         // 生成映射关系
-        Map<String, String> mapping = generateMapping(digitOrder, pixelInterval);
+        Map<String, String> mapping = generateMapping(digitOrder, pixelInterval, positions);
 
         // 创建配置对象
         SpriteConfig config = new SpriteConfig();
@@ -336,12 +674,50 @@ public class PriceSpriteDecoder {
         config.setDigitOrder(digitOrder);
         config.setMapping(mapping);
 
-        // 缓存配置
-        SPRITE_CONFIGS.put(spriteId, config);
+        // 用当前价格校验映射，未能解码的配置不发布也不保存
+        long price = decodePositions(new SpriteTable(config), positions);
+        if (price < 0 || (wholePrice && !isValidPrice(price))) {
+            System.err.println("精灵图识别结果无法解码当前价格，不保存: " + spriteId + " " + Arrays.toString(positions));
+            return null;
+        }
+        return config;
+    }
 
-        saveSpriteConfig(config);
+    /**
+     * 精灵图是否在失败冷却期内，过期的失败记录顺便移除
+     */
+    static boolean recentlyFailed(String spriteId, Instant now) {
+        Instant failedAt = FAILED_SPRITES.get(spriteId);
+        if (failedAt == null) {
+            return false;
+        }
+        if (failedAt.plus(FAILED_SPRITE_COOLDOWN).isAfter(now)) {
+            return true;
+        }
+        FAILED_SPRITES.remove(spriteId, failedAt);
+        return false;
+    }
 
-        return config;
+    /**
+     * 记录识别失败，记录满时先清理过期条目，仍然满则淘汰最早的失败记录
+     */
+    static void recordFailure(String spriteId, Instant now) {
+        if (FAILED_SPRITES.size() >= MAX_FAILED_SPRITES) {
+            FAILED_SPRITES.values().removeIf(failedAt -> !failedAt.plus(FAILED_SPRITE_COOLDOWN).isAfter(now));
+            if (FAILED_SPRITES.size() >= MAX_FAILED_SPRITES) {
+                FAILED_SPRITES.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .ifPresent(oldest -> FAILED_SPRITES.remove(oldest.getKey(), oldest.getValue()));
+            }
+        }
+        FAILED_SPRITES.put(spriteId, now);
+    }
+
+    /**
+     * 失败记录条数
+     */
+    static int failedSpriteCount() {
+        return FAILED_SPRITES.size();
     }
 
     /**
@@ -370,42 +746,95 @@ public class PriceSpriteDecoder {
     }
 
     /**
-     * 根据数字顺序和像素间隔生成映射关系
+     * 根据观察到的坐标推算精灵图的数字间隔<br>
+     * 坐标都应是 -k × 间隔（k为0-9）：以每个非零坐标除以1-9作为候选间隔，保留能让全部坐标对齐的候选，
+     * 有多个候选时取最接近默认间隔的一个
+     *
+     * @param positions 坐标，单位0.1像素
+     * @param preferred 默认间隔（像素），没有非零坐标时直接使用
+     * @return 间隔（像素），保留两位小数；坐标无法对齐到任何间隔时返回NaN
      */
-    private static Map<String, String> generateMapping(String digitOrder, double pixelInterval) {
-        Map<String, String> mapping = new LinkedHashMap<>();
+    static double inferPixelInterval(int[] positions, double preferred) {
+        double best = Double.NaN;
+        boolean hasOffset = false;
+        for (int position : positions) {
+            if (position >= 0) {
+                continue;
+            }
+            hasOffset = true;
+            for (int k = 1; k < DIGIT_COUNT; k++) {
+                double candidate = -position / 10.0 / k;
+                if (candidate >= MIN_PIXEL_INTERVAL && fitsInterval(positions, candidate)
+                        && (Double.isNaN(best) || Math.abs(candidate - preferred) < Math.abs(best - preferred))) {
+                    best = candidate;
+                }
+            }
+        }
+        if (!hasOffset) {
+            return fitsInterval(positions, preferred) ? preferred : Double.NaN;
+        }
+        return Double.isNaN(best) ? best : Math.round(best * 100) / 100.0;
+    }
 
-        for (int i = 0; i < digitOrder.length() && i < 10; i++) {
-            String position = (i == 0) ? "0" : String.format("%.1f", -i * pixelInterval);
-            String digit = String.valueOf(digitOrder.charAt(i));
-            mapping.put(position, digit);
+    private static boolean fitsInterval(int[] positions, double interval) {
+        for (int position : positions) {
+            double offset = -position / 10.0;
+            long cell = Math.round(offset / interval);
+            if (offset < 0 || cell >= DIGIT_COUNT || Math.abs(offset - cell * interval) > POSITION_TOLERANCE) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        return mapping;
+    /**
+     * 按查找表解码坐标序列
+     *
+     * @return 价格，有坐标没有对应数字或没有坐标时返回-1
+     */
+    private static long decodePositions(SpriteTable table, int[] positions) {
+        if (positions.length == 0 || positions.length > MAX_PRICE_DIGITS) {
+            return -1;
+        }
+        long price = 0;
+        for (int position : positions) {
+            int digit = table.digitAt(position);
+            if (digit < 0) {
+                return -1;
+            }
+            price = price * 10 + digit;
+        }
+        return price;
     }
 
     /**
-     * 保存精灵图配置到文件
+     * 根据数字顺序和像素间隔生成映射关系<br>
+     * 页面上实际出现过的坐标以观察值为准，避免间隔舍入造成对不上
      */
-    private static void saveSpriteConfig(SpriteConfig config) {
-        try {
-            // 获取资源目录的物理路径
-            String userDir = System.getProperty("user.dir");
-            Path spritePath = Paths.get(userDir, "src", "main", "resources", "META-INF", "sprite");
+    static Map<String, String> generateMapping(String digitOrder, double pixelInterval, int[] positions) {
+        Map<String, String> mapping = new LinkedHashMap<>();
 
-            // 确保目录存在
-            if (!Files.exists(spritePath)) {
-                Files.createDirectories(spritePath);
+        for (int i = 0; i < digitOrder.length() && i < DIGIT_COUNT; i++) {
+            mapping.put(formatTenths(-(int) Math.round(i * pixelInterval * 10)), String.valueOf(digitOrder.charAt(i)));
+        }
+        for (int position : positions) {
+            int cell = (int) Math.round(-position / 10.0 / pixelInterval);
+            if (cell >= 0 && cell < digitOrder.length()) {
+                mapping.put(formatTenths(position), String.valueOf(digitOrder.charAt(cell)));
             }
+        }
 
-            // 保存JSON文件
-            Path configFile = spritePath.resolve(config.getIdentifier() + ".json");
-            String jsonContent = JSON.toJSONString(config, JSONWriter.Feature.PrettyFormat);
-            Files.writeString(configFile, jsonContent);
+        return mapping;
+    }
 
-            System.out.println("精灵图配置已保存到: " + configFile);
-        } catch (IOException e) {
-            System.err.println("保存精灵图配置失败: " + e.getMessage());
+    /**
+     * 把0.1像素的整数坐标格式化为映射中的坐标，如 -1070 格式化为 -107.0
+     */
+    private static String formatTenths(int tenths) {
+        if (tenths == 0) {
+            return "0";
         }
+        int abs = Math.abs(tenths);
+        return (tenths < 0 ? "-" : "") + abs / 10 + "." + abs % 10;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,286 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import java.util.Arrays;
+
+/**
+ * 流式分位数估计器（t-digest）<br>
+ * 按double逐个添加数据，不装箱、不保留全部数据，内存占用与压缩参数相关而与数据量无关<br>
+ * 数据量不超过精确容量时保存原始值，分位数与按排序数据线性插值的结果完全一致；
+ * 超过后把数据压缩为若干质心，两端的质心更小，分位数在两端更精确<br>
+ * 多个估计器可以合并，用于跨站点或全市范围的分位数统计<br>
+ * 非线程安全
+ *
+ * @author xuanyuanli
+ */
+public final class QuantileSketch {
+
+    /**
+     * 默认压缩参数，质心数量约为此值
+     */
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    /**
+     * 默认精确容量，单个站点的样本数通常远小于此值
+     */
+    public static final int DEFAULT_EXACT_CAPACITY = 512;
+
+    private final double compression;
+    private final double[] buffer;
+    private int bufferSize;
+
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroidCount;
+
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION, DEFAULT_EXACT_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param compression   压缩参数，越大越精确
+     * @param exactCapacity 精确容量，也是待压缩缓冲区的大小
+     */
+    public QuantileSketch(int compression, int exactCapacity) {
+        if (compression < 10 || exactCapacity < 1) {
+            throw new IllegalArgumentException("压缩参数不能小于10，精确容量必须大于0");
+        }
+        this.compression = compression;
+        this.buffer = new double[exactCapacity];
+    }
+
+    /**
+     * 添加一个数据，NaN会被忽略
+     *
+     * @param value 数据
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferSize == buffer.length) {
+            flush();
+        }
+        buffer[bufferSize++] = value;
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    /**
+     * 合并另一个估计器的数据，另一个估计器不会被修改
+     *
+     * @param other 另一个估计器
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        // 双方都还是原始值且放得下时保持精确
+        if (isExact() && other.isExact() && bufferSize + other.bufferSize <= buffer.length) {
+            for (int i = 0; i < other.bufferSize; i++) {
+                add(other.buffer[i]);
+            }
+            return;
+        }
+
+        double[][] self = sortedCentroids();
+        double[][] incoming = other.sortedCentroids();
+        double[][] merged = mergeSorted(self[0], self[1], incoming[0], incoming[1]);
+        compress(merged[0], merged[1]);
+        bufferSize = 0;
+
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+    }
+
+    /**
+     * 估计分位数<br>
+     * 把数据排序后的下标范围 [0, n-1] 按比例取位置，在相邻值之间线性插值
+     *
+     * @param q 分位数 (0.0 到 1.0)
+     * @return 分位数对应的值，没有数据时返回NaN
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("分位数必须在0到1之间: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double index = q * (count - 1);
+
+        if (isExact()) {
+            Arrays.sort(buffer, 0, bufferSize);
+            int lowerIndex = (int) Math.floor(index);
+            int upperIndex = (int) Math.ceil(index);
+            if (lowerIndex == upperIndex) {
+                return buffer[lowerIndex];
+            }
+            double weight = index - lowerIndex;
+            return buffer[lowerIndex] * (1 - weight) + buffer[upperIndex] * weight;
+        }
+
+        flush();
+        // 每个质心位于它所覆盖下标的中点，最小值和最大值分别位于两端
+        double previousRank = 0;
+        double previousValue = min;
+        double weightSoFar = 0;
+        for (int i = 0; i < centroidCount; i++) {
+            double rank = weightSoFar + (weights[i] - 1) / 2;
+            if (index <= rank) {
+                return interpolate(previousRank, previousValue, rank, means[i], index);
+            }
+            previousRank = rank;
+            previousValue = means[i];
+            weightSoFar += weights[i];
+        }
+        return interpolate(previousRank, previousValue, count - 1, max, index);
+    }
+
+    /**
+     * 按四分位数间距(IQR)计算异常值边界
+     *
+     * @param factor IQR倍数，通常为1.5
+     * @return [下界, 上界]，没有数据时为 [NaN, NaN]
+     */
+    public double[] iqrBounds(double factor) {
+        double q1 = quantile(0.25);
+        double q3 = quantile(0.75);
+        double iqr = q3 - q1;
+        return new double[]{q1 - factor * iqr, q3 + factor * iqr};
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    /**
+     * 是否仍然保存全部原始值
+     */
+    boolean isExact() {
+        return centroidCount == 0;
+    }
+
+    int centroidCount() {
+        flush();
+        return centroidCount;
+    }
+
+    /**
+     * 把缓冲区中的原始值压缩进质心
+     */
+    private void flush() {
+        if (bufferSize == 0) {
+            return;
+        }
+        double[][] sorted = sortedCentroids();
+        compress(sorted[0], sorted[1]);
+        bufferSize = 0;
+    }
+
+    /**
+     * 当前数据按均值排序后的质心序列（原始值视为权重1的质心），不修改当前状态
+     */
+    private double[][] sortedCentroids() {
+        double[] values = Arrays.copyOf(buffer, bufferSize);
+        Arrays.sort(values);
+        double[] ones = new double[bufferSize];
+        Arrays.fill(ones, 1);
+        return mergeSorted(Arrays.copyOf(means, centroidCount), Arrays.copyOf(weights, centroidCount), values, ones);
+    }
+
+    /**
+     * 合并两个按均值排序的质心序列
+     */
+    private static double[][] mergeSorted(double[] leftMeans, double[] leftWeights,
+                                          double[] rightMeans, double[] rightWeights) {
+        int total = leftMeans.length + rightMeans.length;
+        double[] mergedMeans = new double[total];
+        double[] mergedWeights = new double[total];
+        int i = 0, j = 0;
+        for (int k = 0; k < total; k++) {
+            if (j >= rightMeans.length || (i < leftMeans.length && leftMeans[i] <= rightMeans[j])) {
+                mergedMeans[k] = leftMeans[i];
+                mergedWeights[k] = leftWeights[i++];
+            } else {
+                mergedMeans[k] = rightMeans[j];
+                mergedWeights[k] = rightWeights[j++];
+            }
+        }
+        return new double[][]{mergedMeans, mergedWeights};
+    }
+
+    /**
+     * 按k1尺度函数把排序后的质心序列合并为新的质心<br>
+     * 每个质心覆盖的分位数范围在尺度空间上不超过1，越靠近两端允许的范围越小
+     */
+    private void compress(double[] sortedMeans, double[] sortedWeights) {
+        double totalWeight = 0;
+        for (double weight : sortedWeights) {
+            totalWeight += weight;
+        }
+        double[] newMeans = new double[sortedMeans.length];
+        double[] newWeights = new double[sortedMeans.length];
+        int newCount = 0;
+
+        double weightSoFar = 0;
+        double qLimit = qOfK(kOfQ(0) + 1);
+        double currentMean = sortedMeans.length > 0 ? sortedMeans[0] : 0;
+        double currentWeight = sortedMeans.length > 0 ? sortedWeights[0] : 0;
+        for (int i = 1; i < sortedMeans.length; i++) {
+            double proposed = weightSoFar + currentWeight + sortedWeights[i];
+            if (proposed / totalWeight <= qLimit) {
+                currentWeight += sortedWeights[i];
+                currentMean += (sortedMeans[i] - currentMean) * sortedWeights[i] / currentWeight;
+            } else {
+                newMeans[newCount] = currentMean;
+                newWeights[newCount++] = currentWeight;
+                weightSoFar += currentWeight;
+                qLimit = qOfK(kOfQ(weightSoFar / totalWeight) + 1);
+                currentMean = sortedMeans[i];
+                currentWeight = sortedWeights[i];
+            }
+        }
+        if (currentWeight > 0) {
+            newMeans[newCount] = currentMean;
+            newWeights[newCount++] = currentWeight;
+        }
+
+        means = Arrays.copyOf(newMeans, newCount);
+        weights = Arrays.copyOf(newWeights, newCount);
+        centroidCount = newCount;
+    }
+
+    private double kOfQ(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double qOfK(double k) {
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private static double interpolate(double x0, double y0, double x1, double y1, double x) {
+        if (x1 <= x0) {
+            return y1;
+        }
+        return y0 + (y1 - y0) * (x - x0) / (x1 - x0);
+    }
+}
@@ -0,0 +1,79 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器<br>
+ * 按固定速率生成令牌，桶满时最多允许burst个请求立即通过<br>
+ * 令牌不足时按预约顺序排队等待，多个线程共享同一个限流器时总速率不超过设定值
+ *
+ * @author xuanyuanli
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private final double burst;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * 构造函数
+     *
+     * @param permitsPerSecond 每秒生成的令牌数
+     * @param burst            令牌桶容量，即允许的突发请求数
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond必须大于0: " + permitsPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时阻塞等待
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 尝试获取一个令牌，不等待
+     *
+     * @return 获取成功返回true
+     */
+    public synchronized boolean tryAcquire() {
+        refill(System.nanoTime());
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 预约一个令牌，令牌不足时记为欠账，由调用方在锁外等待
+     *
+     * @return 需要等待的纳秒数
+     */
+    private synchronized long reserve() {
+        refill(System.nanoTime());
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens * intervalNanos);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + (double) elapsed / intervalNanos);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.Tesseract;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 精灵图数字离线识别器
+ * <p>
+ * 将价格精灵图按10等分切成数字字形，每个字形按墨迹（透明度或与背景的亮度差）
+ * 裁剪、等比缩放到固定网格后，与内置参考字形模板逐一比对，得到精灵图中的数字顺序。
+ * 模板匹配把握不足的字形可回退到tess4j识别（需配置tessdata目录）。
+ * </p>
+ *
+ * <p>识别结果必须是0-9各出现一次的排列，否则视为识别失败。</p>
+ *
+ * @author xuanyuanli
+ * @since 1.0.0
+ */
+public final class SpriteDigitRecognizer {
+
+    /**
+     * 参考字形模板资源路径
+     */
+    private static final String TEMPLATE_RESOURCE = "META-INF/glyph/digit-templates.json";
+
+    /**
+     * 精灵图中的数字个数
+     */
+    static final int DIGIT_COUNT = 10;
+
+    /**
+     * 字形归一化网格宽度
+     */
+    static final int GRID_WIDTH = 12;
+
+    /**
+     * 字形归一化网格高度
+     */
+    static final int GRID_HEIGHT = 16;
+
+    /**
+     * 墨迹阈值，低于此值的像素视为背景
+     */
+    private static final double INK_THRESHOLD = 0.25;
+
+    /**
+     * 模板匹配可接受的最大均方差，超过时尝试OCR回退
+     */
+    private static final double MAX_DISTANCE = 0.03;
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static volatile List<GlyphTemplate> templates;
+
+    private SpriteDigitRecognizer() {
+        // 工具类不应被实例化
+    }
+
+    /**
+     * 参考字形模板
+     */
+    static final class GlyphTemplate {
+        private final char digit;
+        private final double[] pixels;
+
+        GlyphTemplate(char digit, double[] pixels) {
+            this.digit = digit;
+            this.pixels = pixels;
+        }
+
+        char getDigit() {
+            return digit;
+        }
+
+        double[] getPixels() {
+            return pixels;
+        }
+    }
+
+    /**
+     * 识别精灵图的数字顺序
+     * <p>
+     * 优先读取配置的本地精灵图目录中的 {spriteId}.png，不存在时从imageUrl下载。
+     * </p>
+     *
+     * @param spriteId 精灵图标识符
+     * @param imageUrl 精灵图URL
+     * @return 10位数字顺序，识别失败时返回null
+     */
+    public static String recognize(String spriteId, String imageUrl) {
+        try {
+            BufferedImage image = loadImage(spriteId, imageUrl);
+            if (image == null) {
+                System.err.println("无法读取精灵图图片: " + imageUrl);
+                return null;
+            }
+            return recognize(image);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("读取精灵图图片失败: " + imageUrl + ", " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 识别精灵图图片中的数字顺序
+     *
+     * @param image 精灵图图片
+     * @return 10位数字顺序，识别失败时返回null
+     */
+    public static String recognize(BufferedImage image) {
+        double[][] glyphs = extractGlyphs(image);
+        List<GlyphTemplate> glyphTemplates = getTemplates();
+
+        // 计算每个字形与每个数字的最小距离
+        double[][] distances = new double[DIGIT_COUNT][DIGIT_COUNT];
+        for (double[] row : distances) {
+            Arrays.fill(row, Double.MAX_VALUE);
+        }
+        for (int cell = 0; cell < DIGIT_COUNT; cell++) {
+            for (GlyphTemplate template : glyphTemplates) {
+                int digit = template.getDigit() - '0';
+                distances[cell][digit] = Math.min(distances[cell][digit], distance(glyphs[cell], template.getPixels()));
+            }
+        }
+
+        char[] order = assignDigits(distances);
+
+        // 模板匹配把握不足的字形，尝试OCR回退
+        for (int cell = 0; cell < DIGIT_COUNT; cell++) {
+            int digit = order[cell] - '0';
+            if (distances[cell][digit] > MAX_DISTANCE) {
+                Character ocrDigit = recognizeWithOcr(image, cell);
+                if (ocrDigit == null) {
+                    System.err.println("精灵图第" + (cell + 1) + "个数字识别不可靠，距离: " + String.format("%.4f", distances[cell][digit]));
+                    return null;
+                }
+                order[cell] = ocrDigit;
+            }
+        }
+
+        boolean[] used = new boolean[DIGIT_COUNT];
+        for (char c : order) {
+            if (used[c - '0']) {
+                System.err.println("精灵图识别结果存在重复数字: " + new String(order));
+                return null;
+            }
+            used[c - '0'] = true;
+        }
+        return new String(order);
+    }
+
+    /**
+     * 按距离从小到大贪心分配，保证每个数字只分配给一个字形
+     */
+    private static char[] assignDigits(double[][] distances) {
+        List<int[]> pairs = new ArrayList<>(DIGIT_COUNT * DIGIT_COUNT);
+        for (int cell = 0; cell < DIGIT_COUNT; cell++) {
+            for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+                pairs.add(new int[]{cell, digit});
+            }
+        }
+        pairs.sort((a, b) -> Double.compare(distances[a[0]][a[1]], distances[b[0]][b[1]]));
+
+        char[] order = new char[DIGIT_COUNT];
+        boolean[] cellAssigned = new boolean[DIGIT_COUNT];
+        boolean[] digitAssigned = new boolean[DIGIT_COUNT];
+        for (int[] pair : pairs) {
+            if (!cellAssigned[pair[0]] && !digitAssigned[pair[1]]) {
+                order[pair[0]] = (char) ('0' + pair[1]);
+                cellAssigned[pair[0]] = true;
+                digitAssigned[pair[1]] = true;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 把精灵图切分为10个字形，并归一化到固定网格
+     *
+     * @param image 精灵图图片
+     * @return 每个字形的墨迹网格，取值0-1
+     */
+    static double[][] extractGlyphs(BufferedImage image) {
+        double[][] ink = inkMap(image);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double cellWidth = width / (double) DIGIT_COUNT;
+
+        double[][] glyphs = new double[DIGIT_COUNT][];
+        for (int cell = 0; cell < DIGIT_COUNT; cell++) {
+            int x0 = (int) Math.round(cell * cellWidth);
+            int x1 = (int) Math.round((cell + 1) * cellWidth);
+            glyphs[cell] = normalizeGlyph(ink, x0, x1, height);
+        }
+        return glyphs;
+    }
+
+    /**
+     * 计算每个像素的墨迹浓度<br>
+     * 带透明背景的图片使用透明度，否则使用与背景（四角平均亮度）的亮度差，结果归一化到0-1
+     */
+    private static double[][] inkMap(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean useAlpha = image.getColorModel().hasAlpha() && (image.getRGB(0, 0) >>> 24) < 128;
+        double background = (luminance(image.getRGB(0, 0)) + luminance(image.getRGB(width - 1, 0))
+                + luminance(image.getRGB(0, height - 1)) + luminance(image.getRGB(width - 1, height - 1))) / 4;
+
+        double[][] ink = new double[height][width];
+        double maxInk = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = image.getRGB(x, y);
+                ink[y][x] = useAlpha ? (argb >>> 24) / 255.0 : Math.abs(luminance(argb) - background) / 255.0;
+                maxInk = Math.max(maxInk, ink[y][x]);
+            }
+        }
+
+        // 按最大墨迹归一化，消除字形颜色与背景对比度不同的影响
+        if (maxInk > 0) {
+            for (double[] row : ink) {
+                for (int x = 0; x < width; x++) {
+                    row[x] /= maxInk;
+                }
+            }
+        }
+        return ink;
+    }
+
+    private static double luminance(int argb) {
+        int r = (argb >> 16) & 0xff;
+        int g = (argb >> 8) & 0xff;
+        int b = argb & 0xff;
+        return 0.299 * r + 0.587 * g + 0.114 * b;
+    }
+
+    /**
+     * 裁剪字形墨迹包围盒，等比缩放后居中放入GRID_WIDTH x GRID_HEIGHT网格
+     */
+    private static double[] normalizeGlyph(double[][] ink, int x0, int x1, int height) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = x0; x < x1; x++) {
+                if (ink[y][x] >= INK_THRESHOLD) {
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+
+        double[] grid = new double[GRID_WIDTH * GRID_HEIGHT];
+        if (maxX < 0) {
+            return grid;
+        }
+
+        double boxWidth = maxX - minX + 1;
+        double boxHeight = maxY - minY + 1;
+        double scale = Math.max(boxWidth / GRID_WIDTH, boxHeight / GRID_HEIGHT);
+        double offsetX = (GRID_WIDTH * scale - boxWidth) / 2;
+        double offsetY = (GRID_HEIGHT * scale - boxHeight) / 2;
+
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            for (int gx = 0; gx < GRID_WIDTH; gx++) {
+                // 网格单元对应的源图区域，取区域内墨迹平均值
+                double sx0 = minX - offsetX + gx * scale;
+                double sy0 = minY - offsetY + gy * scale;
+                grid[gy * GRID_WIDTH + gx] = averageInk(ink, sx0, sy0, scale, minX, maxX, minY, maxY);
+            }
+        }
+        return grid;
+    }
+
+    private static double averageInk(double[][] ink, double sx0, double sy0, double size,
+                                     int minX, int maxX, int minY, int maxY) {
+        int samples = 3;
+        double total = 0;
+        for (int i = 0; i < samples; i++) {
+            for (int j = 0; j < samples; j++) {
+                int x = (int) Math.floor(sx0 + (i + 0.5) * size / samples);
+                int y = (int) Math.floor(sy0 + (j + 0.5) * size / samples);
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    total += ink[y][x];
+                }
+            }
+        }
+        return total / (samples * samples);
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return sum / a.length;
+    }
+
+    /**
+     * 使用tess4j识别单个字形，未配置tessdata目录时返回null
+     */
+    private static Character recognizeWithOcr(BufferedImage image, int cell) {
+        String tessdataPath = AppConfig.getInstance().getSpriteTessdataPath();
+        if (tessdataPath == null || tessdataPath.isBlank()) {
+            return null;
+        }
+
+        try {
+            int cellWidth = image.getWidth() / DIGIT_COUNT;
+            BufferedImage glyph = image.getSubimage(cell * cellWidth, 0, cellWidth, image.getHeight());
+
+            // 白底黑字、放大并留白，提高单字符识别率
+            int scale = 3;
+            int padding = 10;
+            BufferedImage canvas = new BufferedImage(cellWidth * scale + padding * 2,
+                    image.getHeight() * scale + padding * 2, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = canvas.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            graphics.dispose();
+            double[][] ink = inkMap(glyph);
+            for (int y = 0; y < glyph.getHeight(); y++) {
+                for (int x = 0; x < glyph.getWidth(); x++) {
+                    int level = 255 - (int) Math.round(Math.min(1, ink[y][x]) * 255);
+                    int rgb = new Color(level, level, level).getRGB();
+                    for (int dy = 0; dy < scale; dy++) {
+                        for (int dx = 0; dx < scale; dx++) {
+                            canvas.setRGB(padding + x * scale + dx, padding + y * scale + dy, rgb);
+                        }
+                    }
+                }
+            }
+
+            ITesseract tesseract = new Tesseract();
+            tesseract.setDatapath(tessdataPath);
+            tesseract.setLanguage("eng");
+            // 10: 单字符模式
+            tesseract.setPageSegMode(10);
+            tesseract.setVariable("tessedit_char_whitelist", "0123456789");
+            String text = tesseract.doOCR(canvas).trim();
+            if (text.length() == 1 && Character.isDigit(text.charAt(0))) {
+                return text.charAt(0);
+            }
+            return null;
+        } catch (Exception | LinkageError e) {
+            System.err.println("OCR识别精灵图失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 读取精灵图图片：优先本地目录，其次下载
+     */
+    private static BufferedImage loadImage(String spriteId, String imageUrl) throws IOException, InterruptedException {
+        String imageDir = AppConfig.getInstance().getSpriteImageDir();
+        if (imageDir != null && !imageDir.isBlank()) {
+            Path localFile = Paths.get(imageDir, spriteId + ".png");
+            if (Files.exists(localFile)) {
+                return ImageIO.read(localFile.toFile());
+            }
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(imageUrl))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        return ImageIO.read(new ByteArrayInputStream(response.body()));
+    }
+
+    /**
+     * 加载内置参考字形模板
+     */
+    static List<GlyphTemplate> getTemplates() {
+        List<GlyphTemplate> result = templates;
+        if (result == null) {
+            synchronized (SpriteDigitRecognizer.class) {
+                result = templates;
+                if (result == null) {
+                    result = loadTemplates();
+                    templates = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<GlyphTemplate> loadTemplates() {
+        try (InputStream input = SpriteDigitRecognizer.class.getClassLoader().getResourceAsStream(TEMPLATE_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("字形模板文件未找到: " + TEMPLATE_RESOURCE);
+            }
+            JSONObject root = JSON.parseObject(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            JSONArray items = root.getJSONArray("templates");
+
+            List<GlyphTemplate> result = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                result.add(new GlyphTemplate(item.getString("digit").charAt(0), decodePixels(item.getString("pixels"))));
+            }
+            return List.copyOf(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("加载字形模板失败", e);
+        }
+    }
+
+    /**
+     * 模板像素以0-9字符量化存储
+     */
+    static double[] decodePixels(String pixels) {
+        double[] values = new double[pixels.length()];
+        for (int i = 0; i < pixels.length(); i++) {
+            values[i] = (pixels.charAt(i) - '0') / 9.0;
+        }
+        return values;
+    }
+
+    static String encodePixels(double[] pixels) {
+        StringBuilder sb = new StringBuilder(pixels.length);
+        for (double pixel : pixels) {
+            sb.append((char) ('0' + (int) Math.round(Math.min(1, Math.max(0, pixel)) * 9)));
+        }
+        return sb.toString();
+    }
+}
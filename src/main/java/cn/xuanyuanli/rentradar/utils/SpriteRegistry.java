@@ -0,0 +1,281 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import cn.xuanyuanli.core.util.Resources;
+import cn.xuanyuanli.rentradar.config.AppConfig;
+import cn.xuanyuanli.rentradar.utils.PriceSpriteDecoder.SpriteConfig;
+import cn.xuanyuanli.rentradar.utils.PriceSpriteDecoder.SpriteTable;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 精灵图配置注册表<br>
+ * 保存所有已知精灵图配置及对应的解码查找表，以不可变快照的形式整体发布：
+ * 读取方无锁读取当前快照，注册新精灵图和重新加载都通过CAS替换快照<br>
+ * 配置来源依次为类路径下的 META-INF/sprite/*.json 和外部精灵图目录（sprite.dataDir），
+ * 外部目录中的同名配置覆盖类路径配置；新识别的精灵图也保存到外部目录<br>
+ * 开启监听后外部目录中的JSON文件变化会自动重新加载，无需重启
+ *
+ * @author xuanyuanli
+ */
+public class SpriteRegistry {
+
+    private static final String CLASSPATH_PATTERN = "META-INF/sprite/*.json";
+    private static volatile SpriteRegistry instance;
+
+    private final Path dataDir;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * 精灵图配置快照，创建后不再修改
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of());
+
+        private final Map<String, SpriteConfig> configs;
+        private final SpriteTable[] tables;
+
+        Snapshot(Map<String, SpriteConfig> configs) {
+            this.configs = Map.copyOf(configs);
+            this.tables = new SpriteTable[this.configs.size()];
+            int i = 0;
+            for (SpriteConfig config : this.configs.values()) {
+                tables[i++] = new SpriteTable(config);
+            }
+        }
+
+        Map<String, SpriteConfig> getConfigs() {
+            return configs;
+        }
+
+        SpriteTable[] getTables() {
+            return tables;
+        }
+    }
+
+    /**
+     * 构造函数，立即加载所有精灵图配置
+     *
+     * @param dataDir 外部精灵图目录，新识别的精灵图保存在这里
+     */
+    SpriteRegistry(Path dataDir) {
+        this.dataDir = dataDir;
+        reload();
+    }
+
+    /**
+     * 获取SpriteRegistry单例实例<br>
+     * 使用双重检查锁定模式确保线程安全
+     *
+     * @return SpriteRegistry单例实例
+     */
+    public static SpriteRegistry getInstance() {
+        if (instance == null) {
+            synchronized (SpriteRegistry.class) {
+                if (instance == null) {
+                    instance = new SpriteRegistry(Paths.get(AppConfig.getInstance().getSpriteDataDir()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 单例已创建时停止目录监听<br>
+     * 没有解码过价格的运行不会创建单例，关闭时无需为此读取精灵图配置
+     */
+    public static void shutdownIfInitialized() {
+        SpriteRegistry registry = instance;
+        if (registry != null) {
+            registry.stopWatching();
+        }
+    }
+
+    /**
+     * 当前配置快照
+     */
+    Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * 当前解码查找表，供解码热路径使用
+     */
+    SpriteTable[] tables() {
+        return snapshot.get().getTables();
+    }
+
+    /**
+     * 按标识符获取精灵图配置
+     *
+     * @param identifier 精灵图标识符
+     * @return 精灵图配置，不存在时返回null
+     */
+    SpriteConfig get(String identifier) {
+        return identifier == null ? null : snapshot.get().getConfigs().get(identifier);
+    }
+
+    /**
+     * 注册精灵图配置，已存在同名配置时保留原配置
+     *
+     * @param config 精灵图配置
+     * @return 注册成功返回true，已存在返回false
+     */
+    boolean register(SpriteConfig config) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current.getConfigs().containsKey(config.getIdentifier())) {
+                return false;
+            }
+            Map<String, SpriteConfig> configs = new HashMap<>(current.getConfigs());
+            configs.put(config.getIdentifier(), config);
+            if (snapshot.compareAndSet(current, new Snapshot(configs))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 重新加载类路径和外部目录中的精灵图配置<br>
+     * 只新增或覆盖配置，运行期间识别但尚未落盘的精灵图不会丢失
+     *
+     * @return 重新加载后的配置数量
+     */
+    public int reload() {
+        Map<String, SpriteConfig> loaded = new HashMap<>();
+        for (Resource resource : Resources.getClassPathAllResources(CLASSPATH_PATTERN)) {
+            try (InputStream is = resource.getInputStream()) {
+                putConfig(loaded, new String(is.readAllBytes(), StandardCharsets.UTF_8), resource.getDescription());
+            } catch (IOException e) {
+                System.err.println("读取精灵图配置失败: " + resource.getDescription() + "，" + e.getMessage());
+            }
+        }
+        for (Path file : listExternalConfigs()) {
+            try {
+                putConfig(loaded, Files.readString(file), file.toString());
+            } catch (IOException e) {
+                System.err.println("读取精灵图配置失败: " + file + "，" + e.getMessage());
+            }
+        }
+
+        return snapshot.updateAndGet(current -> {
+            Map<String, SpriteConfig> configs = new HashMap<>(current.getConfigs());
+            configs.putAll(loaded);
+            return new Snapshot(configs);
+        }).getConfigs().size();
+    }
+
+    private void putConfig(Map<String, SpriteConfig> configs, String json, String source) {
+        try {
+            SpriteConfig config = JSON.parseObject(json, SpriteConfig.class);
+            if (config == null || config.getIdentifier() == null || config.getMapping() == null) {
+                System.err.println("精灵图配置不完整，已忽略: " + source);
+                return;
+            }
+            configs.put(config.getIdentifier(), config);
+        } catch (RuntimeException e) {
+            System.err.println("解析精灵图配置失败: " + source + "，" + e.getMessage());
+        }
+    }
+
+    private List<Path> listExternalConfigs() {
+        if (!Files.isDirectory(dataDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dataDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).sorted().toList();
+        } catch (IOException e) {
+            System.err.println("读取精灵图目录失败: " + dataDir + "，" + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * 保存精灵图配置到外部精灵图目录
+     *
+     * @param config 精灵图配置
+     */
+    void persist(SpriteConfig config) {
+        Path configFile = dataDir.resolve(config.getIdentifier() + ".json");
+        try {
+            FileUtils.writeToFile(configFile.toString(), JSON.toJSONString(config, JSONWriter.Feature.PrettyFormat));
+            System.out.println("精灵图配置已保存到: " + configFile);
+        } catch (IOException e) {
+            System.err.println("保存精灵图配置失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 开始监听外部精灵图目录，JSON文件新增或修改时自动重新加载
+     */
+    public synchronized void startWatching() {
+        if (watchThread != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(dataDir);
+            watchService = dataDir.getFileSystem().newWatchService();
+            dataDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("无法监听精灵图目录: " + dataDir + "，" + e.getMessage());
+            return;
+        }
+
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watchLoop(service), "sprite-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        System.out.println("开始监听精灵图目录: " + dataDir.toAbsolutePath());
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path file && file.toString().endsWith(".json")) {
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    System.out.println("精灵图配置已重新加载，共 " + reload() + " 个");
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 已停止监听
+        }
+    }
+
+    /**
+     * 停止监听外部精灵图目录
+     */
+    public synchronized void stopWatching() {
+        if (watchThread == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("关闭精灵图目录监听失败: " + e.getMessage());
+        }
+        watchThread.interrupt();
+        watchThread = null;
+        watchService = null;
+    }
+}
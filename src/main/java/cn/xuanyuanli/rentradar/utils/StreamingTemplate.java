@@ -0,0 +1,93 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 流式模板<br>
+ * 模板只解析一次，拆分为文本片段和 {{NAME}} 占位符片段；渲染时按顺序把文本和占位符内容直接写入输出流，
+ * 不生成中间字符串，内存占用与占位符内容的大小无关<br>
+ * 没有提供内容的占位符原样输出；解析后不可变，可被多个线程同时使用
+ *
+ * @author xuanyuanli
+ */
+public final class StreamingTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    /**
+     * 占位符内容写入逻辑
+     */
+    public interface SegmentWriter {
+        void write(Writer out) throws IOException;
+    }
+
+    /**
+     * 文本片段和占位符名称交替存放：偶数下标为文本，奇数下标为占位符名称
+     */
+    private final String[] segments;
+
+    private StreamingTemplate(String[] segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * 解析模板
+     *
+     * @param text 模板内容
+     * @return 模板
+     */
+    public static StreamingTemplate parse(String text) {
+        List<String> segments = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = text.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : text.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                segments.add(text.substring(position));
+                break;
+            }
+            segments.add(text.substring(position, open));
+            segments.add(text.substring(open + OPEN.length(), close));
+            position = close + CLOSE.length();
+        }
+        return new StreamingTemplate(segments.toArray(new String[0]));
+    }
+
+    /**
+     * 模板中出现的占位符名称，按出现顺序排列
+     */
+    public Set<String> getPlaceholders() {
+        Set<String> placeholders = new LinkedHashSet<>();
+        for (int i = 1; i < segments.length; i += 2) {
+            placeholders.add(segments[i]);
+        }
+        return placeholders;
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param out    输出流，由调用方刷新和关闭
+     * @param values 占位符名称到内容写入逻辑的映射
+     * @throws IOException 写入异常
+     */
+    public void render(Writer out, Map<String, SegmentWriter> values) throws IOException {
+        for (int i = 0; i < segments.length; i++) {
+            if (i % 2 == 0) {
+                out.write(segments[i]);
+                continue;
+            }
+            SegmentWriter value = values.get(segments[i]);
+            if (value != null) {
+                value.write(out);
+            } else {
+                out.write(OPEN);
+                out.write(segments[i]);
+                out.write(CLOSE);
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * 地铁站二进制快照工具类<br>
+ * 按列存储地铁站数据：线路名去重后存为字符串表，每个站点只保存线路下标；
+ * 经纬度以百万分之一度的定点整数保存，价格保存为double<br>
+ * 读取时内存映射文件，按列解析，无需JSON解析
+ *
+ * <p>文件布局（大端序）：</p>
+ * <pre>
+ * magic(int) version(short) reserved(short) count(int)
+ * lineCount(int) lines[lineCount](string)
+ * lineIndex[count](int) longitude[count](int) latitude[count](int) price[count](double)
+ * name[count](string) url[count](string)
+ * </pre>
+ * string为 长度(int，-1表示null) + UTF-8字节
+ *
+ * @author xuanyuanli
+ */
+public final class SubwaySnapshot {
+
+    private static final int MAGIC = 0x5A535542;
+    private static final short VERSION = 1;
+    private static final int COORDINATE_SCALE = 6;
+    private static final double COORDINATE_FACTOR = 1_000_000d;
+
+    /**
+     * 经纬度缺失
+     */
+    private static final int NO_COORDINATE = Integer.MIN_VALUE;
+
+    private SubwaySnapshot() {
+        // 工具类不应被实例化
+    }
+
+    /**
+     * 写入二进制快照，文件通过 {@link FileUtils#writeAtomically} 原子替换
+     *
+     * @param filePath 文件路径
+     * @param stations 地铁站列表
+     * @throws IOException 文件操作异常
+     */
+    public static void write(String filePath, List<Subway> stations) throws IOException {
+        Map<String, Integer> lineIndex = new LinkedHashMap<>();
+        for (Subway station : stations) {
+            lineIndex.putIfAbsent(station.getLineName(), lineIndex.size());
+        }
+
+        FileUtils.writeAtomically(filePath, true, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeShort(VERSION);
+            data.writeShort(0);
+            data.writeInt(stations.size());
+
+            data.writeInt(lineIndex.size());
+            for (String line : lineIndex.keySet()) {
+                writeString(data, line);
+            }
+
+            for (Subway station : stations) {
+                data.writeInt(lineIndex.get(station.getLineName()));
+            }
+            for (Subway station : stations) {
+                data.writeInt(toFixedPoint(station.getLongitude()));
+            }
+            for (Subway station : stations) {
+                data.writeInt(toFixedPoint(station.getLatitude()));
+            }
+            for (Subway station : stations) {
+                data.writeDouble(station.getSquareMeterOfPrice());
+            }
+            for (Subway station : stations) {
+                writeString(data, station.getName());
+            }
+            for (Subway station : stations) {
+                writeString(data, station.getUrl());
+            }
+            data.flush();
+        });
+        System.out.println("文件已写入: " + filePath);
+    }
+
+    /**
+     * 内存映射读取二进制快照
+     *
+     * @param filePath 文件路径
+     * @return 地铁站列表
+     * @throws IOException 文件不存在、读取异常或文件格式不正确
+     */
+    public static List<Subway> read(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            throw new IOException("文件不存在: " + filePath);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, filePath);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("快照文件不完整: " + filePath, e);
+        }
+    }
+
+    private static List<Subway> read(ByteBuffer buffer, String filePath) throws IOException {
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("不是有效的地铁站快照文件: " + filePath);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("不支持的快照版本 " + version + ": " + filePath);
+        }
+        buffer.getShort();
+        int count = buffer.getInt();
+
+        String[] lines = new String[buffer.getInt()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = readString(buffer);
+        }
+
+        // 各列的起始位置
+        int lineIndexStart = buffer.position();
+        int longitudeStart = lineIndexStart + count * Integer.BYTES;
+        int latitudeStart = longitudeStart + count * Integer.BYTES;
+        int priceStart = latitudeStart + count * Integer.BYTES;
+        buffer.position(priceStart + count * Double.BYTES);
+
+        List<Subway> stations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Subway station = new Subway();
+            station.setLineName(lines[buffer.getInt(lineIndexStart + i * Integer.BYTES)]);
+            station.setLongitude(fromFixedPoint(buffer.getInt(longitudeStart + i * Integer.BYTES)));
+            station.setLatitude(fromFixedPoint(buffer.getInt(latitudeStart + i * Integer.BYTES)));
+            station.setSquareMeterOfPrice(buffer.getDouble(priceStart + i * Double.BYTES));
+            stations.add(station);
+        }
+        for (Subway station : stations) {
+            station.setName(readString(buffer));
+        }
+        for (Subway station : stations) {
+            station.setUrl(readString(buffer));
+        }
+        return stations;
+    }
+
+    /**
+     * 经纬度字符串转为百万分之一度的定点整数
+     */
+    static int toFixedPoint(String coordinate) {
+        if (coordinate == null || coordinate.isBlank()) {
+            return NO_COORDINATE;
+        }
+        try {
+            return (int) Math.round(Double.parseDouble(coordinate.trim()) * COORDINATE_FACTOR);
+        } catch (NumberFormatException e) {
+            return NO_COORDINATE;
+        }
+    }
+
+    /**
+     * 定点整数转回经纬度字符串，去掉末尾多余的0
+     */
+    static String fromFixedPoint(int value) {
+        if (value == NO_COORDINATE) {
+            return null;
+        }
+        BigDecimal coordinate = BigDecimal.valueOf(value, COORDINATE_SCALE).stripTrailingZeros();
+        return coordinate.scale() < 0 ? coordinate.setScale(0).toPlainString() : coordinate.toPlainString();
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
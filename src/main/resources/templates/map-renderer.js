@@ -0,0 +1,121 @@
+// 地图数据渲染：解码 MapDataEncoder 生成的 window.mapData，按当前缩放级别只绘制视野内的聚合点或站点标记
+// 经纬度为差分编码的定点数，价格为每平米价格乘以10，聚合点每5个整数一组：经度差分、纬度差分、站点数、价格、单站点下标或-1
+function renderMapData(data) {
+    var colors = {1: '#3a9d4f', 2: '#2f78d6', 3: '#e3a400', 4: '#d63a2f'};
+    var stations = [];
+    var lon = 0, lat = 0;
+    for (var i = 0; i < data.names.length; i++) {
+        lon += data.lon[i];
+        lat += data.lat[i];
+        stations.push({
+            position: [lon / data.scale, lat / data.scale],
+            name: data.names[i],
+            line: data.lines[data.line[i]],
+            price: data.price[i] / 10
+        });
+    }
+    var levels = data.levels.map(function (flat) {
+        var clusters = [], lon = 0, lat = 0;
+        for (var i = 0; i < flat.length; i += 5) {
+            lon += flat[i];
+            lat += flat[i + 1];
+            clusters.push({position: [lon / data.scale, lat / data.scale], count: flat[i + 2], price: flat[i + 3] / 10, station: flat[i + 4]});
+        }
+        return clusters;
+    });
+
+    function color(price) {
+        for (var i = 0; i < data.thresholds.length; i++) {
+            if (price < data.thresholds[i]) {
+                return i + 1;
+            }
+        }
+        return data.thresholds.length + 1;
+    }
+
+    function displayPrice(price) {
+        return Math.round(price * data.squareMeter * 10) / 10;
+    }
+
+    function stationMarker(s) {
+        return new AMap.Marker({
+            position: s.position,
+            title: s.line + ' ' + s.name,
+            icon: new AMap.Icon({
+                size: new AMap.Size(25, 34),
+                image: 'https://webapi.amap.com/theme/v1.3/markers/n/mark_b' + color(s.price) + '.png'
+            }),
+            label: {
+                offset: new AMap.Pixel(20, 20),
+                content: s.name + '<br/>¥' + displayPrice(s.price).toFixed(1)
+            }
+        });
+    }
+
+    function clusterMarker(c) {
+        var size = Math.min(64, 30 + Math.round(Math.log(c.count) * 6));
+        var marker = new AMap.Marker({
+            position: c.position,
+            offset: new AMap.Pixel(-size / 2, -size / 2),
+            content: '<div style="width:' + size + 'px;height:' + size + 'px;border-radius:50%;background:' + colors[color(c.price)]
+                + ';opacity:0.85;color:#fff;font-size:11px;line-height:1.2;display:flex;flex-direction:column;'
+                + 'align-items:center;justify-content:center;box-shadow:0 1px 4px rgba(0,0,0,0.3)">'
+                + '<b>' + c.count + '</b>¥' + Math.round(displayPrice(c.price)) + '</div>'
+        });
+        marker.on('click', function () {
+            map.setZoomAndCenter(Math.min(data.maxZoom + 1, Math.round(map.getZoom()) + 2), marker.getPosition());
+        });
+        return marker;
+    }
+
+    function updateSummary() {
+        var info = document.querySelector('.info');
+        if (info && data.time) {
+            info.textContent = '生成时间: ' + data.time;
+        }
+        var statistics = document.querySelector('.statistics');
+        if (!statistics || stations.length === 0) {
+            return;
+        }
+        var sum = 0, min = Infinity, max = -Infinity;
+        stations.forEach(function (s) {
+            sum += s.price;
+            min = Math.min(min, s.price);
+            max = Math.max(max, s.price);
+        });
+        statistics.innerHTML = '<h3>数据统计</h3><p>有效站点数: ' + stations.length + '</p>'
+            + '<p>平均租金: ' + (sum / stations.length).toFixed(1) + ' 元/㎡</p>'
+            + '<p>最低租金: ' + min.toFixed(1) + ' 元/㎡</p>'
+            + '<p>最高租金: ' + max.toFixed(1) + ' 元/㎡</p>'
+            + '<p>显示价格为 ' + data.squareMeter + ' 平米房屋月租</p>';
+    }
+
+    var markers = [];
+
+    function render() {
+        var zoom = Math.round(map.getZoom());
+        var bounds = map.getBounds();
+        var next = [];
+        if (zoom > data.maxZoom) {
+            stations.forEach(function (s) {
+                if (bounds.contains(new AMap.LngLat(s.position[0], s.position[1]))) {
+                    next.push(stationMarker(s));
+                }
+            });
+        } else {
+            levels[Math.max(zoom, data.minZoom) - data.minZoom].forEach(function (c) {
+                if (bounds.contains(new AMap.LngLat(c.position[0], c.position[1]))) {
+                    next.push(c.station >= 0 ? stationMarker(stations[c.station]) : clusterMarker(c));
+                }
+            });
+        }
+        map.remove(markers);
+        map.add(next);
+        markers = next;
+    }
+
+    updateSummary();
+    map.on('zoomend', render);
+    map.on('moveend', render);
+    render();
+}
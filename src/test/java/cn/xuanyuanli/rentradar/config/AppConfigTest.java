@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -155,4 +157,50 @@ class AppConfigTest {
         assertTrue(config.getCrawlerMaxRetry() >= 1, "重试次数至少为1");
         assertTrue(config.getCacheExpireDays() > 0, "缓存过期天数必须大于0");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSnapshotResolution() {
+        Properties properties = new Properties();
+        properties.setProperty("data.output.baseDir", "out");
+        properties.setProperty("data.output.outputDir", "${data.output.baseDir}/html");
+        properties.setProperty("data.output.htmlFile", "${data.output.outputDir}/index.html");
+        properties.setProperty("crawler.pool.size", "4");
+        properties.setProperty("data.defaultSquareMeter", "abc");
+        properties.setProperty("price.analysis.maxAreaLimit", "150");
+        Map<String, String> env = Map.of("PRICE_ANALYSIS_MAXAREALIMIT", "120", "GAODE_API_KEY", " ");
+
+        AppConfig config = new AppConfig(properties, env::get);
+
+        assertEquals("out/html", config.getOutputDir());
+        assertEquals("out/html/index.html", config.getHtmlOutputFile(), "占位符应递归解析");
+        assertEquals("out/html/show-data.js", config.getMapDataFile(), "默认值应基于解析后的输出目录");
+        assertEquals(4, config.getCrawlerWorkerCount(), "未配置worker数时应使用连接池大小");
+        assertEquals(10, config.getDefaultSquareMeter(), "无效数值应回退为默认值");
+        assertEquals(120.0, config.getMaxAreaLimit(), 0.001, "环境变量应覆盖配置文件");
+        assertEquals("", config.getGaodeApiKey(), "空白环境变量应被忽略");
+    }
+
+    @Test
+    void testWorkerCountFollowsPoolSizeFromEnvironment() {
+        Properties properties = new Properties();
+        properties.setProperty("crawler.pool.size", "2");
+
+        AppConfig config = new AppConfig(properties, Map.of("CRAWLER_POOL_SIZE", "8")::get);
+
+        assertEquals(8, config.getCrawlerPoolSize());
+        assertEquals(8, config.getCrawlerWorkerCount(), "worker数应跟随环境变量覆盖后的连接池大小");
+    }
+
+    @Test
+    void testReload() {
+        AppConfig config = new AppConfig(new Properties(), key -> null);
+        assertEquals("build/output", config.getOutputDir());
+        assertEquals(8080, config.getServerPort());
+
+        config.reload();
+
+        AppConfig instance = AppConfig.getInstance();
+        assertEquals(instance.getOutputDir(), config.getOutputDir());
+        assertEquals(instance.getMaxReasonablePrice(), config.getMaxReasonablePrice(), 0.001);
+    }
+}
@@ -0,0 +1,86 @@
+package cn.xuanyuanli.rentradar.crawler;
+
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceSamplerTest {
+
+    @Test
+    void testStopWhenTargetReached() {
+        PriceSampler sampler = new PriceSampler(20, 5, 10, 0.0);
+
+        assertTrue(sampler.acceptPage(prices(10, 80)));
+        assertFalse(sampler.acceptPage(prices(10, 120)));
+        assertEquals(2, sampler.getPages());
+        assertEquals(20, sampler.getSamples());
+        assertEquals(100, sampler.getRunningMean(), 0.001);
+        assertTrue(sampler.getStopReason().contains("目标"));
+    }
+
+    @Test
+    void testStopWhenMeanConverged() {
+        PriceSampler sampler = new PriceSampler(100, 10, 10, 0.05);
+
+        assertTrue(sampler.acceptPage(prices(10, 100)));
+        // 均价从100变为101，相对变化1%，小于5%容差
+        assertFalse(sampler.acceptPage(prices(10, 102)));
+        assertTrue(sampler.getStopReason().contains("收敛"));
+    }
+
+    @Test
+    void testContinueWhenMeanStillMoving() {
+        PriceSampler sampler = new PriceSampler(100, 10, 10, 0.05);
+
+        assertTrue(sampler.acceptPage(prices(10, 100)));
+        // 均价从100变为125，变化25%，继续翻页
+        assertTrue(sampler.acceptPage(prices(10, 150)));
+    }
+
+    @Test
+    void testNoConvergenceBeforeMinSamples() {
+        PriceSampler sampler = new PriceSampler(100, 30, 10, 0.5);
+
+        assertTrue(sampler.acceptPage(prices(5, 100)));
+        assertTrue(sampler.acceptPage(prices(5, 100)), "样本不足时不判断收敛");
+    }
+
+    @Test
+    void testStopAtMaxPages() {
+        PriceSampler sampler = new PriceSampler(100, 100, 2, 0.0);
+
+        assertTrue(sampler.acceptPage(prices(5, 100)));
+        assertFalse(sampler.acceptPage(prices(5, 200)));
+        assertTrue(sampler.getStopReason().contains("最大页数"));
+    }
+
+    @Test
+    void testStopOnEmptyPage() {
+        PriceSampler sampler = new PriceSampler(100, 10, 10, 0.0);
+
+        assertFalse(sampler.acceptPage(List.of()));
+        assertEquals(0, sampler.getSamples());
+        assertEquals(0, sampler.getRunningMean(), 0.001);
+    }
+
+    @Test
+    void testNoMorePages() {
+        PriceSampler sampler = new PriceSampler(100, 10, 10, 0.0);
+
+        assertTrue(sampler.acceptPage(prices(5, 100)));
+        sampler.noMorePages();
+        assertEquals("没有下一页", sampler.getStopReason());
+    }
+
+    private List<RentalPrice> prices(int count, double pricePerMeter) {
+        List<RentalPrice> prices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            prices.add(new RentalPrice(pricePerMeter * 20, 20));
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,88 @@
+package cn.xuanyuanli.rentradar.crawler;
+
+import cn.xuanyuanli.playwright.stealth.manager.PlaywrightBrowserManager;
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+import com.microsoft.playwright.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ZiroomCrawlerTest {
+
+    private static final String SPRITE_URL = "https://static8.ziroom.com/phoenix/pc/images/price/new-list/f4c1f82540f8d287aa53492a44f5819b.png";
+
+    private ZiroomCrawler crawler;
+
+    @BeforeEach
+    void setUp() {
+        crawler = new ZiroomCrawler(mock(PlaywrightBrowserManager.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExtractPricesInBatch_SingleEvaluate() throws Exception {
+        Page page = mock(Page.class);
+        List<Object> items = new ArrayList<>();
+        // 4978元 / 20㎡
+        items.add(Arrays.asList("整租·国贸 20㎡ 南", spriteStyles("0", "-21.4", "-42.8", "-64.2")));
+        // 没有价格区域的房源
+        items.add(null);
+        // 面积超过限制，忽略
+        items.add(Arrays.asList("整租·国贸 150㎡ 南", spriteStyles("0", "-21.4", "-42.8", "-64.2")));
+        // 无法解析面积，跳过
+        items.add(Arrays.asList("整租·国贸 南", spriteStyles("0", "-21.4", "-42.8", "-64.2")));
+        when(page.evaluate(anyString())).thenReturn(items);
+
+        Method method = ZiroomCrawler.class.getDeclaredMethod("extractPricesInBatch", Page.class, String.class);
+        method.setAccessible(true);
+        List<RentalPrice> prices = (List<RentalPrice>) method.invoke(crawler, page, "https://www.ziroom.com/z/test/");
+
+        assertEquals(1, prices.size());
+        assertEquals(4978, prices.get(0).getPrice(), 0.001);
+        assertEquals(20, prices.get(0).getArea(), 0.001);
+        verify(page, times(1)).evaluate(anyString());
+        verify(page, never()).locator(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExtractPricesInBatch_EmptyResult() throws Exception {
+        Page page = mock(Page.class);
+        when(page.evaluate(anyString())).thenReturn(null);
+
+        Method method = ZiroomCrawler.class.getDeclaredMethod("extractPricesInBatch", Page.class, String.class);
+        method.setAccessible(true);
+        List<RentalPrice> prices = (List<RentalPrice>) method.invoke(crawler, page, "https://www.ziroom.com/z/test/");
+
+        assertTrue(prices.isEmpty());
+    }
+
+    @Test
+    void testCalculateAveragePrice_FiltersOutliers() {
+        List<RentalPrice> prices = new ArrayList<>();
+        for (double area : new double[]{20, 21, 22, 23, 24, 25}) {
+            prices.add(new RentalPrice(area * 100, area));
+        }
+        // 每平米1000元的异常数据
+        prices.add(new RentalPrice(20000, 20));
+
+        assertEquals(100.0, crawler.calculateAveragePrice(prices), 0.001);
+        assertEquals(0.0, crawler.calculateAveragePrice(List.of()), 0.001);
+    }
+
+    private List<String> spriteStyles(String... positions) {
+        List<String> styles = new ArrayList<>();
+        for (String position : positions) {
+            styles.add("background-image: url(\"" + SPRITE_URL + "\"); background-position: " + position + "px center;");
+        }
+        return styles;
+    }
+}
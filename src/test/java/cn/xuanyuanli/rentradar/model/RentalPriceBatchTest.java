@@ -0,0 +1,72 @@
+package cn.xuanyuanli.rentradar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RentalPriceBatchTest {
+
+    @Test
+    void testAddMatchesRentalPrice() {
+        RentalPriceBatch batch = new RentalPriceBatch(1);
+        batch.add(3000.0, 35.0);
+        batch.add(3000.0, 0.0);
+        batch.add(new RentalPrice(4000.0, 40.0));
+
+        assertEquals(3, batch.size());
+        assertEquals(new RentalPrice(3000.0, 35.0).getPricePerSquareMeter(), batch.getPricePerSquareMeter(0));
+        assertEquals(0.0, batch.getPricePerSquareMeter(1));
+        assertEquals(100.0, batch.getPricePerSquareMeter(2), 0.001);
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getPrice(3));
+    }
+
+    @Test
+    void testFilterValid() {
+        List<RentalPrice> prices = List.of(new RentalPrice(3000, 30), new RentalPrice(0, 30),
+                new RentalPrice(3000, 0), new RentalPrice(-100, 20), new RentalPrice(2000, 25));
+        RentalPriceBatch batch = RentalPriceBatch.of(prices);
+
+        RentalPriceBatch valid = batch.filterValid();
+
+        assertEquals(prices.stream().filter(RentalPrice::isValid).count(), valid.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(prices.get(i).isValid(), batch.isValid(i));
+        }
+        assertEquals(80.0, valid.getPricePerSquareMeter(1), 0.001);
+    }
+
+    @Test
+    void testStatisticsAndRangeFilter() {
+        RentalPriceBatch batch = new RentalPriceBatch();
+        batch.add(2000, 20);
+        batch.add(2400, 20);
+        batch.add(3200, 20);
+        batch.add(20000, 20);
+
+        RentalPriceBatch inRange = batch.filterPricePerSquareMeter(100, 160);
+        assertEquals(3, inRange.size());
+        assertEquals(120.0, inRange.getPricePerSquareMeter(1), 0.001);
+
+        // 100, 120, 160 的均值和总体方差
+        assertEquals(126.667, inRange.meanPricePerSquareMeter(), 0.001);
+        assertEquals(622.222, inRange.variancePricePerSquareMeter(), 0.001);
+
+        RentalPriceBatch empty = new RentalPriceBatch();
+        assertEquals(0.0, empty.meanPricePerSquareMeter());
+        assertEquals(0.0, empty.variancePricePerSquareMeter());
+        assertTrue(empty.filterValid().isEmpty());
+    }
+
+    @Test
+    void testToList() {
+        RentalPriceBatch batch = new RentalPriceBatch();
+        batch.add(3000, 30);
+
+        List<RentalPrice> list = batch.toList();
+
+        assertEquals(1, list.size());
+        assertEquals(100.0, list.get(0).getPricePerSquareMeter(), 0.001);
+    }
+}
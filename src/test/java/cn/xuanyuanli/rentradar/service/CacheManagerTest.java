@@ -4,6 +4,7 @@ import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.model.Subway;
 import cn.xuanyuanli.rentradar.utils.FileUtils;
 import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import cn.xuanyuanli.rentradar.utils.SubwaySnapshot;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
@@ -31,11 +32,9 @@ class CacheManagerTest {
             
             String cacheFile = "test-cache.json";
             List<Subway> testData = Arrays.asList(new Subway());
-            String jsonData = "[{\"name\":\"test\"}]";
             
             // 模拟缓存不存在的情况
             mockFileUtils.when(() -> FileUtils.exists(cacheFile)).thenReturn(false);
-            mockJsonUtils.when(() -> JsonUtils.toJsonString(testData)).thenReturn(jsonData);
             
             Supplier<List<Subway>> dataSupplier = () -> testData;
             
@@ -43,7 +42,7 @@ class CacheManagerTest {
             List<Subway> result = cacheManager.getCachedData(cacheFile, 7, dataSupplier, Subway.class);
             
             assertEquals(testData, result);
-            mockFileUtils.verify(() -> FileUtils.writeToFile(cacheFile, jsonData));
+            mockJsonUtils.verify(() -> JsonUtils.writeArray(cacheFile, testData));
         }
     }
     
@@ -61,11 +60,9 @@ class CacheManagerTest {
             String cacheFile = "test-locations.json";
             String dependentFile = "test-stations.json";
             List<Subway> testData = Arrays.asList(new Subway());
-            String jsonData = "[{\"name\":\"test\"}]";
             
             // 模拟依赖关系无效的情况
             mockFileUtils.when(() -> FileUtils.exists(cacheFile)).thenReturn(false);
-            mockJsonUtils.when(() -> JsonUtils.toJsonString(testData)).thenReturn(jsonData);
             
             Supplier<List<Subway>> dataSupplier = () -> testData;
             
@@ -73,7 +70,7 @@ class CacheManagerTest {
             List<Subway> result = cacheManager.getCachedDataWithDependency(cacheFile, dependentFile, dataSupplier, Subway.class);
             
             assertEquals(testData, result);
-            mockFileUtils.verify(() -> FileUtils.writeToFile(cacheFile, jsonData));
+            mockJsonUtils.verify(() -> JsonUtils.writeArray(cacheFile, testData));
         }
     }
     
@@ -95,4 +92,96 @@ class CacheManagerTest {
             assertEquals(testData, result);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBinaryFormat() throws Exception {
+        // 二进制格式：写入 .bin 快照并导出JSON，再次读取时从快照加载
+        try (MockedStatic<AppConfig> mockAppConfig = Mockito.mockStatic(AppConfig.class);
+             MockedStatic<FileUtils> mockFileUtils = Mockito.mockStatic(FileUtils.class);
+             MockedStatic<JsonUtils> mockJsonUtils = Mockito.mockStatic(JsonUtils.class);
+             MockedStatic<SubwaySnapshot> mockSnapshot = Mockito.mockStatic(SubwaySnapshot.class)) {
+
+            AppConfig mockConfig = mock(AppConfig.class);
+            mockAppConfig.when(AppConfig::getInstance).thenReturn(mockConfig);
+            when(mockConfig.isCacheEnabled()).thenReturn(true);
+            when(mockConfig.getCacheFormat()).thenReturn("binary");
+            when(mockConfig.isCacheJsonExportEnabled()).thenReturn(true);
+
+            String cacheFile = "data/test-prices.json";
+            String binaryFile = "data/test-prices.bin";
+            List<Subway> testData = Arrays.asList(new Subway());
+            mockFileUtils.when(() -> FileUtils.exists(binaryFile)).thenReturn(false);
+
+            CacheManager cacheManager = new CacheManager();
+            List<Subway> result = cacheManager.getCachedData(cacheFile, 7, () -> testData, Subway.class);
+
+            assertEquals(testData, result);
+            mockSnapshot.verify(() -> SubwaySnapshot.write(binaryFile, testData));
+            mockJsonUtils.verify(() -> JsonUtils.writeArray(cacheFile, testData));
+
+            List<Subway> cachedData = Arrays.asList(new Subway("国贸", "1号线", "http://test.url"));
+            mockFileUtils.when(() -> FileUtils.exists(binaryFile)).thenReturn(true);
+            mockFileUtils.when(() -> FileUtils.isCacheExpired(binaryFile, 7)).thenReturn(false);
+            mockSnapshot.when(() -> SubwaySnapshot.read(binaryFile)).thenReturn(cachedData);
+
+            assertEquals(cachedData, cacheManager.getCachedData(cacheFile, 7, () -> testData, Subway.class));
+            mockJsonUtils.verify(() -> JsonUtils.readArray(anyString(), any()), never());
+        }
+    }
+
+    @Test
+    void testMemoryCacheReusedUntilFileChanges() throws Exception {
+        try (MockedStatic<AppConfig> mockAppConfig = Mockito.mockStatic(AppConfig.class);
+             MockedStatic<FileUtils> mockFileUtils = Mockito.mockStatic(FileUtils.class);
+             MockedStatic<JsonUtils> mockJsonUtils = Mockito.mockStatic(JsonUtils.class)) {
+
+            AppConfig mockConfig = mock(AppConfig.class);
+            mockAppConfig.when(AppConfig::getInstance).thenReturn(mockConfig);
+            when(mockConfig.isCacheEnabled()).thenReturn(true);
+
+            String cacheFile = "test-stations.json";
+            List<Subway> cachedData = Arrays.asList(new Subway("国贸", "1号线", "http://test.url"));
+            mockFileUtils.when(() -> FileUtils.exists(cacheFile)).thenReturn(true);
+            mockFileUtils.when(() -> FileUtils.getLastModifiedTime(cacheFile)).thenReturn(1000L);
+            mockJsonUtils.when(() -> JsonUtils.readArray(cacheFile, Subway.class)).thenReturn(cachedData);
+
+            CacheManager cacheManager = new CacheManager();
+            assertEquals(cachedData, cacheManager.getCachedData(cacheFile, -1, List::of, Subway.class));
+            assertEquals(cachedData, cacheManager.getCachedData(cacheFile, -1, List::of, Subway.class));
+            mockJsonUtils.verify(() -> JsonUtils.readArray(cacheFile, Subway.class), times(1));
+
+            // 文件被修改后重新读取
+            mockFileUtils.when(() -> FileUtils.getLastModifiedTime(cacheFile)).thenReturn(2000L);
+            assertEquals(cachedData, cacheManager.getCachedData(cacheFile, -1, List::of, Subway.class));
+            mockJsonUtils.verify(() -> JsonUtils.readArray(cacheFile, Subway.class), times(2));
+        }
+    }
+
+    @Test
+    void testMemoryCacheReturnsCopies() throws Exception {
+        try (MockedStatic<AppConfig> mockAppConfig = Mockito.mockStatic(AppConfig.class);
+             MockedStatic<FileUtils> mockFileUtils = Mockito.mockStatic(FileUtils.class);
+             MockedStatic<JsonUtils> mockJsonUtils = Mockito.mockStatic(JsonUtils.class)) {
+
+            AppConfig mockConfig = mock(AppConfig.class);
+            mockAppConfig.when(AppConfig::getInstance).thenReturn(mockConfig);
+            when(mockConfig.isCacheEnabled()).thenReturn(true);
+
+            String cacheFile = "test-locations.json";
+            List<Subway> cachedData = Arrays.asList(new Subway("国贸", "1号线", "http://test.url"));
+            mockFileUtils.when(() -> FileUtils.exists(cacheFile)).thenReturn(true);
+            mockFileUtils.when(() -> FileUtils.getLastModifiedTime(cacheFile)).thenReturn(1000L);
+            mockJsonUtils.when(() -> JsonUtils.readArray(cacheFile, Subway.class)).thenReturn(cachedData);
+
+            CacheManager cacheManager = new CacheManager();
+            // 上一个周期修改了读取到的站点
+            cacheManager.getCachedData(cacheFile, -1, List::of, Subway.class).get(0).setSquareMeterOfPrice(120);
+
+            List<Subway> nextCycle = cacheManager.getCachedData(cacheFile, -1, List::of, Subway.class);
+            assertEquals(0, nextCycle.get(0).getSquareMeterOfPrice());
+            nextCycle.get(0).setSquareMeterOfPrice(90);
+            assertEquals(0, cacheManager.getCachedData(cacheFile, -1, List::of, Subway.class).get(0).getSquareMeterOfPrice());
+            mockJsonUtils.verify(() -> JsonUtils.readArray(cacheFile, Subway.class), times(1));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cn.xuanyuanli.rentradar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlDaemonTest {
+
+    @Test
+    void testRunsCyclesUntilStopped() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CrawlDaemon[] holder = new CrawlDaemon[1];
+        holder[0] = new CrawlDaemon(CrawlDaemon.fixedInterval(Duration.ofMillis(50)), () -> {
+            if (runs.incrementAndGet() == 2) {
+                throw new IllegalStateException("单个周期失败不影响后续周期");
+            }
+            if (runs.get() == 3) {
+                holder[0].stop();
+            }
+        }, true);
+
+        Thread thread = new Thread(holder[0]::run);
+        thread.start();
+        thread.join(5000);
+
+        assertFalse(thread.isAlive());
+        assertEquals(3, runs.get());
+        assertEquals(3, holder[0].getCompletedCycles());
+    }
+
+    @Test
+    void testStopWhileWaiting() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CrawlDaemon daemon = new CrawlDaemon(CrawlDaemon.fixedInterval(Duration.ofHours(1)), runs::incrementAndGet, false);
+
+        Thread thread = new Thread(daemon::run);
+        thread.start();
+        Thread.sleep(100);
+        daemon.stop();
+        thread.join(2000);
+
+        assertFalse(thread.isAlive());
+        assertEquals(0, runs.get());
+    }
+}
@@ -0,0 +1,62 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.POI;
+import cn.xuanyuanli.rentradar.model.Subway;
+import cn.xuanyuanli.rentradar.utils.JsonUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeocodeCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPutAndReload() {
+        String cacheFile = tempDir.resolve("geocode-cache.json").toString();
+        GeocodeCache cache = new GeocodeCache(cacheFile, tempDir.resolve("none.json").toString());
+
+        assertEquals(List.of("1号线 国贸", "1号线 建国门"), cache.findMissing(List.of("1号线 国贸", "1号线 建国门", "1号线 国贸")));
+        cache.putAll(Map.of("1号线 国贸", new POI("116.434", "39.906"), "1号线 建国门", new POI()));
+
+        // 无效位置不缓存
+        assertEquals(List.of("1号线 建国门"), cache.findMissing(List.of("1号线 国贸", "1号线 建国门")));
+
+        GeocodeCache reloaded = new GeocodeCache(cacheFile, tempDir.resolve("none.json").toString());
+        assertEquals("116.434", reloaded.get("1号线 国贸").getLongitude());
+        assertEquals(1, reloaded.size());
+    }
+
+    @Test
+    void testImportFromLocationsFile() throws Exception {
+        Subway station = new Subway("国贸", "1号线", "http://test.url/国贸");
+        station.setLongitude("116.434");
+        station.setLatitude("39.906");
+        Subway noLocation = new Subway("建国门", "1号线", "http://test.url/建国门");
+        Path locationsFile = tempDir.resolve("subway-locations.json");
+        Files.writeString(locationsFile, JsonUtils.toJsonString(List.of(station, noLocation)));
+
+        GeocodeCache cache = new GeocodeCache(tempDir.resolve("geocode-cache.json").toString(), locationsFile.toString());
+
+        assertEquals("39.906", cache.get(GeocodeCache.keyOf(station)).getLatitude());
+        assertNull(cache.get(GeocodeCache.keyOf(noLocation)));
+    }
+
+    @Test
+    void testCorruptedCacheFile() throws Exception {
+        Path cacheFile = tempDir.resolve("geocode-cache.json");
+        Files.writeString(cacheFile, "{broken");
+
+        GeocodeCache cache = new GeocodeCache(cacheFile.toString(), tempDir.resolve("none.json").toString());
+
+        assertEquals(0, cache.size());
+        assertEquals(List.of("1号线 国贸"), cache.findMissing(List.of("1号线 国贸")));
+    }
+}
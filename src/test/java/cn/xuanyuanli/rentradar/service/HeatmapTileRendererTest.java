@@ -0,0 +1,86 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeatmapTileRendererTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Subway station(String name, String longitude, String latitude, double price) {
+        Subway subway = new Subway(name, "1号线", "https://www.ziroom.com/" + name);
+        subway.setLongitude(longitude);
+        subway.setLatitude(latitude);
+        subway.setSquareMeterOfPrice(price);
+        return subway;
+    }
+
+    private final List<Subway> stations = List.of(
+            station("西直门", "116.355", "39.940", 150),
+            station("国贸", "116.461", "39.909", 180),
+            station("天通苑", "116.412", "40.066", 60),
+            station("无价格", "116.4", "39.9", 0));
+
+    /**
+     * 站点在指定缩放级别所在的瓦片和像素 {x, y, px, py}
+     */
+    private static int[] locate(double longitude, double latitude, int zoom) {
+        double worldSize = 256.0 * (1 << zoom);
+        double x = HeatmapTileRenderer.mercatorX(longitude) * worldSize;
+        double y = HeatmapTileRenderer.mercatorY(latitude) * worldSize;
+        return new int[]{(int) (x / 256), (int) (y / 256), (int) (x % 256), (int) (y % 256)};
+    }
+
+    @Test
+    void testRenderPyramid() throws Exception {
+        HeatmapTileRenderer renderer = new HeatmapTileRenderer(tempDir.toString(), 10, 12, 2, 4, 4);
+        Path stale = tempDir.resolve("12/0/0.png");
+        Files.createDirectories(stale.getParent());
+        Files.write(stale, new byte[]{1});
+
+        HeatmapTileRenderer.Summary summary = renderer.render(stations);
+
+        assertTrue(summary.getTileCount() > 3);
+        assertTrue(summary.getLowPrice() < summary.getHighPrice());
+        assertFalse(Files.exists(stale));
+        try (var files = Files.walk(tempDir)) {
+            assertEquals(summary.getTileCount(), files.filter(p -> p.toString().endsWith(".png")).count());
+        }
+
+        // 高价站点偏红，低价站点偏绿，且都不透明
+        int[] expensive = locate(116.461, 39.909, 12);
+        BufferedImage tile = ImageIO.read(tempDir.resolve("12/" + expensive[0] + "/" + expensive[1] + ".png").toFile());
+        int argb = tile.getRGB(expensive[2], expensive[3]);
+        assertTrue((argb >>> 24) > 100);
+        assertTrue(((argb >> 16) & 0xff) > ((argb >> 8) & 0xff));
+
+        int[] cheap = locate(116.412, 40.066, 12);
+        tile = ImageIO.read(tempDir.resolve("12/" + cheap[0] + "/" + cheap[1] + ".png").toFile());
+        argb = tile.getRGB(cheap[2], cheap[3]);
+        assertTrue(((argb >> 8) & 0xff) > ((argb >> 16) & 0xff));
+    }
+
+    @Test
+    void testRenderWithoutStations() throws Exception {
+        HeatmapTileRenderer renderer = new HeatmapTileRenderer(tempDir.toString(), 10, 12, 2, 4, 4);
+        assertEquals(0, renderer.render(List.of()).getTileCount());
+    }
+
+    @Test
+    void testRampColor() {
+        assertEquals(0x3a9d4f, HeatmapTileRenderer.rampColor(0));
+        assertEquals(0xd63a2f, HeatmapTileRenderer.rampColor(1));
+        assertEquals(0xd63a2f, HeatmapTileRenderer.rampColor(2));
+        assertEquals(0x2f78d6, HeatmapTileRenderer.rampColor(1.0 / 3));
+    }
+}
@@ -0,0 +1,66 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.ListingSample;
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingSampleStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppendAndScan() throws Exception {
+        ListingSampleStore store = new ListingSampleStore(tempDir.toString());
+        Subway guomao = new Subway("国贸", "1号线", "http://test.url/国贸");
+
+        store.append(guomao, 1000L, List.of(new RentalPrice(3000, 20), new RentalPrice(4500, 30)));
+        store.append(guomao, 2000L, List.of(new RentalPrice(3300, 20)));
+        store.append(guomao, 3000L, List.of());
+
+        List<ListingSample> all = store.scanAll(guomao);
+        assertEquals(3, all.size());
+        assertEquals(1000L, all.get(0).getCrawlTime());
+        assertEquals(4500, all.get(1).getPrice());
+        assertEquals(30, all.get(1).getArea());
+        assertEquals(150, all.get(1).getPricePerSquareMeter(), 0.001);
+
+        List<ListingSample> second = store.scan(guomao, 1500L, 2500L);
+        assertEquals(1, second.size());
+        assertEquals(165, second.get(0).getPricePerSquareMeter(), 0.001);
+
+        assertTrue(store.scanAll(new Subway("建国门", "1号线", "http://test.url/建国门")).isEmpty());
+    }
+
+    @Test
+    void testTornRecordIgnoredAndTruncated() throws Exception {
+        ListingSampleStore store = new ListingSampleStore(tempDir.toString());
+        Subway station = new Subway("国贸", "1号线", "http://test.url/国贸");
+        store.append(station, 1000L, List.of(new RentalPrice(3000, 20)));
+        Files.write(store.fileOf(station), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertEquals(1, store.scanAll(station).size());
+
+        store.append(station, 2000L, List.of(new RentalPrice(3300, 20)));
+        List<ListingSample> samples = store.scanAll(station);
+        assertEquals(2, samples.size());
+        assertEquals(2000L, samples.get(1).getCrawlTime());
+    }
+
+    @Test
+    void testFileNameSanitized() {
+        ListingSampleStore store = new ListingSampleStore(tempDir.toString());
+        Path file = store.fileOf(new Subway("T2/T3 航站楼", "首都机场线", "http://test.url"));
+        assertEquals(tempDir, file.getParent());
+        assertEquals("首都机场线_T2_T3_航站楼.samples", file.getFileName().toString());
+    }
+}
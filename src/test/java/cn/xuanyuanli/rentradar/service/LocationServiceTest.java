@@ -1,5 +1,6 @@
 package cn.xuanyuanli.rentradar.service;
 
+import cn.xuanyuanli.rentradar.config.AppConfig;
 import cn.xuanyuanli.rentradar.exception.LocationServiceException;
 import cn.xuanyuanli.rentradar.model.POI;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,9 +9,14 @@ import org.mockito.MockedStatic;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.security.MessageDigest;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -396,4 +402,34 @@ class LocationServiceTest {
         assertEquals("39.906408", poi.getLatitude());
         assertTrue(poi.isValid());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetPOIs_AsyncBatch() throws Exception {
+        AppConfig config = mock(AppConfig.class);
+        when(config.getGaodeApiQps()).thenReturn(1000.0);
+        when(config.getCrawlerMaxRetry()).thenReturn(2);
+        when(config.getGaodeApiKey()).thenReturn("key");
+        when(config.getGaodeCity()).thenReturn("010");
+        HttpClient client = mock(HttpClient.class);
+
+        HttpResponse<String> found = mock(HttpResponse.class);
+        when(found.body()).thenReturn("{\"pois\":[{\"location\":\"116.434,39.906\"}]}");
+        HttpResponse<String> empty = mock(HttpResponse.class);
+        when(empty.body()).thenReturn("{\"pois\":[]}");
+        when(client.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            boolean missing = request.uri().getQuery().contains("不存在");
+            return CompletableFuture.completedFuture(missing ? empty : found);
+        });
+
+        LocationService service = new LocationService(config, client);
+        Map<String, POI> pois = service.getPOIs(List.of("1号线 国贸", "1号线 不存在", "1号线 国贸"));
+
+        assertEquals(1, pois.size());
+        assertEquals("116.434", pois.get("1号线 国贸").getLongitude());
+        // 重复关键词只查询一次，失败的关键词重试一次
+        verify(client, times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(client, never()).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+}
@@ -0,0 +1,76 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapDataEncoderTest {
+
+    private static Subway station(String name, String line, String longitude, String latitude, double price) {
+        Subway subway = new Subway(name, line, "https://www.ziroom.com/" + name);
+        subway.setLongitude(longitude);
+        subway.setLatitude(latitude);
+        subway.setSquareMeterOfPrice(price);
+        return subway;
+    }
+
+    private static String encode(List<Subway> stations, int maxZoom) throws Exception {
+        MarkerClusterer clusterer = new MarkerClusterer(maxZoom, 60);
+        StringWriter writer = new StringWriter();
+        MapDataEncoder.write(stations, clusterer.cluster(stations), maxZoom, 10, new double[]{50, 80.5},
+                "2026-01-01 08:00:00", writer);
+        return writer.toString();
+    }
+
+    @Test
+    void testDeltaEncodedStations() throws Exception {
+        String data = encode(List.of(
+                station("西直门", "2号线", "116.355", "39.940", 150.04),
+                station("车公庄", "2号线", "116.354", "39.932", 120),
+                station("平安里", "4号线", " 116.373 ", "39.933", 99.96)), 4);
+
+        assertTrue(data.startsWith("window.mapData={\"v\":1,"));
+        assertTrue(data.endsWith("]};\n"));
+        assertTrue(data.contains("\"squareMeter\":10,\"scale\":1000000,\"thresholds\":[50,80.5]"));
+        assertTrue(data.contains("\"lines\":[\"2号线\",\"4号线\"]"));
+        assertTrue(data.contains("\"line\":[0,0,1]"));
+        assertTrue(data.contains("\"price\":[1500,1200,1000]"));
+        assertTrue(data.contains("\"lon\":[116355000,-1000,19000]"));
+        assertTrue(data.contains("\"lat\":[39940000,-8000,1000]"));
+        assertTrue(data.contains("\"minZoom\":3,\"maxZoom\":4,\"levels\":["));
+    }
+
+    @Test
+    void testClusterLevelsRestartDeltas() throws Exception {
+        // 两个站点相距很近，在低缩放级别合并为一个聚合点，每个级别都从0开始差分
+        String data = encode(List.of(
+                station("A", "1号线", "116.4", "39.9", 100),
+                station("B", "1号线", "116.401", "39.9", 60)), 3);
+
+        String levels = data.substring(data.indexOf("\"levels\":[") + "\"levels\":[".length());
+        assertTrue(levels.startsWith("\n[116400500,39900000,2,800,-1]"), levels);
+    }
+
+    @Test
+    void testEmptyStations() throws Exception {
+        String data = encode(List.of(), 4);
+        assertTrue(data.contains("\"names\":[]"));
+        assertTrue(data.contains("\"levels\":[\n[],\n[]]"));
+    }
+
+    @Test
+    void testQuoteEscapesScriptClose() {
+        assertEquals("\"a\\\"b\\\\c\\u003c/script>\\n\"", MapDataEncoder.quote("a\"b\\c</script>\n"));
+        assertEquals("\"\\u0001\"", MapDataEncoder.quote("\u0001"));
+    }
+
+    @Test
+    void testToFixedPoint() {
+        assertEquals(116355000, MapDataEncoder.toFixedPoint(116.355));
+        assertEquals(-33868820, MapDataEncoder.toFixedPoint(-33.86882));
+    }
+}
@@ -0,0 +1,70 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkerClustererTest {
+
+    private static Subway station(String name, double longitude, double latitude, double price) {
+        Subway subway = new Subway(name, "1号线", "https://www.ziroom.com/" + name);
+        subway.setLongitude(String.valueOf(longitude));
+        subway.setLatitude(String.valueOf(latitude));
+        subway.setSquareMeterOfPrice(price);
+        return subway;
+    }
+
+    @Test
+    void testLevelsAreNestedAndPreserveCounts() {
+        Random random = new Random(1);
+        List<Subway> stations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            stations.add(station("站" + i, 116.1 + random.nextDouble() * 0.6, 39.7 + random.nextDouble() * 0.5,
+                    50 + random.nextDouble() * 100));
+        }
+        double totalPrice = stations.stream().mapToDouble(Subway::getSquareMeterOfPrice).sum();
+
+        MarkerClusterer clusterer = new MarkerClusterer(14, 60);
+        List<List<MarkerClusterer.Cluster>> levels = clusterer.cluster(stations);
+
+        assertEquals(14 - MarkerClusterer.MIN_ZOOM + 1, levels.size());
+        int previous = 0;
+        for (List<MarkerClusterer.Cluster> level : levels) {
+            assertEquals(500, level.stream().mapToInt(MarkerClusterer.Cluster::getCount).sum());
+            assertEquals(totalPrice, level.stream().mapToDouble(c -> c.getAveragePrice() * c.getCount()).sum(), 1e-6);
+            // 缩放级别越高，聚合点越多
+            assertTrue(level.size() >= previous);
+            previous = level.size();
+        }
+        assertEquals(1, levels.get(0).size());
+        assertTrue(levels.get(levels.size() - 1).size() > 100);
+    }
+
+    @Test
+    void testSingleStationKeepsIndexAndPosition() {
+        List<Subway> stations = List.of(
+                station("西直门", 116.355, 39.940, 150),
+                station("西直门北", 116.3551, 39.9401, 130),
+                station("天通苑", 116.412, 40.066, 70));
+
+        List<List<MarkerClusterer.Cluster>> levels = new MarkerClusterer(13, 60).cluster(stations);
+        List<MarkerClusterer.Cluster> finest = levels.get(levels.size() - 1);
+
+        assertEquals(2, finest.size());
+        MarkerClusterer.Cluster merged = finest.get(0);
+        assertEquals(2, merged.getCount());
+        assertEquals(-1, merged.getStationIndex());
+        assertEquals(140, merged.getAveragePrice(), 1e-9);
+        assertEquals(116.35505, merged.getLongitude(), 1e-6);
+
+        MarkerClusterer.Cluster single = finest.get(1);
+        assertEquals(2, single.getStationIndex());
+        assertEquals(116.412, single.getLongitude(), 1e-9);
+        assertEquals(40.066, single.getLatitude(), 1e-9);
+    }
+}
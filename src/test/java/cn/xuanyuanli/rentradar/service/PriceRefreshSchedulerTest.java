@@ -0,0 +1,89 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceRefreshSchedulerTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 6, 1, 8, 0);
+    private final PriceRefreshScheduler scheduler =
+            new PriceRefreshScheduler(Duration.ofHours(24), Duration.ofDays(7), 10);
+
+    @Test
+    void testPlanOrdersByStalenessAndVolatility() {
+        Subway missing = station("国贸");
+        Subway fresh = station("建国门");
+        Subway stale = station("永安里");
+        Subway volatileStation = station("大望路");
+        Subway stable = station("四惠");
+
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+        record(progress, fresh, 120, 0, now.minusHours(2));
+        record(progress, stale, 120, 0, now.minusDays(6));
+        record(progress, volatileStation, 120, 0.2, now.minusDays(3));
+        record(progress, stable, 120, 0, now.minusDays(3));
+
+        List<Subway> plan = scheduler.plan(List.of(missing, fresh, stale, volatileStation, stable), progress, now);
+
+        // 没有价格的站点最优先；3天前且波动20%的站点 (3/7×3) 排在6天前的稳定站点 (6/7) 之前；刚抓取过的站点不刷新
+        assertEquals(List.of(missing, volatileStation, stale, stable), plan);
+    }
+
+    @Test
+    void testScore() {
+        assertEquals(Double.POSITIVE_INFINITY, scheduler.score(null, now));
+
+        ProgressCacheManager.StationPrice price = new ProgressCacheManager.StationPrice(station("国贸"), 120);
+        price.setProcessedAt(now.minusDays(7));
+        assertEquals(1.0, scheduler.score(price, now), 1e-9);
+
+        price.setVolatility(0.05);
+        assertEquals(1.5, scheduler.score(price, now), 1e-9);
+
+        price.setProcessedAt(now.minusHours(23));
+        assertEquals(-1, scheduler.score(price, now));
+    }
+
+    @Test
+    void testUnpricedStationBacksOff() {
+        Subway attempted = station("国贸");
+        Subway attemptedLongAgo = station("建国门");
+        Subway stale = station("永安里");
+
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+        record(progress, attempted, 0, 0, now.minusHours(2));
+        record(progress, attemptedLongAgo, 0, 0, now.minusDays(2));
+        record(progress, stale, 120, 0, now.minusDays(6));
+
+        // 刚抓取过但没有价格的站点不再重复抓取，超过最小间隔后重新最优先
+        assertEquals(List.of(attemptedLongAgo, stale),
+                scheduler.plan(List.of(attempted, attemptedLongAgo, stale), progress, now));
+    }
+
+    @Test
+    void testZeroMaxAge() {
+        PriceRefreshScheduler zeroMaxAge = new PriceRefreshScheduler(Duration.ofHours(24), Duration.ZERO, 0);
+        ProgressCacheManager.StationPrice price = new ProgressCacheManager.StationPrice(station("国贸"), 120);
+        price.setProcessedAt(now.minusDays(2));
+        assertEquals(2.0, zeroMaxAge.score(price, now), 1e-9);
+    }
+
+    private void record(ProgressCacheManager.PriceProgress progress, Subway station, double price,
+                        double volatility, LocalDateTime processedAt) {
+        ProgressCacheManager.StationPrice stationPrice = new ProgressCacheManager.StationPrice(station, price);
+        stationPrice.setVolatility(volatility);
+        stationPrice.setProcessedAt(processedAt);
+        progress.getCompletedStations().add(stationPrice.getStationKey());
+        progress.getPriceData().put(stationPrice.getStationKey(), stationPrice);
+    }
+
+    private Subway station(String name) {
+        return new Subway(name, "1号线", "http://test.url/" + name);
+    }
+}
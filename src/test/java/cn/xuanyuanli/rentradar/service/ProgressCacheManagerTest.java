@@ -0,0 +1,130 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressCacheManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppendAndReplay() throws Exception {
+        ProgressCacheManager manager = newManager(100);
+        ProgressCacheManager.PriceProgress progress = manager.loadProgress();
+        manager.saveStationProgress(station("国贸"), 120.5, progress);
+        manager.saveStationProgress(station("建国门"), 110.0, progress);
+
+        // 未到压缩间隔，只写日志
+        assertFalse(Files.exists(snapshotFile()));
+        List<String> lines = Files.readAllLines(journalFile());
+        assertEquals(2, lines.size());
+
+        ProgressCacheManager.PriceProgress replayed = newManager(100).loadProgress();
+        assertEquals(2, replayed.getCompletedStations().size());
+        assertEquals(120.5, replayed.getPriceData().get("1号线_国贸").getPrice(), 0.001);
+    }
+
+    @Test
+    void testTornLastRecordIgnored() throws Exception {
+        ProgressCacheManager manager = newManager(100);
+        ProgressCacheManager.PriceProgress progress = manager.loadProgress();
+        manager.saveStationProgress(station("国贸"), 120.5, progress);
+        Files.writeString(journalFile(), "{\"stationKey\":\"1号线_建国", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        ProgressCacheManager recovered = newManager(100);
+        ProgressCacheManager.PriceProgress replayed = recovered.loadProgress();
+        assertEquals(1, replayed.getCompletedStations().size());
+
+        // 截掉不完整记录后可以继续追加
+        recovered.saveStationProgress(station("永安里"), 100.0, replayed);
+        assertEquals(2, newManager(100).loadProgress().getCompletedStations().size());
+    }
+
+    @Test
+    void testCompaction() throws Exception {
+        ProgressCacheManager manager = newManager(2);
+        ProgressCacheManager.PriceProgress progress = manager.loadProgress();
+        manager.saveStationProgress(station("国贸"), 120.5, progress);
+        manager.saveStationProgress(station("建国门"), 110.0, progress);
+        manager.saveStationProgress(station("永安里"), 100.0, progress);
+
+        assertTrue(Files.exists(snapshotFile()));
+        assertEquals(1, Files.readAllLines(journalFile()).size());
+
+        ProgressCacheManager.PriceProgress replayed = newManager(2).loadProgress();
+        assertEquals(3, replayed.getCompletedStations().size());
+        assertEquals(100.0, replayed.getPriceData().get("1号线_永安里").getPrice(), 0.001);
+    }
+
+    @Test
+    void testVolatilityTracked() {
+        ProgressCacheManager manager = newManager(100);
+        ProgressCacheManager.PriceProgress progress = manager.loadProgress();
+        manager.saveStationProgress(station("国贸"), 100.0, progress);
+        assertEquals(0.0, progress.getPriceData().get("1号线_国贸").getVolatility());
+
+        manager.saveStationProgress(station("国贸"), 120.0, progress);
+        manager.saveStationProgress(station("国贸"), 120.0, progress);
+
+        // 0.5 × 20% = 10%，再次不变时衰减为 5%
+        assertEquals(0.05, progress.getPriceData().get("1号线_国贸").getVolatility(), 1e-9);
+        assertEquals(0.05, newManager(100).loadProgress().getPriceData().get("1号线_国贸").getVolatility(), 1e-9);
+    }
+
+    @Test
+    void testFailedAttemptRecorded() {
+        ProgressCacheManager manager = newManager(100);
+        ProgressCacheManager.PriceProgress progress = manager.loadProgress();
+        manager.saveFailedAttempt(station("国贸"), progress);
+        manager.saveStationProgress(station("建国门"), 110.0, progress);
+        // 已有价格的站点抓取失败时保留原价格
+        manager.saveFailedAttempt(station("建国门"), progress);
+
+        ProgressCacheManager.PriceProgress replayed = newManager(100).loadProgress();
+        assertEquals(0.0, replayed.getPriceData().get("1号线_国贸").getPrice());
+        assertNotNull(replayed.getPriceData().get("1号线_国贸").getProcessedAt());
+        assertEquals(110.0, replayed.getPriceData().get("1号线_建国门").getPrice(), 0.001);
+        assertFalse(manager.isStationCompleted(station("国贸"), replayed), "没有价格的站点不算完成");
+        assertEquals(1, manager.convertToSubwayList(replayed, List.of(station("国贸"), station("建国门"))).size());
+    }
+
+    @Test
+    void testClearProgress() {
+        ProgressCacheManager manager = newManager(1);
+        ProgressCacheManager.PriceProgress progress = manager.loadProgress();
+        manager.saveStationProgress(station("国贸"), 120.5, progress);
+        manager.saveStationProgress(station("建国门"), 110.0, progress);
+
+        manager.clearProgress();
+
+        assertFalse(Files.exists(snapshotFile()));
+        assertFalse(Files.exists(journalFile()));
+        assertTrue(newManager(1).loadProgress().getCompletedStations().isEmpty());
+    }
+
+    private ProgressCacheManager newManager(int compactInterval) {
+        return new ProgressCacheManager(snapshotFile().toString(), 1, compactInterval);
+    }
+
+    private Path snapshotFile() {
+        return tempDir.resolve("subway-prices-progress.json");
+    }
+
+    private Path journalFile() {
+        return tempDir.resolve("subway-prices-progress.journal");
+    }
+
+    private Subway station(String name) {
+        return new Subway(name, "1号线", "http://test.url/" + name);
+    }
+}
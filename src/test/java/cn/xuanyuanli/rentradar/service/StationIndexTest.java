@@ -0,0 +1,83 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationIndexTest {
+
+    private static Subway station(String name, String line, String longitude, String latitude, double price) {
+        Subway subway = new Subway(name, line, "https://www.ziroom.com/" + name);
+        subway.setLongitude(longitude);
+        subway.setLatitude(latitude);
+        subway.setSquareMeterOfPrice(price);
+        return subway;
+    }
+
+    private final List<Subway> stations = List.of(
+            station("西直门", "2号线", "116.355", "39.940", 150),
+            station("国贸", "1号线", "116.461", "39.909", 180),
+            station("西单", "1号线", "116.374", "39.907", 160),
+            station("天通苑", "5号线", "116.412", "40.066", 70),
+            station("无位置", "5号线", "", "", 60),
+            station("坐标错误", "5号线", "abc", "40.0", 60));
+
+    @Test
+    void testBuildSkipsStationsWithoutLocation() {
+        StationIndex index = StationIndex.build(stations);
+
+        assertEquals(4, index.size());
+        assertEquals(List.of("2号线", "1号线", "5号线"), List.copyOf(index.lines()));
+    }
+
+    @Test
+    void testQueryByBoundingBoxLineAndPrice() {
+        StationIndex index = StationIndex.build(stations);
+
+        List<Subway> inBox = index.query(new StationIndex.Query().boundingBox(116.3, 39.9, 116.4, 39.95));
+        assertEquals(List.of("西直门", "西单"), inBox.stream().map(Subway::getName).toList());
+
+        List<Subway> line1 = index.query(new StationIndex.Query().line("1号线").priceRange(170, 200));
+        assertEquals(List.of("国贸"), line1.stream().map(Subway::getName).toList());
+
+        assertTrue(index.query(new StationIndex.Query().line("不存在")).isEmpty());
+        assertEquals(4, index.query(new StationIndex.Query()).size());
+    }
+
+    @Test
+    void testQueryFromParams() {
+        StationIndex.Query query = StationIndex.Query.fromParams(
+                Map.of("bbox", "116.3,39.9,116.5,40.0", "minPrice", "155"));
+        assertFalse(query.isEmpty());
+
+        List<Subway> result = StationIndex.build(stations).query(query);
+        assertEquals(List.of("国贸", "西单"), result.stream().map(Subway::getName).toList());
+
+        assertTrue(StationIndex.Query.fromParams(Map.of()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> StationIndex.Query.fromParams(Map.of("bbox", "1,2,3")));
+        assertThrows(IllegalArgumentException.class, () -> StationIndex.Query.fromParams(Map.of("bbox", "3,2,1,4")));
+        assertThrows(IllegalArgumentException.class, () -> StationIndex.Query.fromParams(Map.of("maxPrice", "abc")));
+    }
+
+    @Test
+    void testNearestAndWithinRadius() {
+        StationIndex index = StationIndex.build(stations);
+
+        List<StationIndex.Neighbor> nearest = index.nearest(116.37, 39.91, 2, new StationIndex.Query());
+        assertEquals(List.of("西单", "西直门"), nearest.stream().map(n -> n.getStation().getName()).toList());
+        assertTrue(nearest.get(0).getDistanceKm() < 1);
+        assertTrue(nearest.get(0).getDistanceKm() <= nearest.get(1).getDistanceKm());
+
+        // 西单到国贸约7.4公里
+        List<StationIndex.Neighbor> withinRadius = index.withinRadius(116.374, 39.907, 8, new StationIndex.Query());
+        assertEquals(List.of("西单", "西直门", "国贸"), withinRadius.stream().map(n -> n.getStation().getName()).toList());
+        assertEquals(7.4, withinRadius.get(2).getDistanceKm(), 0.2);
+
+        List<StationIndex.Neighbor> line1 = index.withinRadius(116.374, 39.907, 8, new StationIndex.Query().line("1号线").priceRange(170, 200));
+        assertEquals(List.of("国贸"), line1.stream().map(n -> n.getStation().getName()).toList());
+    }
+}
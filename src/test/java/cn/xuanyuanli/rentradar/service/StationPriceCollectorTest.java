@@ -0,0 +1,151 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.crawler.ZiroomCrawler;
+import cn.xuanyuanli.rentradar.model.RentalPrice;
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StationPriceCollectorTest {
+
+    @Test
+    void testCollect_KeepsInputOrderAndSavesProgress() throws Exception {
+        ZiroomCrawler crawler = mock(ZiroomCrawler.class);
+        ProgressCacheManager progressCacheManager = mock(ProgressCacheManager.class);
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+
+        List<Subway> stations = createStations(20);
+        when(crawler.getAveragePrice(anyString())).thenAnswer(invocation -> {
+            // 随机耗时，打乱完成顺序
+            Thread.sleep(ThreadLocalRandom.current().nextInt(5, 30));
+            String url = invocation.getArgument(0);
+            return Double.parseDouble(url.substring(url.lastIndexOf('/') + 1)) + 50;
+        });
+
+        StationPriceCollector collector = new StationPriceCollector(crawler, progressCacheManager, 4, 2);
+        List<Subway> result = collector.collect(stations, progress);
+
+        assertEquals(stations, result);
+        verify(crawler, times(20)).getAveragePrice(anyString());
+        verify(progressCacheManager, times(20)).saveStationProgress(any(Subway.class), anyDouble(), same(progress));
+    }
+
+    @Test
+    void testCollect_SkipsCompletedAndInvalidStations() {
+        ZiroomCrawler crawler = mock(ZiroomCrawler.class);
+        ProgressCacheManager progressCacheManager = mock(ProgressCacheManager.class);
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+
+        List<Subway> stations = createStations(3);
+        when(progressCacheManager.isStationCompleted(stations.get(0), progress)).thenReturn(true);
+        when(crawler.getAveragePrice(stations.get(1).getUrl())).thenReturn(0.0);
+        when(crawler.getAveragePrice(stations.get(2).getUrl())).thenReturn(88.0);
+
+        StationPriceCollector collector = new StationPriceCollector(crawler, progressCacheManager, 2, 1);
+        List<Subway> result = collector.collect(stations, progress);
+
+        assertEquals(List.of(stations.get(2)), result);
+        verify(crawler, never()).getAveragePrice(stations.get(0).getUrl());
+        verify(progressCacheManager, times(1)).saveStationProgress(stations.get(2), 88.0, progress);
+        verify(progressCacheManager, times(1)).saveFailedAttempt(stations.get(1), progress);
+    }
+
+    @Test
+    void testCollect_RecordsSamples() throws Exception {
+        ZiroomCrawler crawler = mock(ZiroomCrawler.class);
+        ProgressCacheManager progressCacheManager = mock(ProgressCacheManager.class);
+        ListingSampleStore sampleStore = mock(ListingSampleStore.class);
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+
+        List<Subway> stations = createStations(2);
+        List<RentalPrice> samples = List.of(new RentalPrice(3000, 20), new RentalPrice(3600, 20));
+        when(crawler.getRentalPrices(anyString())).thenReturn(samples);
+        when(crawler.calculateAveragePrice(samples)).thenReturn(165.0);
+
+        StationPriceCollector collector = new StationPriceCollector(crawler, progressCacheManager, sampleStore, 2, 1);
+        List<Subway> result = collector.collect(stations, progress);
+
+        assertEquals(stations, result);
+        assertEquals(165.0, result.get(0).getSquareMeterOfPrice(), 0.001);
+        verify(sampleStore).append(same(stations.get(0)), anyLong(), same(samples));
+        verify(sampleStore).append(same(stations.get(1)), anyLong(), same(samples));
+        verify(crawler, never()).getAveragePrice(anyString());
+    }
+
+    @Test
+    void testRefresh_StopsWhenBudgetExhausted() {
+        ZiroomCrawler crawler = mock(ZiroomCrawler.class);
+        ProgressCacheManager progressCacheManager = mock(ProgressCacheManager.class);
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+
+        List<Subway> stations = createStations(10);
+        // 已完成的站点也会刷新
+        when(progressCacheManager.isStationCompleted(any(), any())).thenReturn(true);
+        when(crawler.getAveragePrice(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return 90.0;
+        });
+
+        StationPriceCollector collector = new StationPriceCollector(crawler, progressCacheManager, 1, 1);
+        List<Subway> result = collector.refresh(stations, progress, Duration.ofMillis(250));
+
+        assertTrue(result.size() >= 2 && result.size() <= 4, "预算内只能刷新前几个站点: " + result.size());
+        assertEquals(stations.subList(0, result.size()), result);
+        verify(crawler, never()).getAveragePrice(stations.get(9).getUrl());
+    }
+
+    @Test
+    void testCollect_FailedStationDoesNotStopOthers() {
+        ZiroomCrawler crawler = mock(ZiroomCrawler.class);
+        ProgressCacheManager progressCacheManager = mock(ProgressCacheManager.class);
+        ProgressCacheManager.PriceProgress progress = new ProgressCacheManager.PriceProgress();
+
+        List<Subway> stations = createStations(3);
+        when(crawler.getAveragePrice(anyString())).thenReturn(60.0);
+        when(crawler.getAveragePrice(stations.get(1).getUrl())).thenThrow(new RuntimeException("页面加载失败"));
+
+        StationPriceCollector collector = new StationPriceCollector(crawler, progressCacheManager, 2, 1);
+        List<Subway> result = collector.collect(stations, progress);
+
+        assertEquals(List.of(stations.get(0), stations.get(2)), result);
+    }
+
+    @Test
+    void testCollect_RespectsWorkerCount() {
+        ZiroomCrawler crawler = mock(ZiroomCrawler.class);
+        ProgressCacheManager progressCacheManager = mock(ProgressCacheManager.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        when(crawler.getAveragePrice(anyString())).thenAnswer(invocation -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return 70.0;
+        });
+
+        StationPriceCollector collector = new StationPriceCollector(crawler, progressCacheManager, 3, 1);
+        collector.collect(createStations(12), new ProgressCacheManager.PriceProgress());
+
+        assertTrue(maxRunning.get() <= 3, "并发数不应超过工作线程数");
+        assertTrue(maxRunning.get() > 1, "应该有多个站点并发获取");
+    }
+
+    private List<Subway> createStations(int count) {
+        List<Subway> stations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stations.add(new Subway("站点" + i, "1号线", "http://test.url/" + i));
+        }
+        return stations;
+    }
+}
@@ -0,0 +1,109 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationQueryServerTest {
+
+    private StationQueryServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StationQueryServer("127.0.0.1", 0, new VisualizationService());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    private static Subway station(String name, String line, String longitude, String latitude, double price) {
+        Subway subway = new Subway(name, line, "https://www.ziroom.com/" + name);
+        subway.setLongitude(longitude);
+        subway.setLatitude(latitude);
+        subway.setSquareMeterOfPrice(price);
+        return subway;
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testServiceUnavailableBeforeUpdate() throws Exception {
+        assertEquals(503, get("/api/stations").statusCode());
+    }
+
+    @Test
+    void testQueryStations() throws Exception {
+        server.update(List.of(
+                station("西直门", "2号线", "116.355", "39.940", 150),
+                station("国贸", "1号线", "116.461", "39.909", 180)));
+
+        HttpResponse<String> all = get("/api/stations");
+        assertEquals(200, all.statusCode());
+        assertTrue(all.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        assertTrue(all.body().contains("西直门") && all.body().contains("国贸"));
+
+        HttpResponse<String> filtered = get("/api/stations?line=" + URLEncoder.encode("1号线", StandardCharsets.UTF_8));
+        assertTrue(filtered.body().contains("国贸"));
+        assertFalse(filtered.body().contains("西直门"));
+
+        HttpResponse<String> bbox = get("/api/stations?bbox=116.3,39.9,116.4,40.0&maxPrice=160");
+        assertTrue(bbox.body().contains("西直门"));
+        assertFalse(bbox.body().contains("国贸"));
+
+        HttpResponse<String> near = get("/api/stations?near=116.36,39.94&k=1");
+        assertTrue(near.body().contains("distanceKm") && near.body().contains("西直门"));
+        assertFalse(near.body().contains("国贸"));
+        assertEquals(400, get("/api/stations?near=116.36").statusCode());
+
+        assertEquals(400, get("/api/stations?bbox=1,2").statusCode());
+        assertTrue(get("/api/lines").body().contains("2号线"));
+    }
+
+    @Test
+    void testMapPage() throws Exception {
+        server.update(List.of(station("西直门", "2号线", "116.355", "39.940", 150)));
+
+        HttpResponse<String> map = get("/map");
+        assertEquals(200, map.statusCode());
+        assertTrue(map.headers().firstValue("Content-Type").orElse("").startsWith("text/html"));
+        assertTrue(map.body().contains("西直门"));
+
+        assertFalse(get("/map?minPrice=200").body().contains("西直门"));
+        assertEquals(404, get("/unknown").statusCode());
+    }
+
+    @Test
+    void testRejectsNonGetRequests() throws Exception {
+        server.update(List.of());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/api/stations"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+
+        assertEquals(405, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Test
+    void testParseQuery() {
+        assertEquals(Map.of("line", "1号线", "bbox", "1,2,3,4"),
+                StationQueryServer.parseQuery("line=1%E5%8F%B7%E7%BA%BF&bbox=1,2,3,4&line=2"));
+        assertTrue(StationQueryServer.parseQuery(null).isEmpty());
+    }
+}
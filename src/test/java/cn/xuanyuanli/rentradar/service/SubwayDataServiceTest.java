@@ -7,15 +7,19 @@ import cn.xuanyuanli.rentradar.model.Subway;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SubwayDataServiceTest {
@@ -87,6 +91,27 @@ class SubwayDataServiceTest {
         assertNotNull(mockLocationService.getPOI("test-keyword"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnrichWithLocations_OnlyQueriesMissingStations(@TempDir Path tempDir) throws Exception {
+        GeocodeCache geocodeCache = new GeocodeCache(tempDir.resolve("geocode-cache.json").toString(),
+                tempDir.resolve("none.json").toString());
+        geocodeCache.putAll(Map.of("1号线 国贸", new POI("116.434", "39.906")));
+        SubwayDataService service = new SubwayDataService(mockCrawler, mockLocationService, geocodeCache);
+        when(mockLocationService.getPOIs(List.of("1号线 建国门"))).thenReturn(Map.of("1号线 建国门", new POI("116.428", "39.908")));
+
+        Method method = SubwayDataService.class.getDeclaredMethod("enrichWithLocations", List.class);
+        method.setAccessible(true);
+        List<Subway> result = (List<Subway>) method.invoke(service, createMockSubways());
+
+        assertEquals(2, result.size());
+        assertEquals("116.428", result.get(1).getLongitude());
+        verify(mockLocationService).getPOIs(List.of("1号线 建国门"));
+
+        // 全部命中缓存时不再查询
+        method.invoke(service, createMockSubways());
+        verifyNoMoreInteractions(mockLocationService);
+    }
 
     private List<Subway> createMockSubways() {
         return Arrays.asList(
@@ -0,0 +1,54 @@
+package cn.xuanyuanli.rentradar.service;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisualizationServiceTest {
+
+    private static Subway station(String name, String longitude, String latitude, double price) {
+        Subway subway = new Subway(name, "2号线", "https://www.ziroom.com/" + name);
+        subway.setLongitude(longitude);
+        subway.setLatitude(latitude);
+        subway.setSquareMeterOfPrice(price);
+        return subway;
+    }
+
+    @Test
+    void testRenderHtmlWithClusters() throws Exception {
+        String html = new VisualizationService().renderHtml(List.of(
+                station("西直门", "116.355", "39.940", 150),
+                station("朝阳门", "116.434", "39.924", 130),
+                station("无价格", "116.4", "39.9", 0),
+                station("坐标错误", "abc", "39.9", 100)));
+
+        assertTrue(html.contains("window.mapData={"));
+        assertTrue(html.contains("\"names\":[\"西直门\",\"朝阳门\"]"));
+        assertTrue(html.contains("\"lon\":[116355000,79000]"));
+        assertTrue(html.contains("\"maxZoom\":13"));
+        assertTrue(html.contains("function renderMapData(data)"));
+        assertTrue(html.contains("renderMapData(window.mapData);"));
+        assertFalse(html.contains("无价格"));
+        assertFalse(html.contains("坐标错误"));
+        assertFalse(html.contains("{{MARKERS}}"));
+    }
+
+    @Test
+    void testWriteMapData() throws Exception {
+        StringWriter writer = new StringWriter();
+        new VisualizationService().writeMapData(List.of(
+                station("西直门", "116.355", "39.940", 150),
+                station("无价格", "116.4", "39.9", 0)), "2026-01-01 00:00:00", writer);
+
+        String data = writer.toString();
+        assertTrue(data.startsWith("window.mapData={\"v\":1,\"time\":\"2026-01-01 00:00:00\""));
+        assertTrue(data.contains("\"thresholds\":[50,80,120]"));
+        assertTrue(data.contains("\"price\":[1500]"));
+        assertFalse(data.contains("无价格"));
+        assertFalse(data.contains("AMap"));
+    }
+}
@@ -0,0 +1,46 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronExpressionTest {
+
+    private final LocalDateTime base = LocalDateTime.of(2025, 6, 4, 10, 30, 15);
+
+    @Test
+    void testDaily() {
+        CronExpression cron = CronExpression.parse("0 3 * * *");
+        assertEquals(LocalDateTime.of(2025, 6, 5, 3, 0), cron.next(base));
+        assertEquals(LocalDateTime.of(2025, 6, 6, 3, 0), cron.next(LocalDateTime.of(2025, 6, 5, 3, 0)));
+    }
+
+    @Test
+    void testStepsRangesAndLists() {
+        assertEquals(LocalDateTime.of(2025, 6, 4, 10, 45), CronExpression.parse("*/15 * * * *").next(base));
+        assertEquals(LocalDateTime.of(2025, 6, 4, 12, 0), CronExpression.parse("0 8-18/4 * * *").next(base));
+        assertEquals(LocalDateTime.of(2025, 6, 4, 22, 10), CronExpression.parse("10 6,22 * * *").next(base));
+        assertEquals(LocalDateTime.of(2025, 7, 1, 0, 0), CronExpression.parse("0 0 1 * *").next(base));
+    }
+
+    @Test
+    void testDayOfWeek() {
+        // 2025-06-04 是周三
+        assertEquals(LocalDateTime.of(2025, 6, 8, 2, 0), CronExpression.parse("0 2 * * 0").next(base));
+        assertEquals(LocalDateTime.of(2025, 6, 8, 2, 0), CronExpression.parse("0 2 * * 7").next(base));
+        assertEquals(LocalDateTime.of(2025, 6, 5, 2, 0), CronExpression.parse("0 2 * * 1-5").next(base));
+        // 日和周都限定时满足其一即可
+        assertEquals(LocalDateTime.of(2025, 6, 5, 0, 0), CronExpression.parse("0 0 5 * 1").next(base));
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 3 * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("60 3 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 a * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 5-3 * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 0 30 2 *").next(base));
+    }
+}
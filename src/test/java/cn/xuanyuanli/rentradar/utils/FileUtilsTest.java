@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
@@ -73,6 +74,42 @@ class FileUtilsTest {
         assertEquals(content, Files.readString(nestedPath));
     }
 
+    @Test
+    void testWriteToFile_NoTempFileLeft() throws IOException {
+        FileUtils.writeToFile(testFilePath, "内容", false);
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of("test.txt"), files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void testWriteAtomically_FailureKeepsOriginal() throws IOException {
+        Files.writeString(Path.of(testFilePath), "原始内容");
+
+        IOException exception = assertThrows(IOException.class, () -> FileUtils.writeAtomically(testFilePath, true, out -> {
+            out.write("写了一半".getBytes());
+            throw new IOException("模拟写入中断");
+        }));
+
+        assertEquals("模拟写入中断", exception.getMessage());
+        assertEquals("原始内容", Files.readString(Path.of(testFilePath)));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "临时文件应被删除");
+        }
+    }
+
+    @Test
+    void testWriteAtomically_StreamContent() throws IOException {
+        FileUtils.writeAtomically(testFilePath, true, out -> {
+            for (int i = 0; i < 3; i++) {
+                out.write(("第" + i + "行\n").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        assertEquals(List.of("第0行", "第1行", "第2行"), Files.readAllLines(Path.of(testFilePath)));
+    }
+
     @Test
     void testReadFromFile_Success() throws IOException {
         String content = "测试读取内容\n包含中文和特殊字符!@#$%";
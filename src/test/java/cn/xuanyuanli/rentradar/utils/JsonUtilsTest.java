@@ -3,7 +3,11 @@ package cn.xuanyuanli.rentradar.utils;
 import cn.xuanyuanli.rentradar.model.Subway;
 import cn.xuanyuanli.rentradar.model.POI;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
@@ -206,4 +210,78 @@ class JsonUtilsTest {
         assertEquals("国贸(中央商务区)", deserialized.getName());
         assertEquals("http://test.url?param=value&other=测试", deserialized.getUrl());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testWriteAndReadArray_Streaming(@TempDir Path tempDir) throws IOException {
+        String file = tempDir.resolve("subways.json").toString();
+        List<Subway> original = Arrays.asList(
+            new Subway("国贸", "1号线", "http://test1.url"),
+            new Subway("建国门\n换乘", "1号线", "http://test2.url")
+        );
+
+        JsonUtils.writeArray(file, original);
+
+        // 仍然是合法的JSON数组，每行一个元素
+        List<String> lines = Files.readAllLines(Path.of(file));
+        assertEquals(4, lines.size());
+        assertNotNull(JsonUtils.parseArray(Files.readString(Path.of(file)), Subway.class));
+
+        List<Subway> read = JsonUtils.readArray(file, Subway.class);
+        assertNotNull(read);
+        assertEquals(2, read.size());
+        assertEquals("建国门\n换乘", read.get(1).getName());
+    }
+
+    @Test
+    void testReadArray_EmptyAndLegacyFormat(@TempDir Path tempDir) throws IOException {
+        String emptyFile = tempDir.resolve("empty.json").toString();
+        JsonUtils.writeArray(emptyFile, List.of());
+        assertEquals(List.of(), JsonUtils.readArray(emptyFile, Subway.class));
+
+        // 旧版本写出的单行JSON
+        Path legacyFile = tempDir.resolve("legacy.json");
+        Files.writeString(legacyFile, JsonUtils.toJsonString(List.of(new Subway("国贸", "1号线", "http://test1.url"))));
+        List<Subway> read = JsonUtils.readArray(legacyFile.toString(), Subway.class);
+        assertNotNull(read);
+        assertEquals("国贸", read.get(0).getName());
+    }
+
+    @Test
+    void testReadArray_PrettyPrinted(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("pretty.json");
+        Files.writeString(file, """
+                [
+                  {
+                    "name": "国贸",
+                    "lineName": "1号线"
+                  }
+                ]
+                """);
+
+        List<Subway> read = JsonUtils.readArray(file.toString(), Subway.class);
+        assertNotNull(read);
+        assertEquals(1, read.size());
+        assertEquals("国贸", read.get(0).getName());
+        assertEquals("1号线", read.get(0).getLineName());
+    }
+
+    @Test
+    void testReadArray_TruncatedFile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("truncated.json");
+        Files.writeString(file, "[\n{\"name\":\"国贸\"},\n{\"name\":\"建");
+
+        assertNull(JsonUtils.readArray(file.toString(), Subway.class));
+        assertThrows(IOException.class, () -> JsonUtils.readArray(tempDir.resolve("none.json").toString(), Subway.class));
+    }
+
+    @Test
+    void testWriteAndReadObject(@TempDir Path tempDir) throws IOException {
+        String file = tempDir.resolve("poi.json").toString();
+
+        JsonUtils.writeObject(file, new POI("116.434", "39.906"));
+        POI poi = JsonUtils.readObject(file, POI.class);
+
+        assertNotNull(poi);
+        assertEquals("39.906", poi.getLatitude());
+    }
+}
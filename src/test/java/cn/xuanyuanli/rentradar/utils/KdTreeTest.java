@@ -0,0 +1,88 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KdTreeTest {
+
+    private static final int POINTS = 2000;
+
+    private final double[] xs = new double[POINTS];
+    private final double[] ys = new double[POINTS];
+
+    KdTreeTest() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            // 保留少量重合点，模拟换乘站坐标相同的情况
+            xs[i] = i % 50 == 0 ? 10 : random.nextDouble() * 40;
+            ys[i] = i % 50 == 0 ? 10 : random.nextDouble() * 40;
+        }
+    }
+
+    private double distanceSquared(int point, double x, double y) {
+        return (xs[point] - x) * (xs[point] - x) + (ys[point] - y) * (ys[point] - y);
+    }
+
+    @Test
+    void testRangeMatchesBruteForce() {
+        KdTree tree = new KdTree(xs, ys);
+        Set<Integer> found = new HashSet<>();
+        tree.range(5, 8, 15, 12, found::add);
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < POINTS; i++) {
+            if (xs[i] >= 5 && xs[i] <= 15 && ys[i] >= 8 && ys[i] <= 12) {
+                expected.add(i);
+            }
+        }
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void testRadiusMatchesBruteForce() {
+        KdTree tree = new KdTree(xs, ys);
+        Set<Integer> found = new HashSet<>();
+        tree.radius(20, 20, 3, i -> i % 2 == 0, found::add);
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < POINTS; i += 2) {
+            if (distanceSquared(i, 20, 20) <= 9) {
+                expected.add(i);
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void testNearestMatchesBruteForce() {
+        KdTree tree = new KdTree(xs, ys);
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            double x = random.nextDouble() * 40;
+            double y = random.nextDouble() * 40;
+            int[] nearest = tree.nearest(x, y, 5, null);
+
+            double[] expected = IntStream.range(0, POINTS)
+                    .mapToDouble(i -> distanceSquared(i, x, y)).sorted().limit(5).toArray();
+            assertArrayEquals(expected, Arrays.stream(nearest).mapToDouble(i -> distanceSquared(i, x, y)).toArray());
+        }
+    }
+
+    @Test
+    void testNearestWithFilterAndSmallTree() {
+        KdTree tree = new KdTree(xs, ys);
+        int[] nearest = tree.nearest(10, 10, 3, i -> i % 50 != 0);
+        for (int point : nearest) {
+            assertNotEquals(0, point % 50);
+        }
+
+        KdTree small = new KdTree(new double[]{1, 2}, new double[]{1, 2});
+        assertArrayEquals(new int[]{1, 0}, small.nearest(3, 3, 5, null));
+        assertEquals(0, new KdTree(new double[0], new double[0]).nearest(0, 0, 3, null).length);
+    }
+}
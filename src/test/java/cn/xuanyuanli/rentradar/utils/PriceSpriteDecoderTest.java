@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -221,4 +222,111 @@ class PriceSpriteDecoderTest {
         String decodePrice = PriceSpriteDecoder.decodePrice(unknownSpriteData);
         assertNull(decodePrice, "测试环境为null");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("按样式字符串列表解码价格（批量提取模式）")
+    void testDecodePriceFromStyles() {
+        String image = "background-image: url(\"https://static8.ziroom.com/phoenix/pc/images/price/new-list/f4c1f82540f8d287aa53492a44f5819b.png\");";
+        List<String> styles = List.of(
+                image + " background-position: 0px center;",
+                image + " background-position: -21.4px center;",
+                image + " background-position: -42.8px center;",
+                image + " background-position: -64.2px center;");
+
+        assertEquals("4978", PriceSpriteDecoder.decodePriceFromStyles(styles));
+        assertNull(PriceSpriteDecoder.decodePriceFromStyles(null));
+        assertNull(PriceSpriteDecoder.decodePriceFromStyles(List.of()));
+    }
+
+    @Test
+    @DisplayName("按样式字符串列表解码价格数值")
+    void testDecodePriceValue() {
+        String image = "background-image: url(//static8.ziroom.com/phoenix/pc/images/price/new-list/f4c1f82540f8d287aa53492a44f5819b.png);";
+        List<String> styles = List.of(
+                image + " background-position: 0px center;",
+                image + " background-position: -21.4px center;",
+                image + " background-position: -42.8px center;",
+                image + " background-position: -64.2px center;");
+
+        assertEquals(4978L, PriceSpriteDecoder.decodePriceValue(styles));
+        assertEquals(-1L, PriceSpriteDecoder.decodePriceValue(null));
+        assertEquals(-1L, PriceSpriteDecoder.decodePriceValue(List.of()));
+        // 坐标没有对应数字
+        assertEquals(-1L, PriceSpriteDecoder.decodePriceValue(List.of(image + " background-position: -5px center;")));
+        assertTrue(PriceSpriteDecoder.isValidPrice(4978L));
+        assertFalse(PriceSpriteDecoder.isValidPrice(-1L));
+    }
+
+    @Test
+    @DisplayName("坐标量化为0.1像素整数")
+    void testScanPositionTenths() {
+        assertEquals(-1498, PriceSpriteDecoder.scanPositionTenths("background-position: -149.8px center;"));
+        assertEquals(-1070, PriceSpriteDecoder.scanPositionTenths("background-position:-107px 0px"));
+        assertEquals(-1070, PriceSpriteDecoder.scanPositionTenths("background-position: -107.0px center;"));
+        // 浮点误差按第二位小数四舍五入
+        assertEquals(-214, PriceSpriteDecoder.scanPositionTenths("background-position: -21.39999px center;"));
+        assertEquals(0, PriceSpriteDecoder.scanPositionTenths("background-position: 0px center;"));
+        assertEquals(Integer.MIN_VALUE, PriceSpriteDecoder.scanPositionTenths("background-position: center;"));
+        assertEquals(Integer.MIN_VALUE, PriceSpriteDecoder.scanPositionTenths("background-position: -21.px center;"));
+        assertEquals(Integer.MIN_VALUE, PriceSpriteDecoder.scanPositionTenths("background-image: url(a.png);"));
+    }
+
+    @Test
+    @DisplayName("扫描精灵图标识符区间")
+    void testScanSpriteId() {
+        String style = "background-image: url(\"https://static8.ziroom.com/img/abc.png\");";
+        long range = PriceSpriteDecoder.scanSpriteId(style);
+        assertEquals("abc", style.substring((int) (range >>> 32), (int) range));
+        assertEquals(-1L, PriceSpriteDecoder.scanSpriteId("background-image: url(noext);"));
+        assertEquals(-1L, PriceSpriteDecoder.scanSpriteId("background-image: none;"));
+    }
+
+    @Test
+    @DisplayName("由页面坐标推算精灵图数字间隔")
+    void testInferPixelInterval() {
+        assertEquals(21.4, PriceSpriteDecoder.inferPixelInterval(new int[]{-1070, -1712}, 20.0), 0.001);
+        assertEquals(20.0, PriceSpriteDecoder.inferPixelInterval(new int[]{0, -200, -400, -600}, 21.4), 0.001);
+        // 只有0坐标时无从推算，使用默认间隔
+        assertEquals(21.4, PriceSpriteDecoder.inferPixelInterval(new int[]{0, 0}, 21.4), 0.001);
+        // 坐标无法对齐到同一个间隔
+        assertTrue(Double.isNaN(PriceSpriteDecoder.inferPixelInterval(new int[]{-100, -173}, 21.4)));
+        assertTrue(Double.isNaN(PriceSpriteDecoder.inferPixelInterval(new int[]{120}, 21.4)));
+    }
+
+    @Test
+    @DisplayName("生成映射以页面坐标为准")
+    void testGenerateMapping() {
+        Map<String, String> mapping = PriceSpriteDecoder.generateMapping("1234567890", 21.4, new int[]{-1498});
+        assertEquals("1", mapping.get("0"));
+        assertEquals("6", mapping.get("-107.0"));
+        assertEquals("8", mapping.get("-149.8"));
+        assertEquals("0", mapping.get("-192.6"));
+    }
+
+    @Test
+    @DisplayName("识别失败的精灵图在冷却期内直接跳过")
+    void testFailedSpriteCooldown() {
+        Instant now = Instant.now();
+        String spriteId = "failed-" + now.toEpochMilli();
+        assertFalse(PriceSpriteDecoder.recentlyFailed(spriteId, now));
+
+        PriceSpriteDecoder.recordFailure(spriteId, now);
+        assertTrue(PriceSpriteDecoder.recentlyFailed(spriteId, now.plusSeconds(60)));
+        // 冷却期过后允许重新识别
+        assertFalse(PriceSpriteDecoder.recentlyFailed(spriteId,
+                now.plus(PriceSpriteDecoder.FAILED_SPRITE_COOLDOWN).plusSeconds(1)));
+        assertFalse(PriceSpriteDecoder.recentlyFailed(spriteId, now));
+    }
+
+    @Test
+    @DisplayName("失败记录条数有上限")
+    void testFailedSpritesBounded() {
+        Instant now = Instant.now();
+        for (int i = 0; i < PriceSpriteDecoder.MAX_FAILED_SPRITES + 10; i++) {
+            PriceSpriteDecoder.recordFailure("bounded-" + i, now.plusMillis(i));
+        }
+        assertTrue(PriceSpriteDecoder.failedSpriteCount() <= PriceSpriteDecoder.MAX_FAILED_SPRITES);
+        assertFalse(PriceSpriteDecoder.recentlyFailed("bounded-0", now));
+        assertTrue(PriceSpriteDecoder.recentlyFailed("bounded-" + (PriceSpriteDecoder.MAX_FAILED_SPRITES + 9), now));
+    }
+}
@@ -0,0 +1,114 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void testExactForSmallInput() {
+        double[] data = {120, 80, 95.5, 101, 99, 300, 87, 110};
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : data) {
+            sketch.add(value);
+        }
+
+        double[] sorted = data.clone();
+        Arrays.sort(sorted);
+        for (double q : new double[]{0, 0.25, 0.5, 0.75, 1}) {
+            assertEquals(sortedQuantile(sorted, q), sketch.quantile(q), 1e-12);
+        }
+        assertTrue(sketch.isExact());
+        assertEquals(8, sketch.count());
+        assertEquals(80, sketch.min());
+        assertEquals(300, sketch.max());
+
+        double[] bounds = sketch.iqrBounds(1.5);
+        double iqr = sortedQuantile(sorted, 0.75) - sortedQuantile(sorted, 0.25);
+        assertEquals(sortedQuantile(sorted, 0.25) - 1.5 * iqr, bounds[0], 1e-12);
+        assertEquals(sortedQuantile(sorted, 0.75) + 1.5 * iqr, bounds[1], 1e-12);
+    }
+
+    @Test
+    void testLargeInputUsesBoundedCentroids() {
+        Random random = new Random(42);
+        double[] data = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = 50 + random.nextGaussian() * 20;
+            sketch.add(data[i]);
+        }
+        Arrays.sort(data);
+
+        assertFalse(sketch.isExact());
+        assertTrue(sketch.centroidCount() <= 2 * QuantileSketch.DEFAULT_COMPRESSION);
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            assertEquals(sortedQuantile(data, q), sketch.quantile(q), 0.5, "q=" + q);
+        }
+        assertEquals(data[0], sketch.quantile(0), 1e-12);
+        assertEquals(data[data.length - 1], sketch.quantile(1), 1e-12);
+    }
+
+    @Test
+    void testMerge() {
+        Random random = new Random(7);
+        QuantileSketch citywide = new QuantileSketch();
+        double[] all = new double[20 * 60];
+        int n = 0;
+        for (int station = 0; station < 20; station++) {
+            QuantileSketch stationSketch = new QuantileSketch();
+            for (int i = 0; i < 60; i++) {
+                double value = 60 + station * 5 + random.nextDouble() * 30;
+                stationSketch.add(value);
+                all[n++] = value;
+            }
+            citywide.merge(stationSketch);
+            assertEquals(60, stationSketch.count());
+        }
+        Arrays.sort(all);
+
+        assertEquals(all.length, citywide.count());
+        assertEquals(all[0], citywide.min());
+        assertEquals(all[all.length - 1], citywide.max());
+        for (double q : new double[]{0.1, 0.5, 0.9}) {
+            assertEquals(sortedQuantile(all, q), citywide.quantile(q), 1.0, "q=" + q);
+        }
+    }
+
+    @Test
+    void testMergeSmallSketchesStaysExact() {
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        left.add(1);
+        left.add(3);
+        right.add(2);
+        right.add(4);
+
+        left.merge(right);
+
+        assertTrue(left.isExact());
+        assertEquals(2.5, left.quantile(0.5), 1e-12);
+        assertEquals(2, right.count());
+    }
+
+    @Test
+    void testEmptyAndInvalid() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        sketch.add(Double.NaN);
+        assertEquals(0, sketch.count());
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(5, 10));
+    }
+
+    private double sortedQuantile(double[] sorted, double q) {
+        double index = q * (sorted.length - 1);
+        int lower = (int) Math.floor(index);
+        int upper = (int) Math.ceil(index);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (index - lower);
+    }
+}
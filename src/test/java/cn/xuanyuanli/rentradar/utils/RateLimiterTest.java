@@ -0,0 +1,66 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void testBurstPassesImmediately() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1, 3);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+        }
+        assertTrue(System.nanoTime() - start < 200_000_000L, "桶内令牌应立即可用");
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void testAcquireIsPaced() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20, 1);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire();
+        }
+        // 第一个令牌立即可用，其余5个按50毫秒间隔发放
+        assertTrue(System.nanoTime() - start >= 240_000_000L);
+    }
+
+    @Test
+    void testSharedAcrossThreads() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(50, 1);
+        List<Thread> threads = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 3; j++) {
+                        limiter.acquire();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 12个令牌，总速率50/秒，至少需要220毫秒
+        assertTrue(System.nanoTime() - start >= 210_000_000L);
+    }
+
+    @Test
+    void testInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1));
+    }
+}
@@ -0,0 +1,72 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpriteDigitRecognizer 单元测试类
+ *
+ * @author xuanyuanli
+ */
+@DisplayName("精灵图数字离线识别测试")
+class SpriteDigitRecognizerTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "sprite_v1_a9da4f199beb8d74bffa9500762fd7b7.png, 8670415923",
+            "sprite_v2_f4c1f82540f8d287aa53492a44f5819b.png, 4978123605",
+            "sprite_new_c4b718a0002eb143ea3484b373071495.png, 9310867542",
+            "sprite_red_img_pricenumber_list_red.png, 8652039147"
+    })
+    @DisplayName("识别已知精灵图的数字顺序")
+    void testRecognizeKnownSprites(String fileName, String expectedOrder) throws IOException {
+        assertEquals(expectedOrder, SpriteDigitRecognizer.recognize(readSprite(fileName)));
+    }
+
+    @Test
+    @DisplayName("白底黑字精灵图同样可以识别")
+    void testRecognizeOpaqueSprite() throws IOException {
+        BufferedImage sprite = readSprite("sprite_v2_f4c1f82540f8d287aa53492a44f5819b.png");
+        BufferedImage opaque = new BufferedImage(sprite.getWidth(), sprite.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = opaque.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, opaque.getWidth(), opaque.getHeight());
+        graphics.drawImage(sprite, 0, 0, null);
+        graphics.dispose();
+
+        assertEquals("4978123605", SpriteDigitRecognizer.recognize(opaque));
+    }
+
+    @Test
+    @DisplayName("空白图片识别失败返回null")
+    void testRecognizeBlankImage() {
+        BufferedImage blank = new BufferedImage(300, 28, BufferedImage.TYPE_INT_ARGB);
+        assertNull(SpriteDigitRecognizer.recognize(blank));
+    }
+
+    @Test
+    @DisplayName("模板像素编码往返")
+    void testPixelEncoding() {
+        double[] pixels = {0, 0.5, 1};
+        assertEquals("059", SpriteDigitRecognizer.encodePixels(pixels));
+        assertArrayEquals(new double[]{0, 5 / 9.0, 1}, SpriteDigitRecognizer.decodePixels("059"), 1e-9);
+    }
+
+    private BufferedImage readSprite(String fileName) throws IOException {
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("sprites/" + fileName)) {
+            assertNotNull(input, "测试精灵图不存在: " + fileName);
+            return ImageIO.read(input);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import cn.xuanyuanli.rentradar.utils.PriceSpriteDecoder.SpriteConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SpriteRegistry 单元测试类
+ *
+ * @author xuanyuanli
+ */
+@DisplayName("精灵图配置注册表测试")
+class SpriteRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("加载类路径下的内置精灵图配置")
+    void testLoadClasspathConfigs() {
+        SpriteRegistry registry = new SpriteRegistry(tempDir);
+
+        assertNotNull(registry.get("img_pricenumber_list_red"));
+        assertEquals(registry.snapshot().getConfigs().size(), registry.tables().length);
+        assertNull(registry.get(null));
+    }
+
+    @Test
+    @DisplayName("注册新精灵图并保存到外部目录")
+    void testRegisterAndPersist() {
+        SpriteRegistry registry = new SpriteRegistry(tempDir);
+        SpriteConfig config = config("learned_sprite", "0", "3");
+
+        assertTrue(registry.register(config));
+        assertFalse(registry.register(config("learned_sprite", "0", "5")), "同名配置保留原配置");
+        assertEquals("3", registry.get("learned_sprite").getMapping().get("0"));
+
+        registry.persist(config);
+        assertTrue(Files.exists(tempDir.resolve("learned_sprite.json")));
+
+        // 新实例从外部目录加载
+        assertNotNull(new SpriteRegistry(tempDir).get("learned_sprite"));
+    }
+
+    @Test
+    @DisplayName("重新加载时外部配置覆盖内置配置，运行期注册的配置保留")
+    void testReloadOverridesClasspath() throws Exception {
+        SpriteRegistry registry = new SpriteRegistry(tempDir);
+        registry.register(config("runtime_only", "0", "1"));
+
+        Files.writeString(tempDir.resolve("img_pricenumber_list_red.json"),
+                "{\"identifier\":\"img_pricenumber_list_red\",\"mapping\":{\"0\":\"7\"}}");
+        Files.writeString(tempDir.resolve("broken.json"), "{not json");
+        registry.reload();
+
+        assertEquals("7", registry.get("img_pricenumber_list_red").getMapping().get("0"));
+        assertNotNull(registry.get("runtime_only"));
+    }
+
+    @Test
+    @DisplayName("并发注册不丢失配置")
+    void testConcurrentRegister() throws Exception {
+        SpriteRegistry registry = new SpriteRegistry(tempDir);
+        int before = registry.snapshot().getConfigs().size();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String id = "sprite_" + i;
+                futures.add(executor.submit(() -> registry.register(config(id, "0", "1"))));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(before + 64, registry.snapshot().getConfigs().size());
+        assertEquals(before + 64, registry.tables().length);
+    }
+
+    @Test
+    @DisplayName("监听目录，新增配置文件后自动加载")
+    void testHotReload() throws Exception {
+        SpriteRegistry registry = new SpriteRegistry(tempDir);
+        registry.startWatching();
+        try {
+            Files.writeString(tempDir.resolve("hot_sprite.json"),
+                    "{\"identifier\":\"hot_sprite\",\"mapping\":{\"0\":\"2\"}}");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (registry.get("hot_sprite") == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertNotNull(registry.get("hot_sprite"));
+        } finally {
+            registry.stopWatching();
+        }
+    }
+
+    private SpriteConfig config(String identifier, String position, String digit) {
+        SpriteConfig config = new SpriteConfig();
+        config.setIdentifier(identifier);
+        config.setMapping(Map.of(position, digit));
+        return config;
+    }
+}
@@ -0,0 +1,48 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingTemplateTest {
+
+    @Test
+    void testRenderPlaceholders() throws Exception {
+        StreamingTemplate template = StreamingTemplate.parse("<h1>{{TITLE}}</h1>\n<ul>{{ITEMS}}</ul>{{TITLE}}");
+        assertEquals(List.of("TITLE", "ITEMS"), List.copyOf(template.getPlaceholders()));
+
+        StringWriter out = new StringWriter();
+        template.render(out, Map.of(
+                "TITLE", writer -> writer.write("价格"),
+                "ITEMS", writer -> {
+                    for (int i = 0; i < 3; i++) {
+                        writer.write("<li>" + i + "</li>");
+                    }
+                }));
+
+        assertEquals("<h1>价格</h1>\n<ul><li>0</li><li>1</li><li>2</li></ul>价格", out.toString());
+    }
+
+    @Test
+    void testUnknownAndUnclosedPlaceholdersKeptAsIs() throws Exception {
+        StreamingTemplate template = StreamingTemplate.parse("{{A}} {{B}} {{unclosed");
+        StringWriter out = new StringWriter();
+        template.render(out, Map.of("A", writer -> writer.write("1")));
+
+        assertEquals("1 {{B}} {{unclosed", out.toString());
+    }
+
+    @Test
+    void testTemplateWithoutPlaceholders() throws Exception {
+        StreamingTemplate template = StreamingTemplate.parse("plain");
+        StringWriter out = new StringWriter();
+        template.render(out, Map.of());
+
+        assertTrue(template.getPlaceholders().isEmpty());
+        assertEquals("plain", out.toString());
+    }
+}
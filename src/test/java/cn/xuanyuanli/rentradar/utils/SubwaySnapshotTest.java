@@ -0,0 +1,87 @@
+package cn.xuanyuanli.rentradar.utils;
+
+import cn.xuanyuanli.rentradar.model.Subway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubwaySnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead() throws Exception {
+        Subway guomao = station("国贸", "1号线", "116.434", "39.906", 156.25);
+        Subway jianguomen = station("建国门", "1号线", "116.427289", "39.9", 0);
+        Subway noLocation = station("东直门", "2号线", null, "", 98.5);
+        String file = tempDir.resolve("subway-prices.bin").toString();
+
+        SubwaySnapshot.write(file, List.of(guomao, jianguomen, noLocation));
+        List<Subway> loaded = SubwaySnapshot.read(file);
+
+        assertEquals(3, loaded.size());
+        Subway first = loaded.get(0);
+        assertEquals("国贸", first.getName());
+        assertEquals("1号线", first.getLineName());
+        assertEquals("http://test.url/国贸", first.getUrl());
+        assertEquals("116.434", first.getLongitude());
+        assertEquals("39.906", first.getLatitude());
+        assertEquals(156.25, first.getSquareMeterOfPrice());
+
+        assertEquals("116.427289", loaded.get(1).getLongitude());
+        assertEquals("39.9", loaded.get(1).getLatitude());
+        // 同一线路共用字符串表中的线路名
+        assertSame(first.getLineName(), loaded.get(1).getLineName());
+
+        assertFalse(loaded.get(2).hasValidLocation());
+        assertNull(loaded.get(2).getLongitude());
+        assertEquals(98.5, loaded.get(2).getSquareMeterOfPrice());
+    }
+
+    @Test
+    void testEmptyList() throws Exception {
+        String file = tempDir.resolve("empty.bin").toString();
+        SubwaySnapshot.write(file, List.of());
+        assertTrue(SubwaySnapshot.read(file).isEmpty());
+    }
+
+    @Test
+    void testInvalidFile() throws Exception {
+        Path notSnapshot = tempDir.resolve("subway-prices.json");
+        Files.writeString(notSnapshot, "[{\"name\":\"国贸\"}]");
+        assertThrows(IOException.class, () -> SubwaySnapshot.read(notSnapshot.toString()));
+
+        Path truncated = tempDir.resolve("truncated.bin");
+        SubwaySnapshot.write(truncated.toString(), List.of(station("国贸", "1号线", "116.434", "39.906", 100)));
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> SubwaySnapshot.read(truncated.toString()));
+
+        assertThrows(IOException.class, () -> SubwaySnapshot.read(tempDir.resolve("missing.bin").toString()));
+    }
+
+    @Test
+    void testFixedPoint() {
+        assertEquals(116434000, SubwaySnapshot.toFixedPoint("116.434"));
+        assertEquals("116.434", SubwaySnapshot.fromFixedPoint(116434000));
+        assertEquals("-0.5", SubwaySnapshot.fromFixedPoint(SubwaySnapshot.toFixedPoint("-0.5")));
+        assertEquals("120", SubwaySnapshot.fromFixedPoint(SubwaySnapshot.toFixedPoint("120")));
+        assertNull(SubwaySnapshot.fromFixedPoint(SubwaySnapshot.toFixedPoint("abc")));
+    }
+
+    private Subway station(String name, String line, String longitude, String latitude, double price) {
+        Subway station = new Subway(name, line, "http://test.url/" + name);
+        station.setLongitude(longitude);
+        station.setLatitude(latitude);
+        station.setSquareMeterOfPrice(price);
+        return station;
+    }
+}